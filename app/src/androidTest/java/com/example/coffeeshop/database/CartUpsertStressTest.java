@@ -0,0 +1,86 @@
+package com.example.coffeeshop.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Hammers addToCart from several threads on the same few cart lines and checks
+ * that every increment lands and no duplicate lines appear.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CartUpsertStressTest {
+
+    private static final String DB_NAME = "stress_cart.db";
+    private static final int THREADS = 8;
+    private static final int ADDS_PER_THREAD = 500;
+    private static final int PRODUCTS = 3;
+    private static final int USER_ID = 1;
+
+    private Context context;
+    private DatabaseHelper helper;
+
+    @Before
+    public void setup() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        helper = new DatabaseHelper(context, DB_NAME, DatabaseConfig.DEFAULT);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void concurrentAddsLoseNoIncrements() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> failures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            failures.add(pool.submit(() -> {
+                start.await();
+                int failed = 0;
+                for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                    if (!helper.addToCart(USER_ID, 1 + i % PRODUCTS, 1)) {
+                        failed++;
+                    }
+                }
+                return failed;
+            }));
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES));
+        for (Future<Integer> failed : failures) {
+            assertEquals(0, (int) failed.get());
+        }
+
+        Cursor cursor = helper.getReadableDatabase().rawQuery(
+                "SELECT COUNT(*), SUM(quantity) FROM cart WHERE user_id = ?",
+                new String[]{String.valueOf(USER_ID)});
+        assertTrue(cursor.moveToFirst());
+        int lines = cursor.getInt(0);
+        int units = cursor.getInt(1);
+        cursor.close();
+
+        assertEquals(PRODUCTS, lines);
+        assertEquals(THREADS * ADDS_PER_THREAD, units);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.coffeeshop.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.example.coffeeshop.models.CartItem;
+import com.example.coffeeshop.models.Product;
+import java.util.List;
+import java.util.Locale;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Places orders from 60-line carts: the old path (read the cart, sum it in Java,
+ * createOrder, clearCart as separate statements) against the single checkout
+ * transaction. Results are written to logcat under the "DbBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CheckoutBenchmark {
+
+    private static final String TAG = "DbBenchmark";
+    private static final String DB_NAME = "bench_checkout.db";
+    private static final int USER_ID = 1;
+    private static final int CART_LINES = 60;
+    private static final int ORDERS = 100;
+
+    private Context context;
+    private DatabaseHelper helper;
+
+    @Before
+    public void setup() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        helper = new DatabaseHelper(context, DB_NAME, DatabaseConfig.DEFAULT);
+        SQLiteDatabase db = helper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < CART_LINES; i++) {
+                helper.addProduct(new Product("Blend " + i, "Benchmark product", 2.5 + i % 5, "espresso"));
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void separateStatementsVersusCheckout() {
+        long legacy = 0;
+        long checkout = 0;
+        for (int i = 0; i < ORDERS; i++) {
+            fillCart();
+            long start = System.nanoTime();
+            List<CartItem> items = helper.getCartItems(USER_ID);
+            double total = 0;
+            for (CartItem item : items) {
+                total += item.getSubtotal();
+            }
+            assertTrue(helper.createOrder(USER_ID, total, "pending"));
+            assertTrue(helper.clearCart(USER_ID));
+            legacy += System.nanoTime() - start;
+
+            fillCart();
+            start = System.nanoTime();
+            assertTrue(helper.checkout(USER_ID) != -1);
+            checkout += System.nanoTime() - start;
+        }
+
+        Log.i(TAG, String.format(Locale.US, "%d-line cart, separate statements: %.2f ms/order",
+                CART_LINES, legacy / 1e6 / ORDERS));
+        Log.i(TAG, String.format(Locale.US, "%d-line cart, checkout transaction: %.2f ms/order",
+                CART_LINES, checkout / 1e6 / ORDERS));
+        assertEquals(ORDERS * CART_LINES, DatabaseUtils.queryNumEntries(
+                helper.getReadableDatabase(), "order_items"));
+    }
+
+    private void fillCart() {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            // The sample catalog holds 8 products before the benchmark ones
+            for (int i = 0; i < CART_LINES; i++) {
+                helper.addToCart(USER_ID, 9 + i, 1 + i % 3);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.coffeeshop.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Compares read/write throughput of the WAL configuration with the old rollback
+ * journal while several readers hit the orders table during order writes.
+ * Results are written to logcat under the "DbBenchmark" tag.
+ * <p>
+ * The readers run on pooled connections, which get DatabaseConfig's PRAGMA
+ * tuning on API 30 and later only. On older devices the read figures measure
+ * WAL's concurrency alone.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseConcurrencyBenchmark {
+
+    private static final String TAG = "DbBenchmark";
+    private static final int SEED_ORDERS = 5_000;
+    private static final int WRITES = 500;
+    private static final int READERS = 4;
+
+    @Test
+    public void walVersusRollbackJournal() throws Exception {
+        Result legacy = run("bench_legacy.db", DatabaseConfig.LEGACY);
+        Result wal = run("bench_wal.db", DatabaseConfig.DEFAULT);
+
+        Log.i(TAG, "rollback journal: " + legacy);
+        Log.i(TAG, "WAL:              " + wal);
+        assertTrue(wal.reads > 0 && legacy.reads > 0);
+    }
+
+    private Result run(String name, DatabaseConfig config) throws Exception {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(name);
+        DatabaseHelper helper = new DatabaseHelper(context, name, config);
+        try {
+            seed(helper);
+
+            AtomicBoolean writing = new AtomicBoolean(true);
+            AtomicLong reads = new AtomicLong();
+            CountDownLatch readersDone = new CountDownLatch(READERS);
+            List<Thread> readers = new ArrayList<>();
+            for (int i = 0; i < READERS; i++) {
+                Thread reader = new Thread(() -> {
+                    while (writing.get()) {
+                        helper.getPendingOrders();
+                        helper.getTotalRevenue();
+                        reads.addAndGet(2);
+                    }
+                    readersDone.countDown();
+                });
+                readers.add(reader);
+                reader.start();
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < WRITES; i++) {
+                helper.createOrder(1, 4.99, i % 2 == 0 ? "pending" : "accepted");
+            }
+            long elapsed = System.nanoTime() - start;
+            writing.set(false);
+            readersDone.await();
+
+            assertEquals(SEED_ORDERS + WRITES, countOrders(helper));
+            return new Result(WRITES, reads.get(), elapsed);
+        } finally {
+            helper.close();
+            context.deleteDatabase(name);
+        }
+    }
+
+    private static void seed(DatabaseHelper helper) {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < SEED_ORDERS; i++) {
+                helper.createOrder(1, 3.49, i % 3 == 0 ? "pending" : "accepted");
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static long countOrders(DatabaseHelper helper) {
+        return DatabaseUtils.queryNumEntries(helper.getReadableDatabase(), "orders");
+    }
+
+    private static final class Result {
+        final long writes;
+        final long reads;
+        final long elapsedNanos;
+
+        Result(long writes, long reads, long elapsedNanos) {
+            this.writes = writes;
+            this.reads = reads;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            double seconds = elapsedNanos / 1e9;
+            return String.format(Locale.US, "%.0f writes/s, %.0f reads/s over %.2fs",
+                    writes / seconds, reads / seconds, seconds);
+        }
+    }
+}
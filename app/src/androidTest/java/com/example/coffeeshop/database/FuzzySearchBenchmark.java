@@ -0,0 +1,66 @@
+package com.example.coffeeshop.database;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.util.Log;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.example.coffeeshop.models.Product;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Typo-tolerant lookups in the in-memory trigram index over a 50k product
+ * catalog with Vietnamese and English names. Each lookup has to stay well under
+ * a 16 ms frame. Results are written to logcat under the "DbBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FuzzySearchBenchmark {
+
+    private static final String TAG = "DbBenchmark";
+    private static final int PRODUCTS = 50_000;
+    private static final int RUNS = 20;
+    private static final long FRAME_NANOS = 16_000_000L;
+    private static final String[] BASES = {"Cà phê", "Trà", "Sinh tố",
+            "Latte", "Cappuccino", "Mocha", "Macchiato", "Frappe", "Espresso", "Smoothie"};
+    private static final String[] FLAVOURS = {"sữa đá", "đào cam sả",
+            "bơ", "dừa", "Caramel", "Hazelnut", "Vanilla", "Matcha", "Cinnamon", "Pumpkin"};
+    private static final String[] QUERIES = {"ca phe sua", "capucino", "macha latte", "tra dao",
+            "sinh to bo", "cinamon", "hazlenut", "expresso caramel"};
+
+    @Test
+    public void typoLookupsStayUnderAFrame() {
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            String base = BASES[i % BASES.length];
+            String flavour = FLAVOURS[(i / BASES.length) % FLAVOURS.length];
+            products.add(new Product(i + 1, base + " " + flavour + " " + i,
+                    "Seasonal " + flavour + " " + base, 3.0 + (i % 30) / 10.0, "latte"));
+        }
+        long start = System.nanoTime();
+        FuzzyProductIndex index = new FuzzyProductIndex(products);
+        Log.i(TAG, String.format(Locale.US, "fuzzy index build, %d products: %.1f ms",
+                PRODUCTS, (System.nanoTime() - start) / 1e6));
+
+        for (String query : QUERIES) {
+            List<String> words = ProductSearchIndex.words(query);
+            int hits = index.search(words).size(); // warm up
+            long best = Long.MAX_VALUE;
+            long worst = 0;
+            for (int i = 0; i < RUNS; i++) {
+                long begin = System.nanoTime();
+                index.search(words);
+                long elapsed = System.nanoTime() - begin;
+                best = Math.min(best, elapsed);
+                worst = Math.max(worst, elapsed);
+            }
+            Log.i(TAG, String.format(Locale.US, "fuzzy \"%s\": %.2f ms best, %.2f ms worst, %d hits",
+                    query, best / 1e6, worst / 1e6, hits));
+            assertFalse("no match for " + query, hits == 0);
+            assertTrue("\"" + query + "\" took " + worst / 1e6 + " ms", worst < FRAME_NANOS);
+        }
+    }
+}
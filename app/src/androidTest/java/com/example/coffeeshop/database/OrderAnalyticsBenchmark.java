@@ -0,0 +1,145 @@
+package com.example.coffeeshop.database;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.example.coffeeshop.models.RevenuePoint;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Admin reports over one million orders from {@link OrderAnalytics} against the
+ * DatabaseHelper queries and SQL GROUP BYs that answer the same question.
+ * Results are written to logcat under the "DbBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class OrderAnalyticsBenchmark {
+
+    private static final String TAG = "DbBenchmark";
+    private static final String DB_NAME = "bench_order_analytics.db";
+    private static final int ORDERS = 1_000_000;
+    private static final int CUSTOMERS = 500;
+    private static final long SPAN_MILLIS = 2L * 365 * 24 * 60 * 60 * 1000;
+    private static final int RUNS = 5;
+
+    private Context context;
+    private DatabaseHelper helper;
+
+    @Before
+    public void setup() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        helper = new DatabaseHelper(context, DB_NAME, DatabaseConfig.DEFAULT);
+        seed(helper.getWritableDatabase());
+        // The seed bypasses createOrder, so count the rollup from the orders
+        helper.rebuildRevenueRollup();
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void columnScansVersusSql() {
+        long start = System.nanoTime();
+        OrderAnalytics analytics = helper.getOrderAnalytics();
+        Log.i(TAG, String.format(Locale.US, "analytics load: %.2f ms, %d orders in %.1f MiB",
+                (System.nanoTime() - start) / 1e6, analytics.getSize(),
+                analytics.getMemoryBytes() / (1024.0 * 1024.0)));
+
+        int year = Calendar.getInstance().get(Calendar.YEAR) - 1;
+        OrderFilter filter = OrderFilter.acceptedInYear(year);
+        SQLiteDatabase db = helper.getReadableDatabase();
+
+        double rollupSeries = time("year by month  rollup  ", () ->
+                sum(helper.getRevenueSeries(filter, RevenueBucket.MONTH)));
+        double columnSeries = time("year by month  columns ", () ->
+                sum(analytics.getRevenueSeries(filter, RevenueBucket.MONTH)));
+
+        double rollupTicket = time("average ticket rollup  ", () ->
+                helper.getRevenueReport(filter, 1).getAverageTicket());
+        double columnTicket = time("average ticket columns ", () -> analytics.getAverageTicket(filter));
+
+        String[] args = {filter.getStatus(), String.valueOf(filter.getFrom()), String.valueOf(filter.getTo())};
+        double sqlTop = time("top customer   GROUP BY", () -> first(db, "SELECT SUM(total_amount) AS revenue " +
+                "FROM orders WHERE status = ? AND order_time >= ? AND order_time < ? " +
+                "GROUP BY user_id ORDER BY revenue DESC LIMIT 1", args));
+        double columnTop = time("top customer   columns ", () ->
+                analytics.getTopCustomers(filter, 1).get(0).getRevenue());
+
+        assertEquals(rollupSeries, columnSeries, 0.01);
+        assertEquals(rollupTicket, columnTicket, 0.001);
+        assertEquals(sqlTop, columnTop, 0.01);
+    }
+
+    private static void seed(SQLiteDatabase db) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
+        long end = System.currentTimeMillis();
+        long start = end - SPAN_MILLIS;
+        long step = SPAN_MILLIS / ORDERS;
+        SQLiteStatement insert = db.compileStatement("INSERT INTO orders " +
+                "(user_id, total_amount, order_date, order_time, status) VALUES (?, ?, ?, ?, ?)");
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < ORDERS; i++) {
+                long time = (start + i * step) / 1000 * 1000;
+                insert.bindLong(1, 1 + (i * 31L) % CUSTOMERS);
+                insert.bindDouble(2, 2.5 + (i % 7));
+                insert.bindString(3, format.format(new Date(time)));
+                insert.bindLong(4, time);
+                insert.bindString(5, i % 4 == 0 ? "pending" : "accepted");
+                insert.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            insert.close();
+        }
+    }
+
+    private static double sum(List<RevenuePoint> series) {
+        double total = 0;
+        for (RevenuePoint point : series) {
+            total += point.getRevenue();
+        }
+        return total;
+    }
+
+    private static double first(SQLiteDatabase db, String sql, String... args) {
+        Cursor cursor = db.rawQuery(sql, args);
+        double value = cursor.moveToFirst() ? cursor.getDouble(0) : 0.0;
+        cursor.close();
+        return value;
+    }
+
+    private interface Query {
+        double run();
+    }
+
+    private static double time(String label, Query query) {
+        double result = query.run(); // warm the page cache and the JIT
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            result = query.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        Log.i(TAG, String.format(Locale.US, "%s: %.2f ms (best of %d)", label, best / 1e6, RUNS));
+        return result;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.coffeeshop.database;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Day, month and year revenue over one million orders: the old strftime()
+ * filters on the order_date text against the order_time range scans, with the
+ * revenue_daily report the app reads for the same periods alongside.
+ * Results are written to logcat under the "DbBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class OrderTimeRangeBenchmark {
+
+    private static final String TAG = "DbBenchmark";
+    private static final String DB_NAME = "bench_order_time.db";
+    private static final int ORDERS = 1_000_000;
+    private static final long SPAN_MILLIS = 2L * 365 * 24 * 60 * 60 * 1000;
+    private static final int RUNS = 5;
+
+    private Context context;
+    private DatabaseHelper helper;
+
+    @Before
+    public void setup() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        helper = new DatabaseHelper(context, DB_NAME, DatabaseConfig.DEFAULT);
+        seed(helper.getWritableDatabase());
+        // The seed bypasses createOrder, so count the rollup from the orders
+        helper.rebuildRevenueRollup();
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void strftimeVersusRangeScan() {
+        SQLiteDatabase db = helper.getReadableDatabase();
+        Calendar last = Calendar.getInstance();
+        last.add(Calendar.DAY_OF_MONTH, -1);
+        int year = last.get(Calendar.YEAR);
+        int month = last.get(Calendar.MONTH) + 1;
+        String day = String.format(Locale.US, "%04d-%02d-%02d", year, month,
+                last.get(Calendar.DAY_OF_MONTH));
+        String monthText = String.format(Locale.US, "%02d", month);
+
+        String legacy = "SELECT SUM(total_amount) FROM orders WHERE status = 'accepted' AND ";
+        OrderFilter dayFilter = OrderFilter.acceptedOn(day);
+        OrderFilter monthFilter = OrderFilter.acceptedInMonth(year, month);
+        OrderFilter yearFilter = OrderFilter.acceptedInYear(year);
+
+        double legacyDay = time("day   strftime", () -> sum(db, legacy + "DATE(order_date) = ?", day));
+        double rangeDay = time("day   range   ", () -> rangeSum(db, dayFilter));
+        double rollupDay = time("day   rollup  ", () -> helper.getRevenueReport(dayFilter, 1).getRevenue());
+        double legacyMonth = time("month strftime", () -> sum(db, legacy +
+                "strftime('%Y', order_date) = ? AND strftime('%m', order_date) = ?",
+                String.valueOf(year), monthText));
+        double rangeMonth = time("month range   ", () -> rangeSum(db, monthFilter));
+        double rollupMonth = time("month rollup  ", () ->
+                helper.getRevenueReport(monthFilter, 1).getRevenue());
+        double legacyYear = time("year  strftime", () -> sum(db, legacy +
+                "strftime('%Y', order_date) = ?", String.valueOf(year)));
+        double rangeYear = time("year  range   ", () -> rangeSum(db, yearFilter));
+        double rollupYear = time("year  rollup  ", () ->
+                helper.getRevenueReport(yearFilter, 1).getRevenue());
+
+        assertEquals(legacyDay, rangeDay, 0.01);
+        assertEquals(legacyDay, rollupDay, 0.01);
+        assertEquals(legacyMonth, rangeMonth, 0.01);
+        assertEquals(legacyMonth, rollupMonth, 0.01);
+        assertEquals(legacyYear, rangeYear, 0.01);
+        assertEquals(legacyYear, rollupYear, 0.01);
+    }
+
+    // The order_time filter on idx_orders_status_time, as the order pages use it
+    private static double rangeSum(SQLiteDatabase db, OrderFilter filter) {
+        return sum(db, "SELECT SUM(total_amount) FROM orders WHERE status = ? AND " +
+                "order_time >= ? AND order_time < ?", filter.getStatus(),
+                String.valueOf(filter.getFrom()), String.valueOf(filter.getTo()));
+    }
+
+    private static void seed(SQLiteDatabase db) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
+        long end = System.currentTimeMillis();
+        long start = end - SPAN_MILLIS;
+        long step = SPAN_MILLIS / ORDERS;
+        SQLiteStatement insert = db.compileStatement("INSERT INTO orders " +
+                "(user_id, total_amount, order_date, order_time, status) VALUES (1, ?, ?, ?, ?)");
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < ORDERS; i++) {
+                // Whole seconds, since order_date has no milliseconds
+                long time = (start + i * step) / 1000 * 1000;
+                insert.bindDouble(1, 2.5 + (i % 7));
+                insert.bindString(2, format.format(new Date(time)));
+                insert.bindLong(3, time);
+                insert.bindString(4, i % 4 == 0 ? "pending" : "accepted");
+                insert.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            insert.close();
+        }
+    }
+
+    private static double sum(SQLiteDatabase db, String sql, String... args) {
+        Cursor cursor = db.rawQuery(sql, args);
+        double total = cursor.moveToFirst() ? cursor.getDouble(0) : 0.0;
+        cursor.close();
+        return total;
+    }
+
+    private interface Query {
+        double run();
+    }
+
+    private static double time(String label, Query query) {
+        double result = query.run(); // warm the page cache
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            result = query.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        Log.i(TAG, String.format(Locale.US, "%s: %.2f ms (best of %d)", label, best / 1e6, RUNS));
+        return result;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.coffeeshop.database;
+
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import java.util.Locale;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Catalog search at 10k and 100k products: the old name LIKE '%q%' scan against
+ * the products_fts prefix query. Results are written to logcat under the
+ * "DbBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ProductSearchBenchmark {
+
+    private static final String TAG = "DbBenchmark";
+    private static final String DB_NAME = "bench_product_search.db";
+    private static final int RUNS = 5;
+    private static final String[] FLAVOURS = {"Vanilla", "Caramel", "Hazelnut", "Coconut",
+            "Matcha", "Pumpkin", "Salted", "Honey", "Cinnamon", "Lavender", "Maple", "Peppermint"};
+    private static final String[] DRINKS = {"Latte", "Cappuccino", "Mocha", "Cold Brew",
+            "Frappe", "Americano", "Macchiato", "Flat White", "Tea", "Smoothie"};
+    private static final String[] NOTES = {"with oat milk", "over ice", "with whipped cream",
+            "double shot", "single origin beans", "from the seasonal menu"};
+
+    private Context context;
+    private DatabaseHelper helper;
+
+    @Before
+    public void setup() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        helper = new DatabaseHelper(context, DB_NAME, DatabaseConfig.DEFAULT);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void likeScanVersusFullText() {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        int seeded = 0;
+        for (int size : new int[]{10_000, 100_000}) {
+            seed(db, seeded, size);
+            seeded = size;
+            for (String query : new String[]{"latte", "lav", "pepperm"}) {
+                int scanned = time(size + " LIKE " + query, () -> like(db, query));
+                int matched = time(size + " FTS  " + query, () -> helper.searchProducts(query).size());
+                // The scan only looks at names; the index also finds description words
+                assertTrue(matched >= scanned && scanned > 0);
+            }
+        }
+    }
+
+    private static void seed(SQLiteDatabase db, int from, int to) {
+        SQLiteStatement insert = db.compileStatement("INSERT INTO products " +
+                "(name, description, price, image_url, search_key) VALUES (?, ?, ?, 'latte', ?)");
+        db.beginTransaction();
+        try {
+            for (int i = from; i < to; i++) {
+                String flavour = FLAVOURS[i % FLAVOURS.length];
+                String drink = DRINKS[(i / FLAVOURS.length) % DRINKS.length];
+                String name = flavour + " " + drink + " " + i;
+                String description = flavour + " " + drink.toLowerCase(Locale.US) + " " +
+                        NOTES[i % NOTES.length];
+                insert.bindString(1, name);
+                insert.bindString(2, description);
+                insert.bindDouble(3, 2.5 + (i % 40) / 10.0);
+                insert.bindString(4, ProductSearchIndex.searchKey(name, description));
+                insert.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            insert.close();
+        }
+    }
+
+    /** The search as it was before products_fts. */
+    private static int like(SQLiteDatabase db, String query) {
+        Cursor cursor = db.rawQuery("SELECT * FROM products WHERE name LIKE ?",
+                new String[]{"%" + query + "%"});
+        int count = 0;
+        while (cursor.moveToNext()) {
+            count++;
+        }
+        cursor.close();
+        return count;
+    }
+
+    private interface Query {
+        int run();
+    }
+
+    private static int time(String label, Query query) {
+        int result = query.run(); // warm the page cache
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            result = query.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        Log.i(TAG, String.format(Locale.US, "%s: %.2f ms, %d hits (best of %d)",
+                label, best / 1e6, result, RUNS));
+        return result;
+    }
+}
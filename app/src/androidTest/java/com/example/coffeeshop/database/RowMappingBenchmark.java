@@ -0,0 +1,126 @@
+package com.example.coffeeshop.database;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Debug;
+import android.util.Log;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.example.coffeeshop.models.Order;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Objects and bytes allocated reading 10k orders: the old per-row
+ * getColumnIndexOrThrow loop over SELECT o.* against getOrdersByStatus with
+ * its row mapper. Results are written to logcat under the "DbBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RowMappingBenchmark {
+
+    private static final String TAG = "DbBenchmark";
+    private static final String DB_NAME = "bench_row_mapping.db";
+    private static final int ORDERS = 10_000;
+    private static final int RUNS = 5;
+
+    private Context context;
+    private DatabaseHelper helper;
+
+    @Before
+    public void setup() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        helper = new DatabaseHelper(context, DB_NAME, DatabaseConfig.DEFAULT);
+        seed(helper.getWritableDatabase());
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void perRowLookupsVersusRowMapper() {
+        SQLiteDatabase db = helper.getReadableDatabase();
+        int before = measure("orders per-row lookups", () -> readLegacy(db).size());
+        int after = measure("orders row mapper     ", () -> helper.getOrdersByStatus("accepted").size());
+
+        assertEquals(ORDERS, before);
+        assertEquals(ORDERS, after);
+    }
+
+    // DatabaseHelper's order reading before the row mappers
+    private static List<Order> readLegacy(SQLiteDatabase db) {
+        Cursor cursor = db.rawQuery("SELECT o.*, u.full_name FROM orders o " +
+                "INNER JOIN users u ON o.user_id = u.id WHERE o.status = ? " +
+                "ORDER BY o.order_time DESC", new String[]{"accepted"});
+        List<Order> orders = new ArrayList<>();
+        while (cursor.moveToNext()) {
+            orders.add(new Order(
+                    cursor.getInt(cursor.getColumnIndexOrThrow("id")),
+                    cursor.getInt(cursor.getColumnIndexOrThrow("user_id")),
+                    cursor.getString(cursor.getColumnIndexOrThrow("full_name")),
+                    cursor.getDouble(cursor.getColumnIndexOrThrow("total_amount")),
+                    cursor.getLong(cursor.getColumnIndexOrThrow("order_time")),
+                    cursor.getString(cursor.getColumnIndexOrThrow("status"))
+            ));
+        }
+        cursor.close();
+        return orders;
+    }
+
+    private static void seed(SQLiteDatabase db) {
+        long now = System.currentTimeMillis();
+        SQLiteStatement insert = db.compileStatement("INSERT INTO orders " +
+                "(user_id, total_amount, order_date, order_time, status) VALUES (1, ?, '', ?, 'accepted')");
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < ORDERS; i++) {
+                insert.bindDouble(1, 2.5 + (i % 7));
+                insert.bindLong(2, now - i * 60_000L);
+                insert.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            insert.close();
+        }
+    }
+
+    private interface Read {
+        int run();
+    }
+
+    @SuppressWarnings("deprecation") // the thread allocation counters are still kept by ART
+    private static int measure(String label, Read read) {
+        int rows = read.run(); // warm the page cache and the JIT
+        long bestTime = Long.MAX_VALUE;
+        int fewestObjects = Integer.MAX_VALUE;
+        int fewestBytes = Integer.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            Debug.resetThreadAllocCount();
+            Debug.resetThreadAllocSize();
+            Debug.startAllocCounting();
+            long start = System.nanoTime();
+            rows = read.run();
+            long elapsed = System.nanoTime() - start;
+            Debug.stopAllocCounting();
+            bestTime = Math.min(bestTime, elapsed);
+            fewestObjects = Math.min(fewestObjects, Debug.getThreadAllocCount());
+            fewestBytes = Math.min(fewestBytes, Debug.getThreadAllocSize());
+        }
+        Log.i(TAG, String.format(Locale.US, "%s: %.2f ms, %d objects, %d KiB per %d rows (best of %d)",
+                label, bestTime / 1e6, fewestObjects, fewestBytes / 1024, rows, RUNS));
+        return rows;
+    }
+}
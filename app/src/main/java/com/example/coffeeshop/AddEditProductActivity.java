@@ -21,12 +21,12 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 import androidx.cardview.widget.CardView;
-import com.bumptech.glide.Glide;
-import com.example.coffeeshop.database.DatabaseHelper;
+import com.example.coffeeshop.database.CoffeeShopRepository;
 import com.example.coffeeshop.models.Product;
 import com.example.coffeeshop.utils.CloudinaryHelper;
 import com.example.coffeeshop.utils.LocaleHelper;
 import com.example.coffeeshop.utils.PermissionHandler;
+import com.example.coffeeshop.utils.ProductImageLoader;
 import com.example.coffeeshop.utils.SessionManager;
 
 public class AddEditProductActivity extends AppCompatActivity {
@@ -36,7 +36,8 @@ public class AddEditProductActivity extends AppCompatActivity {
     private CardView cvProductPreview;
     private Button btnSave, btnSelectImage;
     private ProgressBar progressBar;
-    private DatabaseHelper databaseHelper;
+    private CoffeeShopRepository repository;
+    private ProductImageLoader images;
     private Product productToEdit;
     private boolean isEditMode = false;
     private Uri selectedImageUri;
@@ -60,7 +61,8 @@ public class AddEditProductActivity extends AppCompatActivity {
         // Initialize Cloudinary
         CloudinaryHelper.getInstance().init(this);
 
-        databaseHelper = new DatabaseHelper(this);
+        repository = CoffeeShopRepository.getInstance(this);
+        images = new ProductImageLoader(this);
 
         if (getIntent().hasExtra("product")) {
             productToEdit = (Product) getIntent().getSerializableExtra("product");
@@ -106,10 +108,7 @@ public class AddEditProductActivity extends AppCompatActivity {
                         selectedImageUri = result.getData().getData();
                         if (selectedImageUri != null) {
                             // Show preview
-                            Glide.with(this)
-                                    .load(selectedImageUri)
-                                    .centerCrop()
-                                    .into(ivProductPreview);
+                            images.loadPreview(selectedImageUri, ivProductPreview);
                             cvProductPreview.setVisibility(View.VISIBLE);
                         }
                     }
@@ -126,19 +125,9 @@ public class AddEditProductActivity extends AppCompatActivity {
             // Load existing image
             if (productToEdit.getImageUrl() != null && !productToEdit.getImageUrl().isEmpty()) {
                 uploadedImageUrl = productToEdit.getImageUrl();
-                if (uploadedImageUrl.startsWith("http")) {
-                    // It's a URL (from Cloudinary)
-                    Glide.with(this)
-                            .load(uploadedImageUrl)
-                            .centerCrop()
-                            .into(ivProductPreview);
-                    cvProductPreview.setVisibility(View.VISIBLE);
-                } else {
-                    // It's a drawable resource name
-                    int imageResource = getImageResource(productToEdit.getImageUrl());
-                    ivProductPreview.setImageResource(imageResource);
-                    cvProductPreview.setVisibility(View.VISIBLE);
-                }
+                // A Cloudinary URL or the name of a bundled drawable
+                images.loadLarge(uploadedImageUrl, ivProductPreview);
+                cvProductPreview.setVisibility(View.VISIBLE);
             }
         }
     }
@@ -288,47 +277,27 @@ public class AddEditProductActivity extends AppCompatActivity {
     }
 
     private void saveToDatabase(String name, String description, double price, String imageUrl) {
-        boolean success;
+        btnSave.setEnabled(false);
+        CoffeeShopRepository.Callback<Boolean> onSaved = success -> {
+            btnSave.setEnabled(true);
+            if (success) {
+                Toast.makeText(this, isEditMode ? R.string.product_updated : R.string.product_added,
+                        Toast.LENGTH_SHORT).show();
+                finish();
+            } else {
+                Toast.makeText(this, R.string.operation_failed, Toast.LENGTH_SHORT).show();
+            }
+        };
+
         if (isEditMode) {
             productToEdit.setName(name);
             productToEdit.setDescription(description);
             productToEdit.setPrice(price);
             productToEdit.setImageUrl(imageUrl);
-            success = databaseHelper.updateProduct(productToEdit);
+            repository.updateProduct(productToEdit, onSaved);
         } else {
             Product newProduct = new Product(name, description, price, imageUrl);
-            success = databaseHelper.addProduct(newProduct);
-        }
-
-        if (success) {
-            Toast.makeText(this, isEditMode ? R.string.product_updated : R.string.product_added,
-                    Toast.LENGTH_SHORT).show();
-            finish();
-        } else {
-            Toast.makeText(this, R.string.operation_failed, Toast.LENGTH_SHORT).show();
-        }
-    }
-
-    private int getImageResource(String imageName) {
-        switch (imageName != null ? imageName.toLowerCase() : "") {
-            case "espresso":
-                return R.drawable.espresso;
-            case "cappuccino":
-                return R.drawable.cappuccino;
-            case "latte":
-                return R.drawable.latte;
-            case "americano":
-                return R.drawable.americano;
-            case "mocha":
-                return R.drawable.mocha;
-            case "macchiato":
-                return R.drawable.macchiato;
-            case "coldbrew":
-                return R.drawable.coldbrew;
-            case "flatwhite":
-                return R.drawable.flatwhite;
-            default:
-                return R.drawable.coffee_default;
+            repository.addProduct(newProduct, onSaved);
         }
     }
 
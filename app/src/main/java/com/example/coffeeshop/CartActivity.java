@@ -12,8 +12,10 @@ import androidx.appcompat.widget.Toolbar;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.coffeeshop.adapters.CartAdapter;
-import com.example.coffeeshop.database.DatabaseHelper;
+import com.example.coffeeshop.database.CartQuantityWriter;
+import com.example.coffeeshop.database.CoffeeShopRepository;
 import com.example.coffeeshop.models.CartItem;
+import com.example.coffeeshop.models.CartSummary;
 import com.example.coffeeshop.utils.LocaleHelper;
 import com.example.coffeeshop.utils.SessionManager;
 
@@ -26,7 +28,10 @@ public class CartActivity extends AppCompatActivity implements CartAdapter.OnCar
     private RecyclerView recyclerView;
     private CartAdapter adapter;
     private List<CartItem> cartItems;
-    private DatabaseHelper databaseHelper;
+    // Loaded with the items and adjusted in cents as quantities change on screen
+    private CartSummary summary = CartSummary.EMPTY;
+    private CoffeeShopRepository repository;
+    private CartQuantityWriter quantityWriter;
     private TextView tvTotal, tvEmptyCart;
     private Button btnPlaceOrder;
 
@@ -36,11 +41,11 @@ public class CartActivity extends AppCompatActivity implements CartAdapter.OnCar
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_cart);
 
-        databaseHelper = new DatabaseHelper(this);
+        repository = CoffeeShopRepository.getInstance(this);
+        quantityWriter = new CartQuantityWriter(repository, this::onQuantityWriteFailed);
 
         setupToolbar();
         initViews();
-        loadCartItems();
     }
 
     private void setupToolbar() {
@@ -69,23 +74,26 @@ public class CartActivity extends AppCompatActivity implements CartAdapter.OnCar
 
     private void loadCartItems() {
         int userId = SessionManager.getInstance().getUserId();
-        List<CartItem> newItems = databaseHelper.getCartItems(userId);
-
-        cartItems.clear();
-        cartItems.addAll(newItems);
-
-        adapter.notifyDataSetChanged();
-
-        updateTotal();
-        updateEmptyState();
+        // Quantities still being written would be read back stale
+        quantityWriter.flush(saved -> repository.getCartContents(userId, contents -> {
+            if (quantityWriter.hasPending()) {
+                // A quantity changed while this was read; read again once it is saved
+                loadCartItems();
+                return;
+            }
+            cartItems.clear();
+            cartItems.addAll(contents.getItems());
+            summary = contents.getSummary();
+
+            adapter.notifyDataSetChanged();
+
+            updateEmptyState();
+            updateTotal();
+        }));
     }
 
     private void updateTotal() {
-        double total = 0;
-        for (CartItem item : cartItems) {
-            total += item.getSubtotal();
-        }
-        tvTotal.setText(String.format(Locale.getDefault(), getString(R.string.total), total));
+        tvTotal.setText(String.format(Locale.getDefault(), getString(R.string.total), summary.getTotal()));
     }
 
     private void updateEmptyState() {
@@ -102,11 +110,27 @@ public class CartActivity extends AppCompatActivity implements CartAdapter.OnCar
 
     @Override
     public void onQuantityChanged(CartItem item, int newQuantity) {
-        boolean success = databaseHelper.updateCartItemQuantity(item.getCartId(), newQuantity);
-        if (success) {
-            loadCartItems();
-        } else {
-            Toast.makeText(this, R.string.failed_to_update, Toast.LENGTH_SHORT).show();
+        // Shown at once; the writer saves it when the taps stop
+        quantityWriter.setQuantity(item.getCartId(), item.getQuantity(), newQuantity);
+        setShownQuantity(item.getCartId(), newQuantity);
+    }
+
+    private void onQuantityWriteFailed(int cartId, int savedQuantity) {
+        setShownQuantity(cartId, savedQuantity);
+        Toast.makeText(this, R.string.failed_to_update, Toast.LENGTH_SHORT).show();
+    }
+
+    private void setShownQuantity(int cartId, int quantity) {
+        for (int i = 0; i < cartItems.size(); i++) {
+            CartItem item = cartItems.get(i);
+            if (item.getCartId() == cartId) {
+                summary = summary.withQuantityChange(item.getProduct().getPrice(),
+                        quantity - item.getQuantity());
+                item.setQuantity(quantity);
+                adapter.notifyItemChanged(i);
+                updateTotal();
+                return;
+            }
         }
     }
 
@@ -116,24 +140,22 @@ public class CartActivity extends AppCompatActivity implements CartAdapter.OnCar
                 .setTitle(R.string.remove_item_title)
                 .setMessage(String.format(getString(R.string.remove_item_message), item.getProduct().getName()))
                 .setPositiveButton(R.string.remove, (dialog, which) -> {
-                    boolean success = databaseHelper.removeFromCart(item.getCartId());
-                    if (success) {
-                        loadCartItems();
-                        Toast.makeText(CartActivity.this, R.string.item_removed, Toast.LENGTH_SHORT).show();
-                    } else {
-                        Toast.makeText(CartActivity.this, R.string.failed_to_remove, Toast.LENGTH_SHORT).show();
-                    }
+                    quantityWriter.forget(item.getCartId());
+                    repository.removeFromCart(item.getCartId(), success -> {
+                        if (success) {
+                            loadCartItems();
+                            Toast.makeText(CartActivity.this, R.string.item_removed, Toast.LENGTH_SHORT).show();
+                        } else {
+                            Toast.makeText(CartActivity.this, R.string.failed_to_remove, Toast.LENGTH_SHORT).show();
+                        }
+                    });
                 })
                 .setNegativeButton(R.string.cancel, null)
                 .show();
     }
 
     private void placeOrder() {
-        double totalAmount = 0;
-        for (CartItem item : cartItems) {
-            totalAmount += item.getSubtotal();
-        }
-        final double total = totalAmount;
+        final double total = summary.getTotal();
 
         new AlertDialog.Builder(this)
                 .setTitle(R.string.place_order_title)
@@ -141,15 +163,20 @@ public class CartActivity extends AppCompatActivity implements CartAdapter.OnCar
                 .setPositiveButton(R.string.place_order, (dialog, which) -> {
                     int userId = SessionManager.getInstance().getUserId();
 
-                    boolean orderCreated = databaseHelper.createOrder(userId, total, "pending");
-                    boolean cartCleared = databaseHelper.clearCart(userId);
-
-                    if (orderCreated && cartCleared) {
-                        Toast.makeText(this, R.string.order_placed, Toast.LENGTH_LONG).show();
-                        loadCartItems();
-                    } else {
-                        Toast.makeText(this, R.string.failed_to_place_order, Toast.LENGTH_SHORT).show();
-                    }
+                    // The order is built from the saved cart, so it must hold what was shown
+                    quantityWriter.flush(saved -> {
+                        if (!saved) {
+                            return;
+                        }
+                        repository.placeOrder(userId, success -> {
+                            if (success) {
+                                Toast.makeText(this, R.string.order_placed, Toast.LENGTH_LONG).show();
+                                loadCartItems();
+                            } else {
+                                Toast.makeText(this, R.string.failed_to_place_order, Toast.LENGTH_SHORT).show();
+                            }
+                        });
+                    });
                 })
                 .setNegativeButton(R.string.cancel, null)
                 .show();
@@ -161,6 +188,12 @@ public class CartActivity extends AppCompatActivity implements CartAdapter.OnCar
         loadCartItems();
     }
 
+    @Override
+    protected void onPause() {
+        super.onPause();
+        quantityWriter.flush(null);
+    }
+
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         if (item.getItemId() == android.R.id.home) {
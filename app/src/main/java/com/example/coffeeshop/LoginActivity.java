@@ -11,7 +11,7 @@ import android.widget.EditText;
 import android.widget.TextView;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
-import com.example.coffeeshop.database.DatabaseHelper;
+import com.example.coffeeshop.database.CoffeeShopRepository;
 import com.example.coffeeshop.models.User;
 import com.example.coffeeshop.utils.LocaleHelper;
 import com.example.coffeeshop.utils.SessionManager;
@@ -22,7 +22,7 @@ public class LoginActivity extends AppCompatActivity {
     private CheckBox cbRememberPassword;
     private Button btnLogin;
     private TextView tvRegister;
-    private DatabaseHelper databaseHelper;
+    private CoffeeShopRepository repository;
     private SharedPreferences sharedPreferences;
     private static final String PREFS_NAME = "CoffeeShopPrefs";
     private static final String KEY_EMAIL = "email";
@@ -35,7 +35,7 @@ public class LoginActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_login);
 
-        databaseHelper = new DatabaseHelper(this);
+        repository = CoffeeShopRepository.getInstance(this);
         sharedPreferences = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
 
         initViews();
@@ -87,7 +87,14 @@ public class LoginActivity extends AppCompatActivity {
             return;
         }
 
-        User user = databaseHelper.loginUser(email, password);
+        btnLogin.setEnabled(false);
+        repository.loginUser(email, password, user -> {
+            btnLogin.setEnabled(true);
+            onLoginResult(user, email, password);
+        });
+    }
+
+    private void onLoginResult(User user, String email, String password) {
         if (user != null) {
             // Save credentials if remember is checked
             SharedPreferences.Editor editor = sharedPreferences.edit();
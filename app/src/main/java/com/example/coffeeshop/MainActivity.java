@@ -9,6 +9,7 @@ import android.os.Handler;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.coffeeshop.database.CoffeeShopRepository;
 import com.example.coffeeshop.utils.SessionManager;
 
 import java.util.Locale;
@@ -27,6 +28,10 @@ public class MainActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
+        // Finish index builds and backfills from the last upgrade once the splash is drawn
+        getWindow().getDecorView().post(() ->
+                CoffeeShopRepository.getInstance(this).runBackgroundMigrations());
+
         // Check if language is already set
         SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
         String savedLanguage = prefs.getString(KEY_LANGUAGE, null);
@@ -0,0 +1,81 @@
+package com.example.coffeeshop;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.view.MenuItem;
+import android.view.View;
+import android.widget.TextView;
+import android.widget.Toast;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.Toolbar;
+import com.example.coffeeshop.database.CoffeeShopRepository;
+import com.example.coffeeshop.models.OrderHeatmap;
+import com.example.coffeeshop.utils.LocaleHelper;
+import com.example.coffeeshop.utils.SessionManager;
+import com.example.coffeeshop.views.OrderHeatmapView;
+
+/**
+ * Accepted orders by weekday and hour, for planning shifts.
+ */
+public class OrderHeatmapActivity extends AppCompatActivity {
+
+    private CoffeeShopRepository repository;
+    private OrderHeatmapView heatmapView;
+    private TextView tvEmptyHeatmap;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        LocaleHelper.applyLanguage(this);
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_order_heatmap);
+
+        if (!SessionManager.getInstance().isAdmin()) {
+            Toast.makeText(this, R.string.access_denied, Toast.LENGTH_SHORT).show();
+            startActivity(new Intent(this, ProductListActivity.class));
+            finish();
+            return;
+        }
+
+        repository = CoffeeShopRepository.getInstance(this);
+
+        setupToolbar();
+        heatmapView = findViewById(R.id.heatmap_orders);
+        tvEmptyHeatmap = findViewById(R.id.tv_empty_heatmap);
+    }
+
+    private void setupToolbar() {
+        Toolbar toolbar = findViewById(R.id.toolbar);
+        setSupportActionBar(toolbar);
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+            getSupportActionBar().setTitle(R.string.order_heatmap);
+        }
+    }
+
+    // 168 counters kept current by every order write, not a pass over the orders
+    private void loadHeatmap() {
+        repository.getOrderHeatmap(this::showHeatmap);
+    }
+
+    private void showHeatmap(OrderHeatmap heatmap) {
+        heatmapView.setHeatmap(heatmap);
+        tvEmptyHeatmap.setVisibility(heatmap.getMax() == 0 ? View.VISIBLE : View.GONE);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        if (repository != null) {
+            loadHeatmap();
+        }
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == android.R.id.home) {
+            finish();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+}
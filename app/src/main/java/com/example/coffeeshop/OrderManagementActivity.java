@@ -12,19 +12,19 @@ import androidx.appcompat.widget.Toolbar;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.coffeeshop.adapters.OrderAdapter;
-import com.example.coffeeshop.database.DatabaseHelper;
+import com.example.coffeeshop.database.CoffeeShopRepository;
+import com.example.coffeeshop.database.OrderFilter;
+import com.example.coffeeshop.database.OrderPagingSource;
 import com.example.coffeeshop.models.Order;
 import com.example.coffeeshop.utils.LocaleHelper;
 import com.example.coffeeshop.utils.SessionManager;
-import java.util.ArrayList;
-import java.util.List;
 
 public class OrderManagementActivity extends AppCompatActivity implements OrderAdapter.OnOrderActionListener {
 
     private RecyclerView recyclerView;
     private OrderAdapter adapter;
-    private List<Order> orderList;
-    private DatabaseHelper databaseHelper;
+    private OrderPagingSource orderSource;
+    private CoffeeShopRepository repository;
     private TextView tvEmptyOrders;
 
     @Override
@@ -40,7 +40,7 @@ public class OrderManagementActivity extends AppCompatActivity implements OrderA
             return;
         }
 
-        databaseHelper = new DatabaseHelper(this);
+        repository = CoffeeShopRepository.getInstance(this);
 
         setupToolbar();
         initViews();
@@ -61,20 +61,17 @@ public class OrderManagementActivity extends AppCompatActivity implements OrderA
         tvEmptyOrders = findViewById(R.id.tv_empty_orders);
 
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
-        orderList = new ArrayList<>();
-        adapter = new OrderAdapter(this, orderList, this);
+        orderSource = new OrderPagingSource(repository, OrderFilter.pending());
+        adapter = new OrderAdapter(this, orderSource, this);
         recyclerView.setAdapter(adapter);
     }
 
     private void loadOrders() {
-        orderList.clear();
-        orderList.addAll(databaseHelper.getPendingOrders());
-        adapter.notifyDataSetChanged();
-        updateEmptyState();
+        orderSource.refresh(this::updateEmptyState);
     }
 
     private void updateEmptyState() {
-        if (orderList.isEmpty()) {
+        if (orderSource.size() == 0) {
             tvEmptyOrders.setVisibility(View.VISIBLE);
             recyclerView.setVisibility(View.GONE);
         } else {
@@ -89,13 +86,14 @@ public class OrderManagementActivity extends AppCompatActivity implements OrderA
                 .setTitle(R.string.accept_order_title)
                 .setMessage(String.format(getString(R.string.accept_order_message), order.getId(), order.getUserName()))
                 .setPositiveButton(R.string.accept, (dialog, which) -> {
-                    boolean success = databaseHelper.updateOrderStatus(order.getId(), "accepted");
-                    if (success) {
-                        Toast.makeText(this, R.string.order_accepted, Toast.LENGTH_SHORT).show();
-                        loadOrders();
-                    } else {
-                        Toast.makeText(this, R.string.operation_failed, Toast.LENGTH_SHORT).show();
-                    }
+                    repository.updateOrderStatus(order.getId(), "accepted", success -> {
+                        if (success) {
+                            Toast.makeText(this, R.string.order_accepted, Toast.LENGTH_SHORT).show();
+                            loadOrders();
+                        } else {
+                            Toast.makeText(this, R.string.operation_failed, Toast.LENGTH_SHORT).show();
+                        }
+                    });
                 })
                 .setNegativeButton(R.string.cancel, null)
                 .show();
@@ -107,13 +105,14 @@ public class OrderManagementActivity extends AppCompatActivity implements OrderA
                 .setTitle(R.string.reject_order_title)
                 .setMessage(String.format(getString(R.string.reject_order_message), order.getId(), order.getUserName()))
                 .setPositiveButton(R.string.reject, (dialog, which) -> {
-                    boolean success = databaseHelper.updateOrderStatus(order.getId(), "rejected");
-                    if (success) {
-                        Toast.makeText(this, R.string.order_rejected, Toast.LENGTH_SHORT).show();
-                        loadOrders();
-                    } else {
-                        Toast.makeText(this, R.string.operation_failed, Toast.LENGTH_SHORT).show();
-                    }
+                    repository.updateOrderStatus(order.getId(), "rejected", success -> {
+                        if (success) {
+                            Toast.makeText(this, R.string.order_rejected, Toast.LENGTH_SHORT).show();
+                            loadOrders();
+                        } else {
+                            Toast.makeText(this, R.string.operation_failed, Toast.LENGTH_SHORT).show();
+                        }
+                    });
                 })
                 .setNegativeButton(R.string.cancel, null)
                 .show();
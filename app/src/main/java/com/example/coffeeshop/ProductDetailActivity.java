@@ -9,20 +9,22 @@ import android.widget.TextView;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
-import com.bumptech.glide.Glide;
-import com.example.coffeeshop.database.DatabaseHelper;
+import com.example.coffeeshop.database.CoffeeShopRepository;
 import com.example.coffeeshop.models.Product;
 import com.example.coffeeshop.utils.LocaleHelper;
+import com.example.coffeeshop.utils.ProductImageLoader;
 import com.example.coffeeshop.utils.SessionManager;
 import java.util.Locale;
 
 public class ProductDetailActivity extends AppCompatActivity {
 
+    public static final String EXTRA_PRODUCT_ID = "product_id";
+
     private ImageView ivProduct;
     private TextView tvName, tvDescription, tvPrice;
     private Button btnAddToCart;
     private Product product;
-    private DatabaseHelper databaseHelper;
+    private CoffeeShopRepository repository;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -30,15 +32,17 @@ public class ProductDetailActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_product_detail);
 
-        databaseHelper = new DatabaseHelper(this);
-
-        if (getIntent().hasExtra("product")) {
-            product = (Product) getIntent().getSerializableExtra("product");
-        }
+        repository = CoffeeShopRepository.getInstance(this);
 
         setupToolbar();
         initViews();
-        displayProductDetails();
+
+        // The catalog cache already holds the product, so this is a map lookup
+        int productId = getIntent().getIntExtra(EXTRA_PRODUCT_ID, -1);
+        repository.getProductById(productId, result -> {
+            product = result;
+            displayProductDetails();
+        });
     }
 
     private void setupToolbar() {
@@ -71,55 +75,22 @@ public class ProductDetailActivity extends AppCompatActivity {
             tvDescription.setText(product.getDescription());
             tvPrice.setText(String.format(Locale.getDefault(), "$%.2f", product.getPrice()));
 
-            // Load image - check if it's a URL or drawable resource
-            String imageUrl = product.getImageUrl();
-            if (imageUrl != null && (imageUrl.startsWith("http://") || imageUrl.startsWith("https://"))) {
-                // Load from URL (Cloudinary)
-                Glide.with(this)
-                        .load(imageUrl)
-                        .placeholder(R.drawable.coffee_default)
-                        .error(R.drawable.coffee_default)
-                        .centerCrop()
-                        .into(ivProduct);
-            } else {
-                // Load from drawable resources
-                int imageResource = getImageResource(imageUrl);
-                ivProduct.setImageResource(imageResource);
-            }
+            new ProductImageLoader(this).loadLarge(product.getImageUrl(), ivProduct);
         }
     }
 
     private void addToCart() {
-        int userId = SessionManager.getInstance().getUserId();
-        boolean success = databaseHelper.addToCart(userId, product.getId(), 1);
-        if (success) {
-            Toast.makeText(this, String.format(getString(R.string.added_to_cart), product.getName()), Toast.LENGTH_SHORT).show();
-        } else {
-            Toast.makeText(this, R.string.failed_to_add_cart, Toast.LENGTH_SHORT).show();
-        }
-    }
-
-    private int getImageResource(String imageName) {
-        switch (imageName != null ? imageName.toLowerCase() : "") {
-            case "espresso":
-                return R.drawable.espresso;
-            case "cappuccino":
-                return R.drawable.cappuccino;
-            case "latte":
-                return R.drawable.latte;
-            case "americano":
-                return R.drawable.americano;
-            case "mocha":
-                return R.drawable.mocha;
-            case "macchiato":
-                return R.drawable.macchiato;
-            case "coldbrew":
-                return R.drawable.coldbrew;
-            case "flatwhite":
-                return R.drawable.flatwhite;
-            default:
-                return R.drawable.coffee_default;
+        if (product == null) {
+            return;
         }
+        int userId = SessionManager.getInstance().getUserId();
+        repository.addToCart(userId, product.getId(), 1, success -> {
+            if (success) {
+                Toast.makeText(this, String.format(getString(R.string.added_to_cart), product.getName()), Toast.LENGTH_SHORT).show();
+            } else {
+                Toast.makeText(this, R.string.failed_to_add_cart, Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     @Override
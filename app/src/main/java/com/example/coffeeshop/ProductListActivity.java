@@ -9,6 +9,7 @@ import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
 import android.widget.EditText;
+import android.widget.TextView;
 import android.widget.Toast;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
@@ -16,25 +17,32 @@ import androidx.appcompat.widget.Toolbar;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.coffeeshop.adapters.ProductAdapter;
-import com.example.coffeeshop.database.DatabaseHelper;
+import com.example.coffeeshop.database.CoffeeShopRepository;
+import com.example.coffeeshop.database.ProductSearcher;
 import com.example.coffeeshop.models.Product;
 import com.example.coffeeshop.utils.LocaleHelper;
 import com.example.coffeeshop.utils.SessionManager;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 public class ProductListActivity extends AppCompatActivity implements ProductAdapter.OnProductClickListener {
 
     private RecyclerView recyclerView;
     private ProductAdapter adapter;
-    private List<Product> productList;
     private List<Product> filteredList;
-    private DatabaseHelper databaseHelper;
+    private CoffeeShopRepository repository;
+    private ProductSearcher searcher;
     private EditText etSearch;
     private FloatingActionButton fabAddProduct;
     private boolean isAscending = true;
     private boolean isAdmin = false;
+    // Catalog version the list was last loaded at, so returning from another
+    // screen only reloads when a product has changed
+    private long loadedVersion = -1;
+    private TextView tvCartBadge;
+    private int cartUnits;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -42,12 +50,12 @@ public class ProductListActivity extends AppCompatActivity implements ProductAda
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_product_list);
 
-        databaseHelper = new DatabaseHelper(this);
+        repository = CoffeeShopRepository.getInstance(this);
+        searcher = new ProductSearcher(repository, this::showProducts);
         isAdmin = SessionManager.getInstance().isAdmin();
 
         setupToolbar();
         initViews();
-        loadProducts();
         setupSearch();
     }
 
@@ -65,7 +73,6 @@ public class ProductListActivity extends AppCompatActivity implements ProductAda
         fabAddProduct = findViewById(R.id.fab_add_product);
 
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
-        productList = new ArrayList<>();
         filteredList = new ArrayList<>();
         adapter = new ProductAdapter(this, filteredList, this, isAdmin);
         recyclerView.setAdapter(adapter);
@@ -81,10 +88,12 @@ public class ProductListActivity extends AppCompatActivity implements ProductAda
     }
 
     private void loadProducts() {
-        productList = databaseHelper.getAllProducts();
-        filteredList.clear();
-        filteredList.addAll(productList);
-        adapter.updateList(filteredList);
+        long version = repository.getCatalogVersion();
+        repository.getAllProducts(products -> {
+            loadedVersion = version;
+            searcher.setCatalog(products);
+            searcher.search(etSearch.getText().toString());
+        });
     }
 
     private void setupSearch() {
@@ -94,7 +103,7 @@ public class ProductListActivity extends AppCompatActivity implements ProductAda
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
-                filterProducts(s.toString());
+                searcher.search(s.toString());
             }
 
             @Override
@@ -102,17 +111,9 @@ public class ProductListActivity extends AppCompatActivity implements ProductAda
         });
     }
 
-    private void filterProducts(String query) {
+    private void showProducts(List<Product> products) {
         filteredList.clear();
-        if (query.isEmpty()) {
-            filteredList.addAll(productList);
-        } else {
-            for (Product product : productList) {
-                if (product.getName().toLowerCase().contains(query.toLowerCase())) {
-                    filteredList.add(product);
-                }
-            }
-        }
+        filteredList.addAll(products);
         adapter.updateList(filteredList);
     }
 
@@ -131,6 +132,11 @@ public class ProductListActivity extends AppCompatActivity implements ProductAda
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
         getMenuInflater().inflate(R.menu.menu_product_list, menu);
+        MenuItem cartItem = menu.findItem(R.id.action_cart);
+        View cartView = cartItem.getActionView();
+        tvCartBadge = cartView.findViewById(R.id.tv_cart_badge);
+        cartView.setOnClickListener(v -> onOptionsItemSelected(cartItem));
+        showCartUnits(cartUnits);
         MenuItem ordersItem = menu.findItem(R.id.action_orders);
         MenuItem revenueItem = menu.findItem(R.id.action_revenue);
         if (!isAdmin) {
@@ -175,7 +181,7 @@ public class ProductListActivity extends AppCompatActivity implements ProductAda
     @Override
     public void onProductClick(Product product) {
         Intent intent = new Intent(this, ProductDetailActivity.class);
-        intent.putExtra("product", product);
+        intent.putExtra(ProductDetailActivity.EXTRA_PRODUCT_ID, product.getId());
         startActivity(intent);
     }
 
@@ -196,13 +202,14 @@ public class ProductListActivity extends AppCompatActivity implements ProductAda
                 .setPositiveButton(R.string.delete, new DialogInterface.OnClickListener() {
                     @Override
                     public void onClick(DialogInterface dialog, int which) {
-                        boolean success = databaseHelper.deleteProduct(product.getId());
-                        if (success) {
-                            Toast.makeText(ProductListActivity.this, R.string.product_deleted, Toast.LENGTH_SHORT).show();
-                            loadProducts();
-                        } else {
-                            Toast.makeText(ProductListActivity.this, R.string.operation_failed, Toast.LENGTH_SHORT).show();
-                        }
+                        repository.deleteProduct(product.getId(), success -> {
+                            if (success) {
+                                Toast.makeText(ProductListActivity.this, R.string.product_deleted, Toast.LENGTH_SHORT).show();
+                                loadProducts();
+                            } else {
+                                Toast.makeText(ProductListActivity.this, R.string.operation_failed, Toast.LENGTH_SHORT).show();
+                            }
+                        });
                     }
                 })
                 .setNegativeButton(R.string.cancel, null)
@@ -212,17 +219,50 @@ public class ProductListActivity extends AppCompatActivity implements ProductAda
     @Override
     public void onAddToCartClick(Product product) {
         int userId = SessionManager.getInstance().getUserId();
-        boolean success = databaseHelper.addToCart(userId, product.getId(), 1);
-        if (success) {
-            Toast.makeText(this, String.format(getString(R.string.added_to_cart), product.getName()), Toast.LENGTH_SHORT).show();
-        } else {
-            Toast.makeText(this, R.string.failed_to_add_cart, Toast.LENGTH_SHORT).show();
-        }
+        repository.addToCart(userId, product.getId(), 1, success -> {
+            loadCartUnits();
+            if (success) {
+                Toast.makeText(this, String.format(getString(R.string.added_to_cart), product.getName()), Toast.LENGTH_SHORT).show();
+            } else {
+                Toast.makeText(this, R.string.failed_to_add_cart, Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     @Override
     protected void onResume() {
         super.onResume();
-        loadProducts();
+        if (repository.getCatalogVersion() != loadedVersion) {
+            loadProducts();
+        }
+        loadCartUnits();
+    }
+
+    // Read from the cart alone, or from a cached summary when there is one
+    private void loadCartUnits() {
+        int userId = SessionManager.getInstance().getUserId();
+        repository.getCartUnitCount(userId, this::showCartUnits);
+    }
+
+    private void showCartUnits(int units) {
+        cartUnits = units;
+        if (tvCartBadge == null) {
+            return;
+        }
+        if (units == 0) {
+            tvCartBadge.setVisibility(View.GONE);
+            ((View) tvCartBadge.getParent()).setContentDescription(getString(R.string.cart));
+        } else {
+            tvCartBadge.setVisibility(View.VISIBLE);
+            tvCartBadge.setText(units > 99 ? "99+" : String.valueOf(units));
+            ((View) tvCartBadge.getParent()).setContentDescription(
+                    String.format(Locale.getDefault(), getString(R.string.cart_with_items), units));
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        searcher.cancel();
+        super.onDestroy();
     }
 }
\ No newline at end of file
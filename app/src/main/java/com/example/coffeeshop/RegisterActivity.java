@@ -10,7 +10,7 @@ import android.widget.EditText;
 import android.widget.TextView;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
-import com.example.coffeeshop.database.DatabaseHelper;
+import com.example.coffeeshop.database.CoffeeShopRepository;
 import com.example.coffeeshop.utils.LocaleHelper;
 
 public class RegisterActivity extends AppCompatActivity {
@@ -18,7 +18,7 @@ public class RegisterActivity extends AppCompatActivity {
     private EditText etFullName, etEmail, etPassword, etConfirmPassword;
     private Button btnRegister;
     private TextView tvLogin;
-    private DatabaseHelper databaseHelper;
+    private CoffeeShopRepository repository;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -26,7 +26,7 @@ public class RegisterActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_register);
 
-        databaseHelper = new DatabaseHelper(this);
+        repository = CoffeeShopRepository.getInstance(this);
 
         initViews();
         setupListeners();
@@ -93,21 +93,28 @@ public class RegisterActivity extends AppCompatActivity {
             return;
         }
 
-        // Check if email already exists
-        if (databaseHelper.isEmailExists(email)) {
-            etEmail.setError(getString(R.string.email_already_registered));
-            etEmail.requestFocus();
-            return;
-        }
+        btnRegister.setEnabled(false);
 
-        // Register user
-        boolean success = databaseHelper.registerUser(fullName, email, password);
-        if (success) {
-            Toast.makeText(this, R.string.registration_successful, Toast.LENGTH_SHORT).show();
-            startActivity(new Intent(RegisterActivity.this, LoginActivity.class));
-            finish();
-        } else {
-            Toast.makeText(this, R.string.registration_failed, Toast.LENGTH_SHORT).show();
-        }
+        // Check if email already exists
+        repository.isEmailExists(email, exists -> {
+            if (exists) {
+                btnRegister.setEnabled(true);
+                etEmail.setError(getString(R.string.email_already_registered));
+                etEmail.requestFocus();
+                return;
+            }
+
+            // Register user
+            repository.registerUser(fullName, email, password, success -> {
+                btnRegister.setEnabled(true);
+                if (success) {
+                    Toast.makeText(this, R.string.registration_successful, Toast.LENGTH_SHORT).show();
+                    startActivity(new Intent(RegisterActivity.this, LoginActivity.class));
+                    finish();
+                } else {
+                    Toast.makeText(this, R.string.registration_failed, Toast.LENGTH_SHORT).show();
+                }
+            });
+        });
     }
 }
\ No newline at end of file
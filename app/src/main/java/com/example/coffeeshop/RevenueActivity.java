@@ -3,6 +3,7 @@ package com.example.coffeeshop;
 import android.app.DatePickerDialog;
 import android.content.Intent;
 import android.os.Bundle;
+import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
 import android.widget.Button;
@@ -11,13 +12,22 @@ import android.widget.TextView;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
+import androidx.recyclerview.widget.ConcatAdapter;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
+import com.example.coffeeshop.adapters.HeaderAdapter;
 import com.example.coffeeshop.adapters.OrderAdapter;
-import com.example.coffeeshop.database.DatabaseHelper;
+import com.example.coffeeshop.database.CoffeeShopRepository;
+import com.example.coffeeshop.database.OrderFilter;
+import com.example.coffeeshop.database.OrderPagingSource;
+import com.example.coffeeshop.database.RevenueBucket;
+import com.example.coffeeshop.models.CustomerTotal;
 import com.example.coffeeshop.models.Order;
+import com.example.coffeeshop.models.RevenuePoint;
+import com.example.coffeeshop.models.RevenueReport;
 import com.example.coffeeshop.utils.LocaleHelper;
 import com.example.coffeeshop.utils.SessionManager;
+import com.example.coffeeshop.views.RevenueChartView;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.List;
@@ -25,13 +35,19 @@ import java.util.Locale;
 
 public class RevenueActivity extends AppCompatActivity {
 
-    private DatabaseHelper databaseHelper;
-    private TextView tvTotalRevenue, tvFilteredRevenue, tvFilterLabel;
+    private static final int TOP_CUSTOMERS = 5;
+
+    private CoffeeShopRepository repository;
+    private TextView tvTotalRevenue, tvFilteredRevenue, tvFilteredOrders, tvFilterLabel, tvTopCustomers;
     private RadioGroup radioGroupFilter;
     private Button btnSelectDate;
+    private RevenueChartView chartRevenue;
     private Calendar calendar;
     private RecyclerView rvOrders;
+    private ConcatAdapter listAdapter;
     private OrderAdapter orderAdapter;
+    // The period last asked for, so a slower report for an earlier pick is dropped
+    private OrderFilter requestedFilter;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -46,7 +62,7 @@ public class RevenueActivity extends AppCompatActivity {
             return;
         }
 
-        databaseHelper = new DatabaseHelper(this);
+        repository = CoffeeShopRepository.getInstance(this);
         calendar = Calendar.getInstance();
 
         setupToolbar();
@@ -65,26 +81,39 @@ public class RevenueActivity extends AppCompatActivity {
     }
 
     private void initViews() {
-        tvTotalRevenue = findViewById(R.id.tv_total_revenue);
-        tvFilteredRevenue = findViewById(R.id.tv_filtered_revenue);
-        tvFilterLabel = findViewById(R.id.tv_filter_label);
-        radioGroupFilter = findViewById(R.id.radio_group_filter);
-        btnSelectDate = findViewById(R.id.btn_select_date);
         rvOrders = findViewById(R.id.rv_orders);
         rvOrders.setLayoutManager(new LinearLayoutManager(this));
+
+        // The summary scrolls as the first row of the order list, so only the
+        // orders on screen are ever inflated and bound
+        View header = getLayoutInflater().inflate(R.layout.header_revenue, rvOrders, false);
+        tvTotalRevenue = header.findViewById(R.id.tv_total_revenue);
+        tvFilteredRevenue = header.findViewById(R.id.tv_filtered_revenue);
+        tvFilteredOrders = header.findViewById(R.id.tv_filtered_orders);
+        tvFilterLabel = header.findViewById(R.id.tv_filter_label);
+        tvTopCustomers = header.findViewById(R.id.tv_top_customers);
+        radioGroupFilter = header.findViewById(R.id.radio_group_filter);
+        btnSelectDate = header.findViewById(R.id.btn_select_date);
+        chartRevenue = header.findViewById(R.id.chart_revenue);
+        listAdapter = new ConcatAdapter(new HeaderAdapter(header));
+        rvOrders.setAdapter(listAdapter);
     }
 
     private void loadRevenue() {
-        double totalRevenue = databaseHelper.getTotalRevenue();
-        tvTotalRevenue.setText(String.format(Locale.getDefault(), "$%.2f", totalRevenue));
+        repository.getTotalRevenue(totalRevenue ->
+                tvTotalRevenue.setText(String.format(Locale.getDefault(), "$%.2f", totalRevenue)));
     }
 
     private void setupListeners() {
         radioGroupFilter.setOnCheckedChangeListener((group, checkedId) -> {
             btnSelectDate.setVisibility(View.VISIBLE);
+            requestedFilter = null;
             tvFilteredRevenue.setVisibility(View.GONE);
+            tvFilteredOrders.setVisibility(View.GONE);
             tvFilterLabel.setVisibility(View.GONE);
-            rvOrders.setVisibility(View.GONE);
+            chartRevenue.setVisibility(View.GONE);
+            tvTopCustomers.setVisibility(View.GONE);
+            showOrders(null, null);
 
             // Update button text based on selection
             if (checkedId == R.id.radio_day) {
@@ -159,49 +188,138 @@ public class RevenueActivity extends AppCompatActivity {
     }
 
     private void calculateDayRevenue() {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
         String date = dateFormat.format(calendar.getTime());
-        double revenue = databaseHelper.getRevenueByDate(date);
-        List<Order> orders = databaseHelper.getOrdersByDate(date);
-        updateRevenueUI(revenue, orders, getString(R.string.revenue_for_date, date));
+        loadReport(OrderFilter.acceptedOn(date), getString(R.string.revenue_for_date, date));
+        chartRevenue.setVisibility(View.GONE);
+        tvTopCustomers.setVisibility(View.GONE);
     }
 
     private void calculateMonthRevenue() {
         int year = calendar.get(Calendar.YEAR);
         int month = calendar.get(Calendar.MONTH) + 1;
-        double revenue = databaseHelper.getRevenueByMonth(year, month);
-        List<Order> orders = databaseHelper.getOrdersByMonth(year, month);
         SimpleDateFormat monthFormat = new SimpleDateFormat("MMMM yyyy", Locale.getDefault());
-        updateRevenueUI(revenue, orders, getString(R.string.revenue_for_date, monthFormat.format(calendar.getTime())));
+        OrderFilter filter = OrderFilter.acceptedInMonth(year, month);
+        loadReport(filter, getString(R.string.revenue_for_date, monthFormat.format(calendar.getTime())));
+        loadChart(filter, RevenueBucket.DAY, "d");
+        loadTopCustomers(filter);
     }
 
     private void calculateYearRevenue() {
         int year = calendar.get(Calendar.YEAR);
-        double revenue = databaseHelper.getRevenueByYear(year);
-        List<Order> orders = databaseHelper.getOrdersByYear(year);
-        updateRevenueUI(revenue, orders, getString(R.string.revenue_for_year, year));
+        OrderFilter filter = OrderFilter.acceptedInYear(year);
+        loadReport(filter, getString(R.string.revenue_for_year, year));
+        loadChart(filter, RevenueBucket.MONTH, "MMM");
+        loadTopCustomers(filter);
+    }
+
+    // The figures and the first page of orders arrive together from one read
+    private void loadReport(OrderFilter filter, String filterText) {
+        requestedFilter = filter;
+        repository.getRevenueReport(filter, OrderPagingSource.DEFAULT_PAGE_SIZE, report -> {
+            if (filter == requestedFilter) {
+                updateRevenueUI(report, filter, filterText);
+            }
+        });
+    }
+
+    // One bar per bucket of the period, read in a single grouped query
+    private void loadChart(OrderFilter filter, RevenueBucket bucket, String labelPattern) {
+        repository.getRevenueSeries(filter, bucket, series -> {
+            if (filter == requestedFilter) {
+                showChart(series, labelPattern);
+            }
+        });
+    }
+
+    // Ranked from the in-memory order columns rather than a GROUP BY over the period
+    private void loadTopCustomers(OrderFilter filter) {
+        repository.getTopCustomers(filter, TOP_CUSTOMERS, top -> {
+            if (filter == requestedFilter) {
+                showTopCustomers(top);
+            }
+        });
+    }
+
+    private void showTopCustomers(List<CustomerTotal> top) {
+        StringBuilder text = new StringBuilder(getString(R.string.top_customers));
+        for (CustomerTotal customer : top) {
+            text.append('\n').append(String.format(Locale.getDefault(), getString(R.string.top_customer_row),
+                    customer.getUserId(), customer.getOrderCount(), customer.getRevenue()));
+        }
+        tvTopCustomers.setText(text);
+        tvTopCustomers.setVisibility(top.isEmpty() ? View.GONE : View.VISIBLE);
     }
 
-    private void updateRevenueUI(double revenue, List<Order> orders, String filterText) {
+    private void showChart(List<RevenuePoint> series, String labelPattern) {
+        chartRevenue.setSeries(series, labelPattern);
+        chartRevenue.setContentDescription(getString(R.string.revenue_chart_description, series.size()));
+        chartRevenue.setVisibility(series.isEmpty() ? View.GONE : View.VISIBLE);
+    }
+
+    private void updateRevenueUI(RevenueReport report, OrderFilter filter, String filterText) {
         tvFilterLabel.setText(filterText);
-        tvFilteredRevenue.setText(String.format(Locale.getDefault(), "$%.2f", revenue));
+        tvFilteredRevenue.setText(String.format(Locale.getDefault(), "$%.2f", report.getRevenue()));
+        tvFilteredOrders.setText(String.format(Locale.getDefault(), getString(R.string.revenue_order_stats),
+                report.getOrderCount(), report.getAverageTicket()));
         tvFilterLabel.setVisibility(View.VISIBLE);
         tvFilteredRevenue.setVisibility(View.VISIBLE);
+        tvFilteredOrders.setVisibility(View.VISIBLE);
 
-        if (orders != null && !orders.isEmpty()) {
-            orderAdapter = new OrderAdapter(this, orders);
-            rvOrders.setAdapter(orderAdapter);
-            rvOrders.setVisibility(View.VISIBLE);
-        } else {
-            rvOrders.setVisibility(View.GONE);
+        showOrders(filter, report.getFirstPage());
+    }
+
+    /**
+     * Replaces the orders under the header, or removes them when filter is null.
+     * firstPage is shown at once; older orders are paged in as the list scrolls.
+     */
+    private void showOrders(OrderFilter filter, List<Order> firstPage) {
+        if (orderAdapter != null) {
+            listAdapter.removeAdapter(orderAdapter);
+            orderAdapter = null;
+        }
+        if (filter != null) {
+            OrderPagingSource orderSource = new OrderPagingSource(repository, filter);
+            orderAdapter = new OrderAdapter(this, orderSource);
+            listAdapter.addAdapter(orderAdapter);
+            orderSource.start(firstPage);
         }
     }
 
+    private void rebuildRevenue() {
+        repository.rebuildRevenueRollup(verified -> {
+            Toast.makeText(this, verified ? R.string.revenue_rebuilt : R.string.revenue_rebuild_failed,
+                    Toast.LENGTH_SHORT).show();
+            loadRevenue();
+        });
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // The order columns are only read by this screen, so they go with it
+        if (isFinishing() && repository != null) {
+            repository.releaseOrderAnalytics();
+        }
+    }
+
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.menu_revenue, menu);
+        return true;
+    }
+
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         if (item.getItemId() == android.R.id.home) {
             finish();
             return true;
+        } else if (item.getItemId() == R.id.action_order_heatmap) {
+            startActivity(new Intent(this, OrderHeatmapActivity.class));
+            return true;
+        } else if (item.getItemId() == R.id.action_rebuild_revenue) {
+            rebuildRevenue();
+            return true;
         }
         return super.onOptionsItemSelected(item);
     }
@@ -9,15 +9,16 @@ import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
-import com.bumptech.glide.Glide;
 import com.example.coffeeshop.R;
 import com.example.coffeeshop.models.CartItem;
+import com.example.coffeeshop.utils.ProductImageLoader;
 import java.util.List;
-import java.util.Locale;
+import java.util.Objects;
 
 public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder> {
 
     private Context context;
+    private final ProductImageLoader images;
     private List<CartItem> cartItems;
     private OnCartItemListener listener;
 
@@ -27,7 +28,13 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
     }
 
     public CartAdapter(Context context, List<CartItem> cartItems, OnCartItemListener listener) {
+        this(context, cartItems, listener, new ProductImageLoader(context));
+    }
+
+    CartAdapter(Context context, List<CartItem> cartItems, OnCartItemListener listener,
+                ProductImageLoader images) {
         this.context = context;
+        this.images = images;
         this.cartItems = cartItems;
         this.listener = listener;
     }
@@ -36,52 +43,47 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
     @Override
     public CartViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(context).inflate(R.layout.item_cart, parent, false);
-        return new CartViewHolder(view);
-    }
-
-    @Override
-    public void onBindViewHolder(@NonNull CartViewHolder holder, int position) {
-        CartItem item = cartItems.get(position);
-
-        holder.tvName.setText(item.getProduct().getName());
-        holder.tvPrice.setText(String.format(Locale.getDefault(), "$%.2f", item.getProduct().getPrice()));
-        holder.tvQuantity.setText(String.valueOf(item.getQuantity()));
-        holder.tvSubtotal.setText(String.format(Locale.getDefault(), "$%.2f", item.getSubtotal()));
-
-        // Load image
-        String imageUrl = item.getProduct().getImageUrl();
-        if (imageUrl != null && (imageUrl.startsWith("http://") || imageUrl.startsWith("https://"))) {
-            Glide.with(context)
-                    .load(imageUrl)
-                    .placeholder(R.drawable.coffee_default)
-                    .error(R.drawable.coffee_default)
-                    .centerCrop()
-                    .into(holder.ivProduct);
-        } else {
-            int imageResource = getImageResource(imageUrl);
-            holder.ivProduct.setImageResource(imageResource);
-        }
-
-        // FIXED: Use final reference to current item for click listeners
-        final CartItem currentItem = item;
-
+        CartViewHolder holder = new CartViewHolder(view);
+        // One set of listeners per holder; the item is looked up when clicked
         holder.btnIncrease.setOnClickListener(v -> {
-            if (listener != null) {
-                listener.onQuantityChanged(currentItem, currentItem.getQuantity() + 1);
+            CartItem item = itemAt(holder);
+            if (item != null && listener != null) {
+                listener.onQuantityChanged(item, item.getQuantity() + 1);
             }
         });
 
         holder.btnDecrease.setOnClickListener(v -> {
-            if (listener != null && currentItem.getQuantity() > 1) {
-                listener.onQuantityChanged(currentItem, currentItem.getQuantity() - 1);
+            CartItem item = itemAt(holder);
+            if (item != null && listener != null && item.getQuantity() > 1) {
+                listener.onQuantityChanged(item, item.getQuantity() - 1);
             }
         });
 
         holder.btnRemove.setOnClickListener(v -> {
-            if (listener != null) {
-                listener.onRemoveClick(currentItem);
+            CartItem item = itemAt(holder);
+            if (item != null && listener != null) {
+                listener.onRemoveClick(item);
             }
         });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull CartViewHolder holder, int position) {
+        CartItem item = cartItems.get(position);
+
+        holder.tvName.setText(item.getProduct().getName());
+        holder.tvPrice.setText(item.getProduct().getPriceText());
+        holder.tvQuantity.setText(item.getQuantityText());
+        holder.tvSubtotal.setText(item.getSubtotalText());
+
+        // Quantity changes rebind the row; its image stays as it is
+        String image = item.getProduct().getImageUrl();
+        if (!holder.imageBound || !Objects.equals(image, holder.image)) {
+            holder.imageBound = true;
+            holder.image = image;
+            images.loadThumbnail(image, holder.ivProduct);
+        }
     }
 
     @Override
@@ -96,33 +98,19 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
 
     // Remove getItemViewType override - not needed for stable IDs
 
-    private int getImageResource(String imageName) {
-        switch (imageName != null ? imageName.toLowerCase() : "") {
-            case "espresso":
-                return R.drawable.espresso;
-            case "cappuccino":
-                return R.drawable.cappuccino;
-            case "latte":
-                return R.drawable.latte;
-            case "americano":
-                return R.drawable.americano;
-            case "mocha":
-                return R.drawable.mocha;
-            case "macchiato":
-                return R.drawable.macchiato;
-            case "coldbrew":
-                return R.drawable.coldbrew;
-            case "flatwhite":
-                return R.drawable.flatwhite;
-            default:
-                return R.drawable.coffee_default;
-        }
+    // Null once the row has been removed but before its holder is recycled
+    private CartItem itemAt(RecyclerView.ViewHolder holder) {
+        int position = holder.getBindingAdapterPosition();
+        return position == RecyclerView.NO_POSITION ? null : cartItems.get(position);
     }
 
     static class CartViewHolder extends RecyclerView.ViewHolder {
         ImageView ivProduct;
         TextView tvName, tvPrice, tvQuantity, tvSubtotal;
         ImageButton btnIncrease, btnDecrease, btnRemove;
+        // What ivProduct was last asked to show, once it has been asked at all
+        boolean imageBound;
+        String image;
 
         public CartViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -0,0 +1,44 @@
+package com.example.coffeeshop.adapters;
+
+import android.view.View;
+import android.view.ViewGroup;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Shows one fixed view as a list row, so a screen's summary can scroll with its
+ * list inside a single RecyclerView (combine with a ConcatAdapter). The owner
+ * keeps the view and updates it directly.
+ */
+public class HeaderAdapter extends RecyclerView.Adapter<HeaderAdapter.HeaderViewHolder> {
+
+    private final View header;
+
+    public HeaderAdapter(View header) {
+        this.header = header;
+    }
+
+    @NonNull
+    @Override
+    public HeaderViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        return new HeaderViewHolder(header);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull HeaderViewHolder holder, int position) {
+        // The owner binds the header view itself
+    }
+
+    @Override
+    public int getItemCount() {
+        return 1;
+    }
+
+    static class HeaderViewHolder extends RecyclerView.ViewHolder {
+        HeaderViewHolder(@NonNull View itemView) {
+            super(itemView);
+            // There is only one header view, so it must never go to the shared pool
+            setIsRecyclable(false);
+        }
+    }
+}
@@ -9,67 +9,126 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.coffeeshop.R;
+import com.example.coffeeshop.database.OrderPagingSource;
 import com.example.coffeeshop.models.Order;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.List;
-import java.util.Locale;
 
-public class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.OrderViewHolder> {
+/**
+ * Shows an {@link OrderPagingSource}. Scrolling reports the visible range to the
+ * source, which fetches and drops pages and tells the adapter what changed.
+ */
+public class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.OrderViewHolder>
+        implements OrderPagingSource.Listener {
 
     private Context context;
-    private List<Order> orderList;
+    private OrderPagingSource source;
     private OnOrderActionListener listener;
+    private final RecyclerView.OnScrollListener scrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+            // Also called with 0, 0 after a layout changes the visible range
+            reportVisibleRange(recyclerView);
+        }
+    };
 
     public interface OnOrderActionListener {
         void onAcceptClick(Order order);
         void onRejectClick(Order order);
     }
 
-    public OrderAdapter(Context context, List<Order> orderList, OnOrderActionListener listener) {
+    public OrderAdapter(Context context, OrderPagingSource source, OnOrderActionListener listener) {
         this.context = context;
-        this.orderList = orderList;
+        this.source = source;
         this.listener = listener;
+        source.setListener(this);
     }
-    
-    public OrderAdapter(Context context, List<Order> orderList) {
-        this.context = context;
-        this.orderList = orderList;
-        this.listener = null;
+
+    public OrderAdapter(Context context, OrderPagingSource source) {
+        this(context, source, null);
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        recyclerView.addOnScrollListener(scrollListener);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        recyclerView.removeOnScrollListener(scrollListener);
+    }
+
+    /**
+     * Works out which of this adapter's positions are laid out. The list may hold
+     * other rows too (e.g. a header in a ConcatAdapter), so positions come from
+     * the children's binding adapter rather than the layout manager.
+     */
+    private void reportVisibleRange(RecyclerView recyclerView) {
+        int first = Integer.MAX_VALUE;
+        int last = -1;
+        for (int i = 0; i < recyclerView.getChildCount(); i++) {
+            RecyclerView.ViewHolder holder = recyclerView.getChildViewHolder(recyclerView.getChildAt(i));
+            if (holder.getBindingAdapter() == this) {
+                int position = holder.getBindingAdapterPosition();
+                if (position != RecyclerView.NO_POSITION) {
+                    first = Math.min(first, position);
+                    last = Math.max(last, position);
+                }
+            }
+        }
+        if (last >= 0) {
+            source.onVisibleRange(first, last);
+        }
+    }
+
+    @Override
+    public void onItemsInserted(int position, int count) {
+        notifyItemRangeInserted(position, count);
+    }
+
+    @Override
+    public void onItemsRemoved(int position, int count) {
+        notifyItemRangeRemoved(position, count);
+    }
+
+    @Override
+    public void onReset() {
+        notifyDataSetChanged();
     }
 
     @NonNull
     @Override
     public OrderViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(context).inflate(R.layout.item_order, parent, false);
-        return new OrderViewHolder(view);
+        OrderViewHolder holder = new OrderViewHolder(view);
+        // One pair of listeners per holder; the order is looked up when clicked
+        holder.btnAccept.setOnClickListener(v -> {
+            Order order = orderAt(holder);
+            if (order != null && listener != null) {
+                listener.onAcceptClick(order);
+            }
+        });
+
+        holder.btnReject.setOnClickListener(v -> {
+            Order order = orderAt(holder);
+            if (order != null && listener != null) {
+                listener.onRejectClick(order);
+            }
+        });
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull OrderViewHolder holder, int position) {
-        Order order = orderList.get(position);
+        Order order = source.get(position);
 
-        holder.tvOrderId.setText("Order #" + order.getId());
-        holder.tvCustomerName.setText("Customer: " + order.getUserName());
-        holder.tvAmount.setText(String.format(Locale.getDefault(), "Total: $%.2f", order.getTotalAmount()));
-        holder.tvDate.setText("Date: " + formatDate(order.getOrderDate()));
-        holder.tvStatus.setText("Status: " + order.getStatus().toUpperCase());
+        holder.tvOrderId.setText(order.getNumberText());
+        holder.tvCustomerName.setText(order.getCustomerText());
+        holder.tvAmount.setText(order.getTotalText());
+        holder.tvDate.setText(order.getDateText());
+        holder.tvStatus.setText(order.getStatusText());
 
         if (listener != null) {
             holder.btnAccept.setVisibility(View.VISIBLE);
             holder.btnReject.setVisibility(View.VISIBLE);
-            holder.btnAccept.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onAcceptClick(order);
-                }
-            });
-
-            holder.btnReject.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onRejectClick(order);
-                }
-            });
         } else {
             holder.btnAccept.setVisibility(View.GONE);
             holder.btnReject.setVisibility(View.GONE);
@@ -78,18 +137,13 @@ public class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.OrderViewHol
 
     @Override
     public int getItemCount() {
-        return orderList.size();
+        return source.size();
     }
 
-    private String formatDate(String dateStr) {
-        try {
-            SimpleDateFormat inputFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
-            SimpleDateFormat outputFormat = new SimpleDateFormat("MMM dd, yyyy hh:mm a", Locale.getDefault());
-            Date date = inputFormat.parse(dateStr);
-            return outputFormat.format(date);
-        } catch (ParseException e) {
-            return dateStr;
-        }
+    // Null once the row has been removed but before its holder is recycled
+    private Order orderAt(RecyclerView.ViewHolder holder) {
+        int position = holder.getBindingAdapterPosition();
+        return position == RecyclerView.NO_POSITION ? null : source.get(position);
     }
 
     static class OrderViewHolder extends RecyclerView.ViewHolder {
@@ -8,17 +8,42 @@ import android.widget.ImageButton;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
-import com.bumptech.glide.Glide;
 import com.example.coffeeshop.R;
 import com.example.coffeeshop.models.Product;
+import com.example.coffeeshop.utils.ProductImageLoader;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
+import java.util.Objects;
 
 public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductViewHolder> {
 
+    // Rows past the last visible one whose images are loaded ahead of the scroll
+    private static final int PRELOAD_AHEAD = 6;
+
+    // Products are rows of one table, so the id says which row and the fields
+    // say whether it has to be bound again
+    private static final DiffUtil.ItemCallback<Product> DIFF_CALLBACK = new DiffUtil.ItemCallback<Product>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Product oldItem, @NonNull Product newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Product oldItem, @NonNull Product newItem) {
+            return oldItem.getName().equals(newItem.getName())
+                    && Objects.equals(oldItem.getDescription(), newItem.getDescription())
+                    && oldItem.getPrice() == newItem.getPrice()
+                    && Objects.equals(oldItem.getImageUrl(), newItem.getImageUrl());
+        }
+    };
+
     private Context context;
-    private List<Product> productList;
+    private final ProductImageLoader images;
+    private final RecyclerView.OnScrollListener preloader;
+    private final AsyncListDiffer<Product> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
     private OnProductClickListener listener;
     private boolean isAdmin;
 
@@ -30,114 +55,136 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductV
     }
 
     public ProductAdapter(Context context, List<Product> productList, OnProductClickListener listener, boolean isAdmin) {
+        this(context, productList, listener, isAdmin, new ProductImageLoader(context));
+    }
+
+    ProductAdapter(Context context, List<Product> productList, OnProductClickListener listener,
+                   boolean isAdmin, ProductImageLoader images) {
         this.context = context;
-        this.productList = productList;
+        this.images = images;
+        preloader = images.createPreloader(position -> {
+            List<Product> products = differ.getCurrentList();
+            return position < products.size() ? products.get(position).getImageUrl() : null;
+        }, PRELOAD_AHEAD);
+        // Rows keep their view across updates, so RecyclerView can move them
+        // instead of rebinding when the order changes
+        setHasStableIds(true);
+        updateList(productList);
         this.listener = listener;
         this.isAdmin = isAdmin;
     }
 
-    @NonNull
     @Override
-    public ProductViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(context).inflate(R.layout.item_product, parent, false);
-        return new ProductViewHolder(view);
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        recyclerView.addOnScrollListener(preloader);
     }
 
     @Override
-    public void onBindViewHolder(@NonNull ProductViewHolder holder, int position) {
-        Product product = productList.get(position);
-        holder.tvName.setText(product.getName());
-        holder.tvDescription.setText(product.getDescription());
-        holder.tvPrice.setText(String.format(Locale.getDefault(), "$%.2f", product.getPrice()));
-
-        // Load image - check if it's a URL or drawable resource
-        String imageUrl = product.getImageUrl();
-        if (imageUrl != null && (imageUrl.startsWith("http://") || imageUrl.startsWith("https://"))) {
-            // Load from URL (Cloudinary)
-            Glide.with(context)
-                    .load(imageUrl)
-                    .placeholder(R.drawable.coffee_default)
-                    .error(R.drawable.coffee_default)
-                    .centerCrop()
-                    .into(holder.ivProduct);
-        } else {
-            // Load from drawable resources
-            int imageResource = getImageResource(imageUrl);
-            holder.ivProduct.setImageResource(imageResource);
-        }
-
-        if (isAdmin) {
-            holder.btnEdit.setVisibility(View.VISIBLE);
-            holder.btnDelete.setVisibility(View.VISIBLE);
-            holder.btnAddToCart.setVisibility(View.GONE);
-        } else {
-            holder.btnEdit.setVisibility(View.GONE);
-            holder.btnDelete.setVisibility(View.GONE);
-            holder.btnAddToCart.setVisibility(View.VISIBLE);
-        }
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        recyclerView.removeOnScrollListener(preloader);
+    }
 
+    @NonNull
+    @Override
+    public ProductViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(context).inflate(R.layout.item_product, parent, false);
+        ProductViewHolder holder = new ProductViewHolder(view);
+        // One set of listeners per holder; the product is looked up when clicked
         holder.itemView.setOnClickListener(v -> {
-            if (listener != null) {
+            Product product = productAt(holder);
+            if (product != null && listener != null) {
                 listener.onProductClick(product);
             }
         });
 
         holder.btnEdit.setOnClickListener(v -> {
-            if (listener != null) {
+            Product product = productAt(holder);
+            if (product != null && listener != null) {
                 listener.onEditClick(product);
             }
         });
 
         holder.btnDelete.setOnClickListener(v -> {
-            if (listener != null) {
+            Product product = productAt(holder);
+            if (product != null && listener != null) {
                 listener.onDeleteClick(product);
             }
         });
 
         holder.btnAddToCart.setOnClickListener(v -> {
-            if (listener != null) {
+            Product product = productAt(holder);
+            if (product != null && listener != null) {
                 listener.onAddToCartClick(product);
             }
         });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ProductViewHolder holder, int position) {
+        Product product = differ.getCurrentList().get(position);
+        holder.tvName.setText(product.getName());
+        holder.tvDescription.setText(product.getDescription());
+        holder.tvPrice.setText(product.getPriceText());
+
+        // A rebind of the same product keeps the request it already has
+        String image = product.getImageUrl();
+        if (!holder.imageBound || !Objects.equals(image, holder.image)) {
+            holder.imageBound = true;
+            holder.image = image;
+            images.loadThumbnail(image, holder.ivProduct);
+        }
+
+        if (isAdmin) {
+            holder.btnEdit.setVisibility(View.VISIBLE);
+            holder.btnDelete.setVisibility(View.VISIBLE);
+            holder.btnAddToCart.setVisibility(View.GONE);
+        } else {
+            holder.btnEdit.setVisibility(View.GONE);
+            holder.btnDelete.setVisibility(View.GONE);
+            holder.btnAddToCart.setVisibility(View.VISIBLE);
+        }
     }
 
     @Override
     public int getItemCount() {
-        return productList.size();
+        return differ.getCurrentList().size();
     }
 
+    @Override
+    public long getItemId(int position) {
+        return differ.getCurrentList().get(position).getId();
+    }
+
+    /**
+     * Shows newList, diffing it against the current rows on a background thread so
+     * only the rows that changed are rebound. The list is copied, so callers may
+     * keep changing their own.
+     */
     public void updateList(List<Product> newList) {
-        this.productList = newList;
-        notifyDataSetChanged();
+        updateList(newList, null);
     }
 
-    private int getImageResource(String imageName) {
-        switch (imageName != null ? imageName.toLowerCase() : "") {
-            case "espresso":
-                return R.drawable.espresso;
-            case "cappuccino":
-                return R.drawable.cappuccino;
-            case "latte":
-                return R.drawable.latte;
-            case "americano":
-                return R.drawable.americano;
-            case "mocha":
-                return R.drawable.mocha;
-            case "macchiato":
-                return R.drawable.macchiato;
-            case "coldbrew":
-                return R.drawable.coldbrew;
-            case "flatwhite":
-                return R.drawable.flatwhite;
-            default:
-                return R.drawable.coffee_default;
-        }
+    /**
+     * As {@link #updateList(List)}, running onCommitted once the rows show newList.
+     */
+    void updateList(List<Product> newList, Runnable onCommitted) {
+        differ.submitList(new ArrayList<>(newList), onCommitted);
+    }
+
+    // Null once the row has been removed but before its holder is recycled
+    private Product productAt(RecyclerView.ViewHolder holder) {
+        int position = holder.getBindingAdapterPosition();
+        return position == RecyclerView.NO_POSITION ? null : differ.getCurrentList().get(position);
     }
 
     static class ProductViewHolder extends RecyclerView.ViewHolder {
         ImageView ivProduct;
         TextView tvName, tvDescription, tvPrice;
         ImageButton btnEdit, btnDelete, btnAddToCart;
+        // What ivProduct was last asked to show, once it has been asked at all
+        boolean imageBound;
+        String image;
 
         public ProductViewHolder(@NonNull View itemView) {
             super(itemView);
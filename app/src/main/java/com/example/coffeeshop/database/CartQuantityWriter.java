@@ -0,0 +1,189 @@
+package com.example.coffeeshop.database;
+
+import android.os.Handler;
+import android.os.Looper;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Write-behind for cart quantities. The cart screen shows a new quantity at once
+ * and hands it here; changes to one row within the coalescing delay become a
+ * single write, and a row never has two writes running at a time. A failed write
+ * is reported with the quantity the database still holds so the screen can roll
+ * back. Call from the main thread only.
+ */
+public class CartQuantityWriter {
+
+    public static final long DEFAULT_DELAY_MILLIS = 300;
+
+    public interface Listener {
+        /**
+         * Writing cartId's quantity failed; quantity is what the database holds.
+         */
+        void onWriteFailed(int cartId, int quantity);
+    }
+
+    private static final class Row {
+        final int cartId;
+        // What the database is known to hold, and what the screen shows
+        int saved;
+        int wanted;
+        boolean writing;
+        Runnable scheduled;
+
+        Row(int cartId, int saved) {
+            this.cartId = cartId;
+            this.saved = saved;
+            this.wanted = saved;
+        }
+
+        boolean idle() {
+            return !writing && scheduled == null;
+        }
+    }
+
+    private final CoffeeShopRepository repository;
+    private final Listener listener;
+    private final long delayMillis;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Map<Integer, Row> rows = new HashMap<>();
+
+    // Waiting for every row to be written, and whether a write failed meanwhile
+    private final List<CoffeeShopRepository.Callback<Boolean>> flushCallbacks = new ArrayList<>();
+    private boolean flushFailed;
+
+    public CartQuantityWriter(CoffeeShopRepository repository, Listener listener) {
+        this(repository, listener, DEFAULT_DELAY_MILLIS);
+    }
+
+    public CartQuantityWriter(CoffeeShopRepository repository, Listener listener, long delayMillis) {
+        this.repository = repository;
+        this.listener = listener;
+        this.delayMillis = delayMillis;
+    }
+
+    /**
+     * Saves a row's new quantity once changes to it pause.
+     *
+     * @param from the quantity shown before this change; for the first change of
+     *             a row it is taken as what the database holds
+     */
+    public void setQuantity(int cartId, int from, int to) {
+        Row row = rows.get(cartId);
+        if (row == null) {
+            row = new Row(cartId, from);
+            rows.put(cartId, row);
+        }
+        schedule(row, to);
+    }
+
+    /**
+     * Drops a row about to be removed from the cart, with any write still waiting.
+     */
+    public void forget(int cartId) {
+        Row row = rows.remove(cartId);
+        if (row != null && row.scheduled != null) {
+            handler.removeCallbacks(row.scheduled);
+        }
+        settle();
+    }
+
+    /**
+     * Writes every waiting change now.
+     *
+     * @param onSettled told once nothing is left to write, whether every write
+     *                  made meanwhile succeeded; called at once if nothing is
+     *                  waiting. May be null.
+     */
+    public void flush(CoffeeShopRepository.Callback<Boolean> onSettled) {
+        if (flushCallbacks.isEmpty()) {
+            flushFailed = false;
+        }
+        if (onSettled != null) {
+            flushCallbacks.add(onSettled);
+        }
+        for (Row row : new ArrayList<>(rows.values())) {
+            if (row.scheduled != null) {
+                handler.removeCallbacks(row.scheduled);
+                row.scheduled = null;
+                write(row);
+            }
+        }
+        settle();
+    }
+
+    /**
+     * Whether a shown quantity has not been saved yet, so a cart read now would
+     * not include it.
+     */
+    public boolean hasPending() {
+        return !rows.isEmpty();
+    }
+
+    private void schedule(Row row, int quantity) {
+        row.wanted = quantity;
+        if (row.scheduled != null) {
+            handler.removeCallbacks(row.scheduled);
+        }
+        row.scheduled = () -> {
+            row.scheduled = null;
+            write(row);
+        };
+        handler.postDelayed(row.scheduled, delayMillis);
+    }
+
+    private void write(Row row) {
+        if (row.writing) {
+            // The running write checks for a newer quantity when it finishes
+            return;
+        }
+        if (row.wanted == row.saved) {
+            rows.remove(row.cartId);
+            settle();
+            return;
+        }
+        row.writing = true;
+        int quantity = row.wanted;
+        repository.updateCartItemQuantity(row.cartId, quantity, success -> {
+            row.writing = false;
+            if (rows.get(row.cartId) != row) {
+                // Forgotten while writing
+                return;
+            }
+            if (success) {
+                row.saved = quantity;
+                if (row.scheduled == null) {
+                    write(row);
+                }
+                return;
+            }
+            if (row.scheduled != null) {
+                handler.removeCallbacks(row.scheduled);
+                row.scheduled = null;
+            }
+            rows.remove(row.cartId);
+            flushFailed = true;
+            listener.onWriteFailed(row.cartId, row.saved);
+            settle();
+        });
+    }
+
+    private void settle() {
+        if (flushCallbacks.isEmpty()) {
+            return;
+        }
+        for (Row row : rows.values()) {
+            if (!row.idle()) {
+                return;
+            }
+        }
+        List<CoffeeShopRepository.Callback<Boolean>> callbacks = new ArrayList<>(flushCallbacks);
+        flushCallbacks.clear();
+        boolean saved = !flushFailed;
+        for (CoffeeShopRepository.Callback<Boolean> callback : callbacks) {
+            callback.onResult(saved);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.coffeeshop.database;
+
+import com.example.coffeeshop.models.CartSummary;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cart summaries by user id. Any write that can change a cart or a price drops
+ * them all. As with {@link ProductCatalog}, loaders take the version before
+ * querying and a summary read while a write went through is not kept.
+ */
+final class CartSummaryCache {
+
+    private final Map<Integer, CartSummary> summaries = new HashMap<>();
+    private long version;
+
+    synchronized long getVersion() {
+        return version;
+    }
+
+    synchronized CartSummary get(int userId) {
+        return summaries.get(userId);
+    }
+
+    synchronized void put(int userId, CartSummary summary, long readVersion) {
+        if (readVersion == version) {
+            summaries.put(userId, summary);
+        }
+    }
+
+    /**
+     * Call after the write has committed.
+     */
+    synchronized void invalidate() {
+        summaries.clear();
+        version++;
+    }
+}
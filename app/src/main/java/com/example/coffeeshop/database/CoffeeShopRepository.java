@@ -0,0 +1,296 @@
+package com.example.coffeeshop.database;
+
+import android.content.Context;
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.OperationCanceledException;
+import android.os.Process;
+import android.util.Log;
+import androidx.annotation.VisibleForTesting;
+import com.example.coffeeshop.models.CartContents;
+import com.example.coffeeshop.models.CartItem;
+import com.example.coffeeshop.models.CartSummary;
+import com.example.coffeeshop.models.CustomerTotal;
+import com.example.coffeeshop.models.Order;
+import com.example.coffeeshop.models.OrderHeatmap;
+import com.example.coffeeshop.models.Product;
+import com.example.coffeeshop.models.RevenuePoint;
+import com.example.coffeeshop.models.RevenueReport;
+import com.example.coffeeshop.models.User;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous front for {@link DatabaseHelper}.
+ * Every query and write runs on a bounded background pool and the result is
+ * delivered back on the main looper, so Activities never touch SQLite directly.
+ */
+public class CoffeeShopRepository {
+
+    private static final String TAG = "CoffeeShopRepository";
+    private static final int THREAD_COUNT = 4;
+    private static final int QUEUE_CAPACITY = 128;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static volatile CoffeeShopRepository instance;
+
+    private final DatabaseHelper databaseHelper;
+    private final ExecutorService executor;
+    private final Executor mainThread;
+
+    public interface Callback<T> {
+        void onResult(T result);
+    }
+
+    private interface Task<T> {
+        T run();
+    }
+
+    @VisibleForTesting
+    CoffeeShopRepository(DatabaseHelper databaseHelper, ExecutorService executor) {
+        this.databaseHelper = databaseHelper;
+        this.executor = executor;
+        Handler handler = new Handler(Looper.getMainLooper());
+        this.mainThread = handler::post;
+    }
+
+    public static CoffeeShopRepository getInstance(Context context) {
+        if (instance == null) {
+            synchronized (CoffeeShopRepository.class) {
+                if (instance == null) {
+                    instance = new CoffeeShopRepository(
+                            DatabaseHelper.getInstance(context), createExecutor());
+                }
+            }
+        }
+        return instance;
+    }
+
+    @VisibleForTesting
+    public static void setInstance(CoffeeShopRepository repository) {
+        synchronized (CoffeeShopRepository.class) {
+            instance = repository;
+        }
+    }
+
+    private static ExecutorService createExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, "db-worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(THREAD_COUNT, THREAD_COUNT,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(QUEUE_CAPACITY), factory);
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Runs the task on the background pool. If the task throws or the pool is
+     * saturated the fallback value is delivered instead, so callers only have to
+     * handle the same "failed" results DatabaseHelper already returns.
+     */
+    private <T> void submit(Task<T> task, T fallback, Callback<T> callback) {
+        try {
+            executor.execute(() -> {
+                T result;
+                try {
+                    result = task.run();
+                } catch (OperationCanceledException e) {
+                    result = fallback;
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "Database task failed", e);
+                    result = fallback;
+                }
+                deliver(callback, result);
+            });
+        } catch (RejectedExecutionException e) {
+            Log.e(TAG, "Database queue is full", e);
+            deliver(callback, fallback);
+        }
+    }
+
+    private <T> void deliver(Callback<T> callback, T result) {
+        if (callback != null) {
+            mainThread.execute(() -> callback.onResult(result));
+        }
+    }
+
+    // ========== MAINTENANCE ==========
+
+    public void runBackgroundMigrations() {
+        submit(() -> {
+            databaseHelper.runBackgroundMigrations();
+            return true;
+        }, false, null);
+    }
+
+    // ========== USER OPERATIONS ==========
+
+    public void registerUser(String name, String email, String password, Callback<Boolean> callback) {
+        submit(() -> databaseHelper.registerUser(name, email, password), false, callback);
+    }
+
+    public void loginUser(String email, String password, Callback<User> callback) {
+        submit(() -> databaseHelper.loginUser(email, password), null, callback);
+    }
+
+    public void isEmailExists(String email, Callback<Boolean> callback) {
+        submit(() -> databaseHelper.isEmailExists(email), false, callback);
+    }
+
+    // ========== PRODUCT OPERATIONS ==========
+
+    /**
+     * Version of the cached product catalog; see {@link DatabaseHelper#getCatalogVersion}.
+     * Answers straight away, on the calling thread.
+     */
+    public long getCatalogVersion() {
+        return databaseHelper.getCatalogVersion();
+    }
+
+    public void getAllProducts(Callback<List<Product>> callback) {
+        submit(databaseHelper::getAllProducts, Collections.emptyList(), callback);
+    }
+
+    public void getProductById(int productId, Callback<Product> callback) {
+        submit(() -> databaseHelper.getProductById(productId), null, callback);
+    }
+
+    /**
+     * @param cancellationSignal cancel to abandon the search; the callback then
+     *                           receives an empty list
+     */
+    public void searchProducts(String query, CancellationSignal cancellationSignal,
+                               Callback<List<Product>> callback) {
+        submit(() -> databaseHelper.searchProducts(query, cancellationSignal),
+                Collections.emptyList(), callback);
+    }
+
+    public void addProduct(Product product, Callback<Boolean> callback) {
+        submit(() -> databaseHelper.addProduct(product), false, callback);
+    }
+
+    public void updateProduct(Product product, Callback<Boolean> callback) {
+        submit(() -> databaseHelper.updateProduct(product), false, callback);
+    }
+
+    public void deleteProduct(int productId, Callback<Boolean> callback) {
+        submit(() -> databaseHelper.deleteProduct(productId), false, callback);
+    }
+
+    // ========== CART OPERATIONS ==========
+
+    public void addToCart(int userId, int productId, int quantity, Callback<Boolean> callback) {
+        submit(() -> databaseHelper.addToCart(userId, productId, quantity), false, callback);
+    }
+
+    public void getCartItems(int userId, Callback<List<CartItem>> callback) {
+        submit(() -> databaseHelper.getCartItems(userId), Collections.emptyList(), callback);
+    }
+
+    public void getCartContents(int userId, Callback<CartContents> callback) {
+        submit(() -> databaseHelper.getCartContents(userId), CartContents.EMPTY, callback);
+    }
+
+    public void updateCartItemQuantity(int cartId, int quantity, Callback<Boolean> callback) {
+        submit(() -> databaseHelper.updateCartItemQuantity(cartId, quantity), false, callback);
+    }
+
+    public void removeFromCart(int cartId, Callback<Boolean> callback) {
+        submit(() -> databaseHelper.removeFromCart(cartId), false, callback);
+    }
+
+    public void getCartSummary(int userId, Callback<CartSummary> callback) {
+        submit(() -> databaseHelper.getCartSummary(userId), CartSummary.EMPTY, callback);
+    }
+
+    public void getCartUnitCount(int userId, Callback<Integer> callback) {
+        submit(() -> databaseHelper.getCartUnitCount(userId), 0, callback);
+    }
+
+    // ========== ORDER OPERATIONS ==========
+
+    public void placeOrder(int userId, Callback<Boolean> callback) {
+        submit(() -> databaseHelper.checkout(userId) != -1, false, callback);
+    }
+
+    public void updateOrderStatus(int orderId, String status, Callback<Boolean> callback) {
+        submit(() -> databaseHelper.updateOrderStatus(orderId, status), false, callback);
+    }
+
+    public void getPendingOrders(Callback<List<Order>> callback) {
+        submit(databaseHelper::getPendingOrders, Collections.emptyList(), callback);
+    }
+
+    public void getOrdersPage(OrderFilter filter, Order anchor, boolean newer, int limit,
+                              Callback<List<Order>> callback) {
+        submit(() -> withText(databaseHelper.getOrdersPage(filter, anchor, newer, limit)),
+                Collections.emptyList(), callback);
+    }
+
+    // Formats the rows here on the worker, so the list binds without allocating
+    private static List<Order> withText(List<Order> orders) {
+        for (Order order : orders) {
+            order.prepareText();
+        }
+        return orders;
+    }
+
+    // ========== REVENUE OPERATIONS ==========
+
+    public void getTotalRevenue(Callback<Double> callback) {
+        submit(databaseHelper::getTotalRevenue, 0.0, callback);
+    }
+
+    public void getRevenueReport(OrderFilter filter, int pageSize, Callback<RevenueReport> callback) {
+        submit(() -> {
+            RevenueReport report = databaseHelper.getRevenueReport(filter, pageSize);
+            withText(report.getFirstPage());
+            return report;
+        }, RevenueReport.EMPTY, callback);
+    }
+
+    public void getRevenueSeries(OrderFilter filter, RevenueBucket bucket,
+                                 Callback<List<RevenuePoint>> callback) {
+        submit(() -> databaseHelper.getRevenueSeries(filter, bucket), Collections.emptyList(), callback);
+    }
+
+    /**
+     * Answered from {@link OrderAnalytics}, which the first call loads.
+     */
+    public void getTopCustomers(OrderFilter filter, int limit, Callback<List<CustomerTotal>> callback) {
+        submit(() -> databaseHelper.getOrderAnalytics().getTopCustomers(filter, limit),
+                Collections.emptyList(), callback);
+    }
+
+    /**
+     * Frees the columns {@link #getTopCustomers} loaded, once no screen shows them.
+     */
+    public void releaseOrderAnalytics() {
+        // Only drops a reference; a report still loading fills a store nothing keeps
+        databaseHelper.releaseOrderAnalytics();
+    }
+
+    public void getOrderHeatmap(Callback<OrderHeatmap> callback) {
+        submit(databaseHelper::getOrderHeatmap, OrderHeatmap.EMPTY, callback);
+    }
+
+    public void rebuildRevenueRollup(Callback<Boolean> callback) {
+        submit(databaseHelper::rebuildRevenueRollup, false, callback);
+    }
+}
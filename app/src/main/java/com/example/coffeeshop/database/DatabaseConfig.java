@@ -0,0 +1,85 @@
+package com.example.coffeeshop.database;
+
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * Connection settings for CoffeeShop.db, kept in one place so every open of the
+ * database uses the same journal mode and PRAGMA tuning.
+ * <p>
+ * The journal mode, synchronous mode and idle timeout reach every pooled
+ * connection through the open params. cache_size, mmap_size and temp_store are
+ * per-connection PRAGMAs; from API 30 they are registered with
+ * execPerConnectionSQL, so the WAL read connections get them too. API 28 and
+ * 29 have no hook for pooled connections, and there they tune the primary
+ * connection only.
+ */
+public final class DatabaseConfig {
+
+    /** Settings used by the app: WAL so readers don't block behind the order writer. */
+    public static final DatabaseConfig DEFAULT = new DatabaseConfig(
+            true,           // write-ahead logging, enables the read connection pool
+            "NORMAL",       // synchronous: durable at checkpoints, safe with WAL
+            -8 * 1024,      // cache_size: negative means KiB, so 8 MiB page cache
+            64L * 1024 * 1024, // mmap_size: 64 MiB of the file read through mmap
+            2,              // temp_store: MEMORY for sort and GROUP BY temporaries
+            30_000L);       // close idle pooled connections after 30s
+
+    /** SQLite defaults with a rollback journal, kept for benchmarks and comparisons. */
+    public static final DatabaseConfig LEGACY = new DatabaseConfig(
+            false, null, 0, 0, 0, 0);
+
+    private final boolean writeAheadLogging;
+    private final String synchronousMode;
+    private final int cacheSize;
+    private final long mmapSize;
+    private final int tempStore;
+    private final long idleConnectionTimeoutMs;
+
+    public DatabaseConfig(boolean writeAheadLogging, String synchronousMode, int cacheSize,
+                          long mmapSize, int tempStore, long idleConnectionTimeoutMs) {
+        this.writeAheadLogging = writeAheadLogging;
+        this.synchronousMode = synchronousMode;
+        this.cacheSize = cacheSize;
+        this.mmapSize = mmapSize;
+        this.tempStore = tempStore;
+        this.idleConnectionTimeoutMs = idleConnectionTimeoutMs;
+    }
+
+    public boolean isWriteAheadLogging() {
+        return writeAheadLogging;
+    }
+
+    /**
+     * Parameters applied by the framework to every pooled connection.
+     */
+    SQLiteDatabase.OpenParams toOpenParams() {
+        SQLiteDatabase.OpenParams.Builder builder = new SQLiteDatabase.OpenParams.Builder();
+        if (synchronousMode != null) {
+            builder.setSynchronousMode(synchronousMode);
+        }
+        if (idleConnectionTimeoutMs > 0) {
+            builder.setIdleConnectionTimeout(idleConnectionTimeoutMs);
+        }
+        return builder.build();
+    }
+
+    /**
+     * PRAGMAs the framework has no setting for. onConfigure applies them to every
+     * connection of the pool, or to the primary connection alone before API 30.
+     */
+    String[] getPragmas() {
+        int count = (cacheSize != 0 ? 1 : 0) + (mmapSize > 0 ? 1 : 0) + (tempStore > 0 ? 1 : 0);
+        String[] pragmas = new String[count];
+        int i = 0;
+        if (cacheSize != 0) {
+            pragmas[i++] = "PRAGMA cache_size = " + cacheSize;
+        }
+        if (mmapSize > 0) {
+            pragmas[i++] = "PRAGMA mmap_size = " + mmapSize;
+        }
+        if (tempStore > 0) {
+            pragmas[i] = "PRAGMA temp_store = " + tempStore;
+        }
+        return pragmas;
+    }
+}
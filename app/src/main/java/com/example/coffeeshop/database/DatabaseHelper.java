@@ -5,17 +5,31 @@ import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Build;
+import android.os.CancellationSignal;
+import com.example.coffeeshop.database.migrations.BackgroundMigrationRunner;
+import com.example.coffeeshop.database.migrations.MigrationRunner;
+import com.example.coffeeshop.database.migrations.Migrations;
+import com.example.coffeeshop.database.migrations.V3OrderTimestamps;
+import com.example.coffeeshop.database.migrations.V4RevenueRollup;
+import com.example.coffeeshop.database.migrations.V8ProductSearchKeys;
+import com.example.coffeeshop.database.migrations.V9OrderVolume;
 import com.example.coffeeshop.models.*;
 import java.text.SimpleDateFormat;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 public class DatabaseHelper extends SQLiteOpenHelper {
 
     private static final String DATABASE_NAME = "CoffeeShop.db";
-    private static final int DATABASE_VERSION = 1;
+    private static final int DATABASE_VERSION = 9;
 
     // Users Table
     private static final String TABLE_USERS = "users";
@@ -32,6 +46,10 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     private static final String COL_PRODUCT_DESC = "description";
     private static final String COL_PRODUCT_PRICE = "price";
     private static final String COL_PRODUCT_IMAGE = "image_url";
+    private static final String COL_PRODUCT_SEARCH_KEY = "search_key"; // folded name and description
+    // What a Product is read from; the search key is only for the index
+    private static final String[] PRODUCT_COLUMNS = {COL_PRODUCT_ID, COL_PRODUCT_NAME,
+            COL_PRODUCT_DESC, COL_PRODUCT_PRICE, COL_PRODUCT_IMAGE};
 
     // Cart Table
     private static final String TABLE_CART = "cart";
@@ -39,17 +57,123 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     private static final String COL_CART_USER_ID = "user_id";
     private static final String COL_CART_PRODUCT_ID = "product_id";
     private static final String COL_CART_QUANTITY = "quantity";
+    private static final String CART_LINE_ID = "cart_id"; // c.id where products are joined in
 
     // Orders Table
     private static final String TABLE_ORDERS = "orders";
     private static final String COL_ORDER_ID = "id";
     private static final String COL_ORDER_USER_ID = "user_id";
     private static final String COL_ORDER_TOTAL = "total_amount";
-    private static final String COL_ORDER_DATE = "order_date";
+    private static final String COL_ORDER_DATE = "order_date"; // legacy text, kept for older readers
+    private static final String COL_ORDER_TIME = "order_time"; // epoch millis
     private static final String COL_ORDER_STATUS = "status";
+    private static final String STATUS_ACCEPTED = "accepted";
+    // What an Order is read from, for queries on orders o joined to users u
+    // Rollup figures a revenue report reads alongside its first page
+    private static final String REPORT_ORDER_COUNT = "report_order_count";
+    private static final String REPORT_REVENUE = "report_revenue";
+    private static final String ORDER_COLUMNS = "o." + COL_ORDER_ID + ", o." + COL_ORDER_USER_ID +
+            ", o." + COL_ORDER_TOTAL + ", o." + COL_ORDER_TIME + ", o." + COL_ORDER_STATUS +
+            ", u." + COL_USER_NAME;
+
+    // Order Items Table, the cart lines an order was placed with
+    private static final String TABLE_ORDER_ITEMS = "order_items";
+    private static final String COL_ITEM_ID = "id";
+    private static final String COL_ITEM_ORDER_ID = "order_id";
+    private static final String COL_ITEM_PRODUCT_ID = "product_id";
+    private static final String COL_ITEM_QUANTITY = "quantity";
+    private static final String COL_ITEM_UNIT_PRICE = "unit_price"; // price when ordered
+
+    // The platform SQLite on API 28 (3.22) predates ON CONFLICT DO UPDATE, so the
+    // upsert replaces the (user_id, product_id) row, keeping its id and adding to
+    // its quantity. A single statement is atomic, so no increment can be lost.
+    static final String ADD_TO_CART_SQL = "INSERT OR REPLACE INTO " + TABLE_CART + " (" +
+            COL_CART_ID + ", " + COL_CART_USER_ID + ", " + COL_CART_PRODUCT_ID + ", " + COL_CART_QUANTITY +
+            ") VALUES ((SELECT " + COL_CART_ID + " FROM " + TABLE_CART +
+            " WHERE " + COL_CART_USER_ID + " = ?1 AND " + COL_CART_PRODUCT_ID + " = ?2), ?1, ?2, " +
+            "COALESCE((SELECT " + COL_CART_QUANTITY + " FROM " + TABLE_CART +
+            " WHERE " + COL_CART_USER_ID + " = ?1 AND " + COL_CART_PRODUCT_ID + " = ?2), 0) + ?3)";
+
+    private static volatile DatabaseHelper instance;
+
+    private final DatabaseConfig config;
+    private final MigrationRunner migrations = new MigrationRunner(Migrations.all());
+    private final BackgroundMigrationRunner backgroundMigrations = new BackgroundMigrationRunner(
+            migrations.getBackgroundMigrations(), BackgroundMigrationRunner.DEFAULT_BATCH_SIZE);
+
+    // Shared Product instances; every product write below goes through it
+    private final ProductCatalog catalog = new ProductCatalog();
+    // Dropped by every cart write below, and by product writes that move prices
+    private final CartSummaryCache cartSummaries = new CartSummaryCache();
+    // Null until an admin report asks for it; then every order write below updates it
+    private final Object analyticsLock = new Object();
+    private volatile OrderAnalytics orderAnalytics;
+
+    // Compiled once and reused; a statement holds its bindings, so callers lock it
+    private final Object statementLock = new Object();
+    private SQLiteStatement addToCartStatement;
 
     public DatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        this(context, DATABASE_NAME, DatabaseConfig.DEFAULT);
+    }
+
+    DatabaseHelper(Context context, String databaseName, DatabaseConfig config) {
+        this(context, databaseName, config, null);
+    }
+
+    DatabaseHelper(Context context, String databaseName, DatabaseConfig config,
+                   SQLiteDatabase.CursorFactory cursorFactory) {
+        super(context, databaseName, cursorFactory, DATABASE_VERSION);
+        if (migrations.getLatestVersion() != DATABASE_VERSION) {
+            throw new IllegalStateException("DATABASE_VERSION does not match the last migration");
+        }
+        this.config = config;
+        // setOpenParams replaces the open flags, so WAL has to be enabled after it
+        setOpenParams(config.toOpenParams());
+        setWriteAheadLoggingEnabled(config.isWriteAheadLogging());
+    }
+
+    /**
+     * Process-wide helper. Every screen shares one SQLiteOpenHelper so there is a
+     * single connection pool for CoffeeShop.db instead of one per Activity.
+     */
+    public static DatabaseHelper getInstance(Context context) {
+        if (instance == null) {
+            synchronized (DatabaseHelper.class) {
+                if (instance == null) {
+                    instance = new DatabaseHelper(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    @Override
+    public synchronized void close() {
+        synchronized (statementLock) {
+            if (addToCartStatement != null) {
+                addToCartStatement.close();
+                addToCartStatement = null;
+            }
+        }
+        super.close();
+    }
+
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        for (String pragma : config.getPragmas()) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+                // Runs on the primary connection now and on each read connection the pool opens
+                db.execPerConnectionSQL(pragma, null);
+            } else {
+                // No hook for pooled connections before API 30, see DatabaseConfig.
+                // Some PRAGMAs (mmap_size) return a row, so run them as queries
+                Cursor cursor = db.rawQuery(pragma, null);
+                cursor.moveToFirst();
+                cursor.close();
+            }
+        }
     }
 
     @Override
@@ -68,7 +192,8 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 COL_PRODUCT_NAME + " TEXT NOT NULL, " +
                 COL_PRODUCT_DESC + " TEXT, " +
                 COL_PRODUCT_PRICE + " REAL NOT NULL, " +
-                COL_PRODUCT_IMAGE + " TEXT)";
+                COL_PRODUCT_IMAGE + " TEXT, " +
+                COL_PRODUCT_SEARCH_KEY + " TEXT)";
 
         // Create Cart Table
         String createCartTable = "CREATE TABLE " + TABLE_CART + " (" +
@@ -85,13 +210,30 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 COL_ORDER_USER_ID + " INTEGER NOT NULL, " +
                 COL_ORDER_TOTAL + " REAL NOT NULL, " +
                 COL_ORDER_DATE + " TEXT NOT NULL, " +
+                COL_ORDER_TIME + " INTEGER NOT NULL, " +
                 COL_ORDER_STATUS + " TEXT NOT NULL DEFAULT 'pending', " +
                 "FOREIGN KEY(" + COL_ORDER_USER_ID + ") REFERENCES " + TABLE_USERS + "(" + COL_USER_ID + "))";
 
+        // Create Order Items Table
+        String createOrderItemsTable = "CREATE TABLE " + TABLE_ORDER_ITEMS + " (" +
+                COL_ITEM_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                COL_ITEM_ORDER_ID + " INTEGER NOT NULL, " +
+                COL_ITEM_PRODUCT_ID + " INTEGER NOT NULL, " +
+                COL_ITEM_QUANTITY + " INTEGER NOT NULL, " +
+                COL_ITEM_UNIT_PRICE + " REAL NOT NULL, " +
+                "FOREIGN KEY(" + COL_ITEM_ORDER_ID + ") REFERENCES " + TABLE_ORDERS + "(" + COL_ORDER_ID + "), " +
+                "FOREIGN KEY(" + COL_ITEM_PRODUCT_ID + ") REFERENCES " + TABLE_PRODUCTS + "(" + COL_PRODUCT_ID + "))";
+
         db.execSQL(createUsersTable);
         db.execSQL(createProductsTable);
         db.execSQL(createCartTable);
         db.execSQL(createOrdersTable);
+        db.execSQL(createOrderItemsTable);
+        RevenueRollup.createTable(db);
+        OrderVolumeRollup.createTable(db);
+        ProductSearchIndex.createTable(db);
+        createIndexes(db);
+        BackgroundMigrationRunner.createTable(db);
 
         insertSampleProducts(db);
         insertAdminUser(db);
@@ -99,11 +241,30 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_ORDERS);
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_CART);
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_PRODUCTS);
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_USERS);
-        onCreate(db);
+        migrations.upgrade(db, oldVersion, newVersion);
+    }
+
+    /**
+     * Runs the expensive parts of past upgrades (index builds, backfills) in small
+     * batches. Call from a background thread once the first screen is drawn.
+     */
+    public void runBackgroundMigrations() {
+        backgroundMigrations.runPending(getWritableDatabase());
+    }
+
+    private void createIndexes(SQLiteDatabase db) {
+        // One cart line per product; also serves getCartItems and clearCart by user
+        db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS idx_cart_user_product ON " + TABLE_CART +
+                "(" + COL_CART_USER_ID + ", " + COL_CART_PRODUCT_ID + ")");
+        // Order lists and revenue filter by status and a time range, sorted by time
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_orders_status_time ON " + TABLE_ORDERS +
+                "(" + COL_ORDER_STATUS + ", " + COL_ORDER_TIME + ")");
+        // Lines of one order
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_order_items_order ON " + TABLE_ORDER_ITEMS +
+                "(" + COL_ITEM_ORDER_ID + ")");
+        // Per-customer order history
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_orders_user_time ON " + TABLE_ORDERS +
+                "(" + COL_ORDER_USER_ID + ", " + COL_ORDER_TIME + ")");
     }
 
     private void insertSampleProducts(SQLiteDatabase db) {
@@ -124,6 +285,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             values.put(COL_PRODUCT_DESC, product[1]);
             values.put(COL_PRODUCT_PRICE, Double.parseDouble(product[2]));
             values.put(COL_PRODUCT_IMAGE, product[3]);
+            values.put(COL_PRODUCT_SEARCH_KEY, ProductSearchIndex.searchKey(product[0], product[1]));
             db.insert(TABLE_PRODUCTS, null, values);
         }
     }
@@ -181,42 +343,44 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
     // ========== PRODUCT OPERATIONS ==========
 
-    public List<Product> getAllProducts() {
-        List<Product> products = new ArrayList<>();
-        SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.query(TABLE_PRODUCTS, null, null, null, null, null, null);
+    /**
+     * Version of the product catalog, bumped by every product write. Screens that
+     * remember the version they loaded only need to reload when it changes.
+     * Cheap enough for the main thread: it never touches the database.
+     */
+    public long getCatalogVersion() {
+        return catalog.getVersion();
+    }
 
-        while (cursor.moveToNext()) {
-            products.add(new Product(
-                    cursor.getInt(cursor.getColumnIndexOrThrow(COL_PRODUCT_ID)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_PRODUCT_NAME)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_PRODUCT_DESC)),
-                    cursor.getDouble(cursor.getColumnIndexOrThrow(COL_PRODUCT_PRICE)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_PRODUCT_IMAGE))
-            ));
+    public List<Product> getAllProducts() {
+        List<Product> cached = catalog.getAll();
+        if (cached != null) {
+            return cached;
         }
-        cursor.close();
-        return products;
+        long readVersion = catalog.getVersion();
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.query(TABLE_PRODUCTS, PRODUCT_COLUMNS, null, null, null, null, null);
+        List<Product> products = RowMapper.readAll(cursor, new ProductRows(cursor));
+        return catalog.fill(products, readVersion);
     }
 
     public Product getProductById(int id) {
+        Product cached = catalog.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long readVersion = catalog.getVersion();
         SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.query(TABLE_PRODUCTS, null,
+        Cursor cursor = db.query(TABLE_PRODUCTS, PRODUCT_COLUMNS,
                 COL_PRODUCT_ID + " = ?", new String[]{String.valueOf(id)},
                 null, null, null);
 
         Product product = null;
         if (cursor.moveToFirst()) {
-            product = new Product(
-                    cursor.getInt(cursor.getColumnIndexOrThrow(COL_PRODUCT_ID)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_PRODUCT_NAME)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_PRODUCT_DESC)),
-                    cursor.getDouble(cursor.getColumnIndexOrThrow(COL_PRODUCT_PRICE)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_PRODUCT_IMAGE))
-            );
+            product = new ProductRows(cursor).map(cursor);
         }
         cursor.close();
-        return product;
+        return product == null ? null : catalog.share(product, readVersion);
     }
 
     public boolean addProduct(Product product) {
@@ -226,8 +390,14 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(COL_PRODUCT_DESC, product.getDescription());
         values.put(COL_PRODUCT_PRICE, product.getPrice());
         values.put(COL_PRODUCT_IMAGE, product.getImageUrl());
+        values.put(COL_PRODUCT_SEARCH_KEY,
+                ProductSearchIndex.searchKey(product.getName(), product.getDescription()));
 
         long result = db.insert(TABLE_PRODUCTS, null, values);
+        if (result != -1) {
+            catalog.put(new Product((int) result, product.getName(), product.getDescription(),
+                    product.getPrice(), product.getImageUrl()));
+        }
         return result != -1;
     }
 
@@ -238,9 +408,15 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(COL_PRODUCT_DESC, product.getDescription());
         values.put(COL_PRODUCT_PRICE, product.getPrice());
         values.put(COL_PRODUCT_IMAGE, product.getImageUrl());
+        values.put(COL_PRODUCT_SEARCH_KEY,
+                ProductSearchIndex.searchKey(product.getName(), product.getDescription()));
 
         int result = db.update(TABLE_PRODUCTS, values,
                 COL_PRODUCT_ID + " = ?", new String[]{String.valueOf(product.getId())});
+        if (result > 0) {
+            catalog.put(product);
+            cartSummaries.invalidate();
+        }
         return result > 0;
     }
 
@@ -248,65 +424,102 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         SQLiteDatabase db = this.getWritableDatabase();
         int result = db.delete(TABLE_PRODUCTS,
                 COL_PRODUCT_ID + " = ?", new String[]{String.valueOf(productId)});
+        if (result > 0) {
+            catalog.remove(productId);
+            cartSummaries.invalidate();
+        }
         return result > 0;
     }
 
+    /**
+     * Products with a word starting with each word of the query, in the name or
+     * description, best matches first. Case and accents are ignored. A query
+     * without words returns everything.
+     */
     public List<Product> searchProducts(String query) {
-        List<Product> products = new ArrayList<>();
-        SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.query(TABLE_PRODUCTS, null,
-                COL_PRODUCT_NAME + " LIKE ?", new String[]{"%" + query + "%"},
-                null, null, null);
+        return searchProducts(query, null);
+    }
 
+    /**
+     * @param cancellationSignal lets a newer search abort this one, may be null
+     * @throws android.os.OperationCanceledException if cancelled while running
+     */
+    public List<Product> searchProducts(String query, CancellationSignal cancellationSignal) {
+        String match = ProductSearchIndex.toMatchQuery(query);
+        if (match == null) {
+            return getAllProducts();
+        }
+        List<String> queryWords = ProductSearchIndex.words(query);
+        long readVersion = catalog.getVersion();
+        SQLiteDatabase db = getSearchDatabase();
+        String sql = "SELECT p.*, matchinfo(" + ProductSearchIndex.TABLE + ", '" +
+                ProductSearchIndex.MATCHINFO_FORMAT + "') AS match_info" +
+                " FROM " + ProductSearchIndex.TABLE +
+                " INNER JOIN " + TABLE_PRODUCTS + " p ON p." + COL_PRODUCT_ID + " = " +
+                ProductSearchIndex.TABLE + ".docid" +
+                " WHERE " + ProductSearchIndex.TABLE + " MATCH ?";
+        Cursor cursor = db.rawQuery(sql, new String[]{match}, cancellationSignal);
+
+        // FTS4 has no built-in ranking, so score each hit from its matchinfo here
+        SharedProductRows rows = new SharedProductRows(cursor, readVersion);
+        int matchInfo = cursor.getColumnIndexOrThrow("match_info");
+        List<Map.Entry<Product, Double>> hits = new ArrayList<>(cursor.getCount());
         while (cursor.moveToNext()) {
-            products.add(new Product(
-                    cursor.getInt(cursor.getColumnIndexOrThrow(COL_PRODUCT_ID)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_PRODUCT_NAME)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_PRODUCT_DESC)),
-                    cursor.getDouble(cursor.getColumnIndexOrThrow(COL_PRODUCT_PRICE)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_PRODUCT_IMAGE))
-            ));
+            Product product = rows.map(cursor);
+            double score = ProductSearchIndex.score(cursor.getBlob(matchInfo));
+            // Each word adds at most 1 above, so products named after the query
+            // come before ones that only mention it in the description
+            if (ProductSearchIndex.matches(ProductSearchIndex.words(product.getName()), queryWords)) {
+                score += queryWords.size();
+            }
+            hits.add(new AbstractMap.SimpleEntry<>(product, score));
         }
         cursor.close();
+
+        hits.sort((a, b) -> {
+            int byScore = Double.compare(b.getValue(), a.getValue());
+            return byScore != 0 ? byScore : a.getKey().getName().compareToIgnoreCase(b.getKey().getName());
+        });
+        List<Product> products = new ArrayList<>(hits.size());
+        for (Map.Entry<Product, Double> hit : hits) {
+            products.add(hit.getKey());
+        }
         return products;
     }
 
     // ========== CART OPERATIONS ==========
 
+    /**
+     * Adds quantity to the user's cart line for the product, creating it if needed,
+     * in one statement so concurrent taps cannot race into duplicate rows.
+     */
     public boolean addToCart(int userId, int productId, int quantity) {
         SQLiteDatabase db = this.getWritableDatabase();
-
-        Cursor cursor = db.query(TABLE_CART,
-                new String[]{COL_CART_ID, COL_CART_QUANTITY},
-                COL_CART_USER_ID + " = ? AND " + COL_CART_PRODUCT_ID + " = ?",
-                new String[]{String.valueOf(userId), String.valueOf(productId)},
-                null, null, null);
-
-        long result;
-        if (cursor.moveToFirst()) {
-            int cartId = cursor.getInt(cursor.getColumnIndexOrThrow(COL_CART_ID));
-            int currentQty = cursor.getInt(cursor.getColumnIndexOrThrow(COL_CART_QUANTITY));
-
-            ContentValues values = new ContentValues();
-            values.put(COL_CART_QUANTITY, currentQty + quantity);
-            result = db.update(TABLE_CART, values,
-                    COL_CART_ID + " = ?", new String[]{String.valueOf(cartId)});
-        } else {
-            ContentValues values = new ContentValues();
-            values.put(COL_CART_USER_ID, userId);
-            values.put(COL_CART_PRODUCT_ID, productId);
-            values.put(COL_CART_QUANTITY, quantity);
-            result = db.insert(TABLE_CART, null, values);
+        synchronized (statementLock) {
+            if (addToCartStatement == null) {
+                addToCartStatement = db.compileStatement(ADD_TO_CART_SQL);
+            }
+            addToCartStatement.bindLong(1, userId);
+            addToCartStatement.bindLong(2, productId);
+            addToCartStatement.bindLong(3, quantity);
+            long result = addToCartStatement.executeInsert();
+            addToCartStatement.clearBindings();
+            cartSummaries.invalidate();
+            return result != -1;
         }
-        cursor.close();
-        return result != -1;
     }
 
+    /**
+     * The user's cart lines. Each line refers to the catalog's shared Product
+     * rather than a copy of its own.
+     */
     public List<CartItem> getCartItems(int userId) {
-        List<CartItem> cartItems = new ArrayList<>();
+        long readVersion = catalog.getVersion();
         SQLiteDatabase db = this.getReadableDatabase();
 
-        String query = "SELECT c." + COL_CART_ID + ", c." + COL_CART_QUANTITY + ", " +
+        // Both tables call their key "id", and a cursor resolves a repeated name to
+        // its last column, so the cart line's id is read under an alias
+        String query = "SELECT c." + COL_CART_ID + " AS " + CART_LINE_ID + ", c." + COL_CART_QUANTITY + ", " +
                 "p." + COL_PRODUCT_ID + ", p." + COL_PRODUCT_NAME + ", " +
                 "p." + COL_PRODUCT_DESC + ", p." + COL_PRODUCT_PRICE + ", p." + COL_PRODUCT_IMAGE +
                 " FROM " + TABLE_CART + " c " +
@@ -314,23 +527,23 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 " WHERE c." + COL_CART_USER_ID + " = ?";
 
         Cursor cursor = db.rawQuery(query, new String[]{String.valueOf(userId)});
+        return RowMapper.readAll(cursor, new CartItemRows(cursor, readVersion));
+    }
 
-        while (cursor.moveToNext()) {
-            Product product = new Product(
-                    cursor.getInt(cursor.getColumnIndexOrThrow(COL_PRODUCT_ID)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_PRODUCT_NAME)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_PRODUCT_DESC)),
-                    cursor.getDouble(cursor.getColumnIndexOrThrow(COL_PRODUCT_PRICE)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_PRODUCT_IMAGE))
-            );
-            cartItems.add(new CartItem(
-                    cursor.getInt(cursor.getColumnIndexOrThrow(COL_CART_ID)),
-                    product,
-                    cursor.getInt(cursor.getColumnIndexOrThrow(COL_CART_QUANTITY))
-            ));
+    /**
+     * The user's cart lines and their summary, computed from the same rows so the
+     * screen never shows a total from a different read than its lines.
+     */
+    public CartContents getCartContents(int userId) {
+        long readVersion = cartSummaries.getVersion();
+        List<CartItem> items = getCartItems(userId);
+        // A cached summary still describes these rows if no cart write came in between
+        CartSummary summary = cartSummaries.get(userId);
+        if (summary == null || cartSummaries.getVersion() != readVersion) {
+            summary = CartSummary.of(items);
+            cartSummaries.put(userId, summary, readVersion);
         }
-        cursor.close();
-        return cartItems;
+        return new CartContents(items, summary);
     }
 
     public boolean updateCartItemQuantity(int cartId, int quantity) {
@@ -340,6 +553,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
         int result = db.update(TABLE_CART, values,
                 COL_CART_ID + " = ?", new String[]{String.valueOf(cartId)});
+        cartSummaries.invalidate();
         return result > 0;
     }
 
@@ -347,6 +561,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         SQLiteDatabase db = this.getWritableDatabase();
         int result = db.delete(TABLE_CART,
                 COL_CART_ID + " = ?", new String[]{String.valueOf(cartId)});
+        cartSummaries.invalidate();
         return result > 0;
     }
 
@@ -354,33 +569,188 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         SQLiteDatabase db = this.getWritableDatabase();
         int result = db.delete(TABLE_CART,
                 COL_CART_USER_ID + " = ?", new String[]{String.valueOf(userId)});
+        cartSummaries.invalidate();
         return result > 0;
     }
 
+    /**
+     * Line count, unit count and total of the user's cart, summed in SQL with
+     * prices in whole cents. Served from memory until a cart write or a product
+     * write changes it, so badges can ask for it on every resume.
+     */
+    public CartSummary getCartSummary(int userId) {
+        CartSummary cached = cartSummaries.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        long readVersion = cartSummaries.getVersion();
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery("SELECT COUNT(*), COALESCE(SUM(c." + COL_CART_QUANTITY + "), 0), " +
+                "COALESCE(SUM(c." + COL_CART_QUANTITY + " * CAST(ROUND(p." + COL_PRODUCT_PRICE +
+                " * 100) AS INTEGER)), 0) FROM " + TABLE_CART + " c INNER JOIN " + TABLE_PRODUCTS +
+                " p ON c." + COL_CART_PRODUCT_ID + " = p." + COL_PRODUCT_ID +
+                " WHERE c." + COL_CART_USER_ID + " = ?", new String[]{String.valueOf(userId)});
+        CartSummary summary = CartSummary.EMPTY;
+        if (cursor.moveToFirst()) {
+            summary = new CartSummary(cursor.getInt(0), cursor.getInt(1), cursor.getLong(2));
+        }
+        cursor.close();
+        cartSummaries.put(userId, summary, readVersion);
+        return summary;
+    }
+
+    /**
+     * Units in the user's cart for the toolbar badge. Taken from a cached summary
+     * when there is one, otherwise summed from the cart rows alone, since a count
+     * needs no prices.
+     */
+    public int getCartUnitCount(int userId) {
+        CartSummary cached = cartSummaries.get(userId);
+        if (cached != null) {
+            return cached.getUnitCount();
+        }
+        Cursor cursor = getReadableDatabase().rawQuery("SELECT COALESCE(SUM(" + COL_CART_QUANTITY +
+                "), 0) FROM " + TABLE_CART + " WHERE " + COL_CART_USER_ID + " = ?",
+                new String[]{String.valueOf(userId)});
+        int units = cursor.moveToFirst() ? cursor.getInt(0) : 0;
+        cursor.close();
+        return units;
+    }
+
     // ========== ORDER OPERATIONS ==========
 
     public boolean createOrder(int userId, double totalAmount, String status) {
+        return createOrder(userId, totalAmount, status, System.currentTimeMillis());
+    }
+
+    // Tests place orders at chosen times through this
+    boolean createOrder(int userId, double totalAmount, String status, long orderTime) {
         SQLiteDatabase db = this.getWritableDatabase();
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
-        String currentDate = dateFormat.format(new Date());
+        Date now = new Date(orderTime);
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
 
         ContentValues values = new ContentValues();
         values.put(COL_ORDER_USER_ID, userId);
         values.put(COL_ORDER_TOTAL, totalAmount);
-        values.put(COL_ORDER_DATE, currentDate);
+        values.put(COL_ORDER_DATE, dateFormat.format(now));
+        values.put(COL_ORDER_TIME, now.getTime());
         values.put(COL_ORDER_STATUS, status);
 
-        long result = db.insert(TABLE_ORDERS, null, values);
+        long result;
+        db.beginTransaction();
+        try {
+            result = db.insert(TABLE_ORDERS, null, values);
+            if (result != -1 && STATUS_ACCEPTED.equals(status)) {
+                RevenueRollup.add(db, now.getTime(), 1, totalAmount);
+                OrderVolumeRollup.add(db, now.getTime(), 1);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        OrderAnalytics analytics = orderAnalytics;
+        if (result != -1 && analytics != null) {
+            analytics.append((int) result, now.getTime(), totalAmount, userId, status);
+        }
         return result != -1;
     }
 
-    public boolean updateOrderStatus(int orderId, String status) {
+    /**
+     * Turns the user's cart into a pending order in one transaction: the order
+     * total is summed in SQL, the cart lines are copied into order_items with the
+     * current prices, and the cart is cleared. A crash part way leaves nothing behind.
+     *
+     * @return the new order id, or -1 if the cart was empty
+     */
+    public long checkout(int userId) {
         SQLiteDatabase db = this.getWritableDatabase();
-        ContentValues values = new ContentValues();
-        values.put(COL_ORDER_STATUS, status);
+        Date now = new Date();
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
+        String cartLines = " FROM " + TABLE_CART + " c INNER JOIN " + TABLE_PRODUCTS + " p ON c." +
+                COL_CART_PRODUCT_ID + " = p." + COL_PRODUCT_ID + " WHERE c." + COL_CART_USER_ID + " = ?1";
+
+        long orderId;
+        double total;
+        db.beginTransaction();
+        try {
+            // Grouping by user makes an empty cart produce no row instead of a NULL total
+            SQLiteStatement insertOrder = db.compileStatement("INSERT INTO " + TABLE_ORDERS + " (" +
+                    COL_ORDER_USER_ID + ", " + COL_ORDER_TOTAL + ", " + COL_ORDER_DATE + ", " +
+                    COL_ORDER_TIME + ", " + COL_ORDER_STATUS + ") SELECT ?1, SUM(c." + COL_CART_QUANTITY +
+                    " * p." + COL_PRODUCT_PRICE + "), ?2, ?3, 'pending'" + cartLines +
+                    " GROUP BY c." + COL_CART_USER_ID);
+            insertOrder.bindLong(1, userId);
+            insertOrder.bindString(2, dateFormat.format(now));
+            insertOrder.bindLong(3, now.getTime());
+            orderId = insertOrder.executeInsert();
+            insertOrder.close();
+            if (orderId == -1) {
+                return -1;
+            }
+
+            SQLiteStatement insertItems = db.compileStatement("INSERT INTO " + TABLE_ORDER_ITEMS + " (" +
+                    COL_ITEM_ORDER_ID + ", " + COL_ITEM_PRODUCT_ID + ", " + COL_ITEM_QUANTITY + ", " +
+                    COL_ITEM_UNIT_PRICE + ") SELECT ?2, c." + COL_CART_PRODUCT_ID + ", c." +
+                    COL_CART_QUANTITY + ", p." + COL_PRODUCT_PRICE + cartLines);
+            insertItems.bindLong(1, userId);
+            insertItems.bindLong(2, orderId);
+            insertItems.executeUpdateDelete();
+            insertItems.close();
+
+            Cursor cursor = db.rawQuery("SELECT " + COL_ORDER_TOTAL + " FROM " + TABLE_ORDERS +
+                    " WHERE " + COL_ORDER_ID + " = ?", new String[]{String.valueOf(orderId)});
+            total = cursor.moveToFirst() ? cursor.getDouble(0) : 0.0;
+            cursor.close();
+
+            db.delete(TABLE_CART, COL_CART_USER_ID + " = ?", new String[]{String.valueOf(userId)});
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            cartSummaries.invalidate();
+        }
+        OrderAnalytics analytics = orderAnalytics;
+        if (analytics != null) {
+            analytics.append((int) orderId, now.getTime(), total, userId, "pending");
+        }
+        return orderId;
+    }
+
+    public boolean updateOrderStatus(int orderId, String status) {
+        SQLiteDatabase db = getOrderStatusDatabase();
+        int result;
+        db.beginTransaction();
+        try {
+            Cursor cursor = db.rawQuery("SELECT " + COL_ORDER_STATUS + ", " + COL_ORDER_TOTAL + ", " +
+                    COL_ORDER_TIME + " FROM " + TABLE_ORDERS + " WHERE " + COL_ORDER_ID + " = ?",
+                    new String[]{String.valueOf(orderId)});
+            if (!cursor.moveToFirst()) {
+                cursor.close();
+                return false;
+            }
+            boolean wasAccepted = STATUS_ACCEPTED.equals(cursor.getString(0));
+            double total = cursor.getDouble(1);
+            long orderTime = cursor.getLong(2);
+            cursor.close();
 
-        int result = db.update(TABLE_ORDERS, values,
-                COL_ORDER_ID + " = ?", new String[]{String.valueOf(orderId)});
+            ContentValues values = new ContentValues();
+            values.put(COL_ORDER_STATUS, status);
+            result = db.update(TABLE_ORDERS, values,
+                    COL_ORDER_ID + " = ?", new String[]{String.valueOf(orderId)});
+
+            // Only moves into or out of "accepted" change revenue and volume
+            boolean isAccepted = STATUS_ACCEPTED.equals(status);
+            if (result > 0 && wasAccepted != isAccepted) {
+                RevenueRollup.add(db, orderTime, isAccepted ? 1 : -1, isAccepted ? total : -total);
+                OrderVolumeRollup.add(db, orderTime, isAccepted ? 1 : -1);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        OrderAnalytics analytics = orderAnalytics;
+        if (result > 0 && analytics != null) {
+            analytics.setStatus(orderId, status);
+        }
         return result > 0;
     }
 
@@ -389,35 +759,24 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     }
 
     public List<Order> getOrdersByStatus(String status) {
-        List<Order> orders = new ArrayList<>();
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = getOrderTimeDatabase();
 
-        String query = "SELECT o.*, u." + COL_USER_NAME +
+        String query = "SELECT " + ORDER_COLUMNS +
                 " FROM " + TABLE_ORDERS + " o " +
                 "INNER JOIN " + TABLE_USERS + " u ON o." + COL_ORDER_USER_ID + " = u." + COL_USER_ID +
                 " WHERE o." + COL_ORDER_STATUS + " = ? " +
-                "ORDER BY o." + COL_ORDER_DATE + " DESC";
+                "ORDER BY o." + COL_ORDER_TIME + " DESC";
 
         Cursor cursor = db.rawQuery(query, new String[]{status});
-
-        while (cursor.moveToNext()) {
-            orders.add(new Order(
-                    cursor.getInt(cursor.getColumnIndexOrThrow(COL_ORDER_ID)),
-                    cursor.getInt(cursor.getColumnIndexOrThrow(COL_ORDER_USER_ID)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_USER_NAME)),
-                    cursor.getDouble(cursor.getColumnIndexOrThrow(COL_ORDER_TOTAL)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_ORDER_DATE)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_ORDER_STATUS))
-            ));
-        }
-        cursor.close();
-        return orders;
+        return RowMapper.readAll(cursor, new OrderRows(cursor));
     }
 
+    // Revenue totals are read from the revenue_daily rollup, see RevenueRollup
+
     public double getTotalRevenue() {
-        SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.rawQuery("SELECT SUM(" + COL_ORDER_TOTAL + ") FROM " + TABLE_ORDERS +
-                " WHERE " + COL_ORDER_STATUS + " = 'accepted'", null);
+        SQLiteDatabase db = getRollupDatabase();
+        Cursor cursor = db.rawQuery("SELECT SUM(" + RevenueRollup.COL_REVENUE + ") FROM " +
+                RevenueRollup.TABLE, null);
         double total = 0.0;
         if (cursor.moveToFirst()) {
             total = cursor.getDouble(0);
@@ -426,124 +785,338 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         return total;
     }
 
-    public double getRevenueByDate(String date) {
-        SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.rawQuery(
-                "SELECT SUM(" + COL_ORDER_TOTAL + ") FROM " + TABLE_ORDERS +
-                        " WHERE DATE(" + COL_ORDER_DATE + ") = ? AND " + COL_ORDER_STATUS + " = 'accepted'",
-                new String[]{date});
-        double total = 0.0;
+    /**
+     * Revenue, order count and newest orders of an accepted-orders filter, in one
+     * SELECT so an order accepted meanwhile is in all of them or none. A single
+     * statement reads one WAL snapshot on a read connection, without the write
+     * lock a transaction would take. The figures come from revenue_daily as
+     * scalar subqueries on every row, the orders from the index on
+     * (status, order_time); neither reads the whole period's orders.
+     *
+     * @param pageSize orders in the first page, continued with {@link #getOrdersPage}
+     */
+    public RevenueReport getRevenueReport(OrderFilter filter, int pageSize) {
+        SQLiteDatabase db = getRollupDatabase();
+        // Day keys sort as dates, so [from, to) is a range on the rollup's primary key
+        String range = " FROM " + RevenueRollup.TABLE + " WHERE " + RevenueRollup.COL_DAY + " >= ? AND " +
+                RevenueRollup.COL_DAY + " < ?)";
+        String figures = "(SELECT COALESCE(SUM(" + RevenueRollup.COL_ORDER_COUNT + "), 0)" + range +
+                " AS " + REPORT_ORDER_COUNT + ", (SELECT COALESCE(SUM(" + RevenueRollup.COL_REVENUE + "), 0)" +
+                range + " AS " + REPORT_REVENUE + ", ";
+        List<String> args = new ArrayList<>();
+        String from = RevenueRollup.dayKey(filter.getFrom());
+        String to = RevenueRollup.dayKey(filter.getTo());
+        Collections.addAll(args, from, to, from, to);
+
+        Cursor cursor = db.rawQuery(ordersPageQuery(figures, filter, null, false, pageSize, args),
+                args.toArray(new String[0]));
+        // No row means no accepted order in the period, so the figures are zero too
+        int orderCount = 0;
+        double revenue = 0.0;
         if (cursor.moveToFirst()) {
-            total = cursor.getDouble(0);
+            orderCount = cursor.getInt(cursor.getColumnIndexOrThrow(REPORT_ORDER_COUNT));
+            revenue = cursor.getDouble(cursor.getColumnIndexOrThrow(REPORT_REVENUE));
         }
-        cursor.close();
-        return total;
+        cursor.moveToPosition(-1);
+        List<Order> firstPage = RowMapper.readAll(cursor, new OrderRows(cursor));
+        return new RevenueReport(orderCount, revenue, firstPage);
     }
 
-    public double getRevenueByMonth(int year, int month) {
-        SQLiteDatabase db = this.getReadableDatabase();
-        String monthStr = String.format(Locale.getDefault(), "%04d-%02d", year, month);
-        Cursor cursor = db.rawQuery(
-                "SELECT SUM(" + COL_ORDER_TOTAL + ") FROM " + TABLE_ORDERS +
-                        " WHERE strftime('%Y-%m', " + COL_ORDER_DATE + ") = ? AND " +
-                        COL_ORDER_STATUS + " = 'accepted'",
-                new String[]{monthStr});
-        double total = 0.0;
-        if (cursor.moveToFirst()) {
-            total = cursor.getDouble(0);
+    /**
+     * Revenue of the accepted orders in filter's period, one point per bucket in
+     * time order. Buckets without orders are included with zero revenue, so a
+     * year by month is always twelve points. One grouped query over the
+     * revenue_daily range, however many buckets.
+     */
+    public List<RevenuePoint> getRevenueSeries(OrderFilter filter, RevenueBucket bucket) {
+        SQLiteDatabase db = getRollupDatabase();
+        Cursor cursor = db.rawQuery("SELECT " + bucket.startExpression + " AS bucket, SUM(" +
+                        RevenueRollup.COL_ORDER_COUNT + "), SUM(" + RevenueRollup.COL_REVENUE + ") FROM " +
+                        RevenueRollup.TABLE + " WHERE " + RevenueRollup.COL_DAY + " >= ? AND " +
+                        RevenueRollup.COL_DAY + " < ? GROUP BY bucket",
+                new String[]{RevenueRollup.dayKey(filter.getFrom()), RevenueRollup.dayKey(filter.getTo())});
+        // By the day key of each bucket's first day; the start time is set below
+        Map<String, RevenuePoint> found = new HashMap<>();
+        while (cursor.moveToNext()) {
+            found.put(cursor.getString(0), new RevenuePoint(0, cursor.getInt(1), cursor.getDouble(2)));
         }
         cursor.close();
-        return total;
+
+        List<RevenuePoint> series = new ArrayList<>();
+        for (long start = bucket.start(filter.getFrom()); start < filter.getTo(); start = bucket.next(start)) {
+            RevenuePoint point = found.get(RevenueRollup.dayKey(start));
+            series.add(point == null ? new RevenuePoint(start, 0, 0.0)
+                    : new RevenuePoint(start, point.getOrderCount(), point.getRevenue()));
+        }
+        return series;
     }
 
-    public double getRevenueByYear(int year) {
-        SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.rawQuery(
-                "SELECT SUM(" + COL_ORDER_TOTAL + ") FROM " + TABLE_ORDERS +
-                        " WHERE strftime('%Y', " + COL_ORDER_DATE + ") = ? AND " +
-                        COL_ORDER_STATUS + " = 'accepted'",
-                new String[]{String.valueOf(year)});
-        double total = 0.0;
-        if (cursor.moveToFirst()) {
-            total = cursor.getDouble(0);
+    /**
+     * Recomputes revenue_daily from the orders table and checks the result.
+     *
+     * @return true when the rebuilt rollup matches the orders
+     */
+    public boolean rebuildRevenueRollup() {
+        // A build still pending after an upgrade would add its orders on top of the rebuild
+        SQLiteDatabase db = getRollupDatabase();
+        RevenueRollup.rebuild(db);
+        return RevenueRollup.verify(db);
+    }
+
+    /**
+     * @return true when revenue_daily agrees with the accepted orders
+     */
+    public boolean verifyRevenueRollup() {
+        return RevenueRollup.verify(getRollupDatabase());
+    }
+
+    /**
+     * Accepted orders by weekday and hour, read from the order_volume counters.
+     */
+    public OrderHeatmap getOrderHeatmap() {
+        return OrderVolumeRollup.read(getVolumeDatabase());
+    }
+
+    /**
+     * @return true when order_volume agrees with the accepted orders
+     */
+    public boolean verifyOrderVolume() {
+        return OrderVolumeRollup.verify(getVolumeDatabase());
+    }
+
+    /**
+     * The in-memory order columns for admin reports, read from the orders table
+     * on the first call and kept current by every order write after it.
+     */
+    public OrderAnalytics getOrderAnalytics() {
+        OrderAnalytics analytics;
+        synchronized (analyticsLock) {
+            if (orderAnalytics == null) {
+                // Published before loading, so a write committing during the load
+                // is either read by it or applied after it
+                orderAnalytics = new OrderAnalytics();
+            }
+            analytics = orderAnalytics;
         }
-        cursor.close();
-        return total;
+        analytics.load(getOrderTimeDatabase());
+        return analytics;
     }
-    public List<Order> getOrdersByDate(String date) {
-        List<Order> orders = new ArrayList<>();
-        SQLiteDatabase db = this.getReadableDatabase();
-        String query = "SELECT o.*, u." + COL_USER_NAME +
-                " FROM " + TABLE_ORDERS + " o " +
-                "INNER JOIN " + TABLE_USERS + " u ON o." + COL_ORDER_USER_ID + " = u." + COL_USER_ID +
-                " WHERE DATE(o." + COL_ORDER_DATE + ") = ? AND o." + COL_ORDER_STATUS + " = 'accepted'" +
-                " ORDER BY o." + COL_ORDER_DATE + " DESC";
 
-        Cursor cursor = db.rawQuery(query, new String[]{date});
-        while (cursor.moveToNext()) {
-            orders.add(new Order(
-                    cursor.getInt(cursor.getColumnIndexOrThrow(COL_ORDER_ID)),
-                    cursor.getInt(cursor.getColumnIndexOrThrow(COL_ORDER_USER_ID)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_USER_NAME)),
-                    cursor.getDouble(cursor.getColumnIndexOrThrow(COL_ORDER_TOTAL)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_ORDER_DATE)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_ORDER_STATUS))
-            ));
+    /**
+     * Drops the in-memory order columns; the next report reloads them.
+     */
+    public void releaseOrderAnalytics() {
+        synchronized (analyticsLock) {
+            orderAnalytics = null;
+        }
+    }
+
+    /**
+     * One page of the orders matching filter, newest first, keyed on
+     * (order_time, id) rather than an OFFSET so every page is an index range
+     * seek no matter how deep the list is scrolled.
+     *
+     * @param anchor the first or last order already shown, or null for the newest page
+     * @param newer  true for the page just above anchor, false for the page below it
+     */
+    public List<Order> getOrdersPage(OrderFilter filter, Order anchor, boolean newer, int limit) {
+        return queryOrdersPage(getOrderTimeDatabase(), filter, anchor, newer, limit);
+    }
+
+    private List<Order> queryOrdersPage(SQLiteDatabase db, OrderFilter filter, Order anchor,
+                                        boolean newer, int limit) {
+        List<String> args = new ArrayList<>();
+        Cursor cursor = db.rawQuery(ordersPageQuery("", filter, anchor, newer, limit, args),
+                args.toArray(new String[0]));
+        List<Order> orders = RowMapper.readAll(cursor, new OrderRows(cursor));
+        if (newer) {
+            Collections.reverse(orders);
         }
-        cursor.close();
         return orders;
     }
 
-    public List<Order> getOrdersByMonth(int year, int month) {
-        List<Order> orders = new ArrayList<>();
-        SQLiteDatabase db = this.getReadableDatabase();
-        String monthStr = String.format(Locale.getDefault(), "%04d-%02d", year, month);
+    /**
+     * The page query, adding its arguments to args after any already there.
+     *
+     * @param leadingColumns put before the order columns, ending in ", " when not empty
+     */
+    private String ordersPageQuery(String leadingColumns, OrderFilter filter, Order anchor,
+                                   boolean newer, int limit, List<String> args) {
+        String time = "o." + COL_ORDER_TIME;
+        String id = "o." + COL_ORDER_ID;
+        String keyset = "";
+        String direction = newer ? "ASC" : "DESC";
+        args.add(filter.getStatus());
+        args.add(String.valueOf(filter.getFrom()));
+        args.add(String.valueOf(filter.getTo()));
+        if (anchor != null) {
+            // (order_time, id) past the anchor, written so order_time bounds the index range
+            keyset = newer
+                    ? " AND " + time + " >= ? AND (" + time + " > ? OR " + id + " > ?)"
+                    : " AND " + time + " <= ? AND (" + time + " < ? OR " + id + " < ?)";
+            args.add(String.valueOf(anchor.getOrderTime()));
+            args.add(String.valueOf(anchor.getOrderTime()));
+            args.add(String.valueOf(anchor.getId()));
+        }
 
-        String query = "SELECT o.*, u." + COL_USER_NAME +
+        return "SELECT " + leadingColumns + ORDER_COLUMNS +
                 " FROM " + TABLE_ORDERS + " o " +
                 "INNER JOIN " + TABLE_USERS + " u ON o." + COL_ORDER_USER_ID + " = u." + COL_USER_ID +
-                " WHERE strftime('%Y-%m', o." + COL_ORDER_DATE + ") = ? AND o." + COL_ORDER_STATUS + " = 'accepted'" +
-                " ORDER BY o." + COL_ORDER_DATE + " DESC";
+                " WHERE o." + COL_ORDER_STATUS + " = ?" +
+                " AND " + time + " >= ? AND " + time + " < ?" + keyset +
+                " ORDER BY " + time + " " + direction + ", " + id + " " + direction +
+                " LIMIT " + limit;
+    }
 
-        Cursor cursor = db.rawQuery(query, new String[]{monthStr});
-        while (cursor.moveToNext()) {
-            orders.add(new Order(
-                    cursor.getInt(cursor.getColumnIndexOrThrow(COL_ORDER_ID)),
-                    cursor.getInt(cursor.getColumnIndexOrThrow(COL_ORDER_USER_ID)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_USER_NAME)),
-                    cursor.getDouble(cursor.getColumnIndexOrThrow(COL_ORDER_TOTAL)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_ORDER_DATE)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_ORDER_STATUS))
-            ));
+    // ========== ROW MAPPERS ==========
+
+    /**
+     * A new Product for each row.
+     */
+    private static final class ProductRows implements RowMapper<Product> {
+
+        private final int id;
+        private final int name;
+        private final int description;
+        private final int price;
+        private final int imageUrl;
+
+        ProductRows(Cursor cursor) {
+            id = cursor.getColumnIndexOrThrow(COL_PRODUCT_ID);
+            name = cursor.getColumnIndexOrThrow(COL_PRODUCT_NAME);
+            description = cursor.getColumnIndexOrThrow(COL_PRODUCT_DESC);
+            price = cursor.getColumnIndexOrThrow(COL_PRODUCT_PRICE);
+            imageUrl = cursor.getColumnIndexOrThrow(COL_PRODUCT_IMAGE);
+        }
+
+        int getId(Cursor cursor) {
+            return cursor.getInt(id);
+        }
+
+        @Override
+        public Product map(Cursor cursor) {
+            return new Product(cursor.getInt(id), cursor.getString(name), cursor.getString(description),
+                    cursor.getDouble(price), cursor.getString(imageUrl));
         }
-        cursor.close();
-        return orders;
     }
 
-    public List<Order> getOrdersByYear(int year) {
-        List<Order> orders = new ArrayList<>();
-        SQLiteDatabase db = this.getReadableDatabase();
-        String yearStr = String.valueOf(year);
+    /**
+     * The catalog's instance for the product on each row, or one read from the
+     * row (and cached) if the catalog does not have it yet. Only the id is read
+     * for products already in the catalog.
+     */
+    private final class SharedProductRows implements RowMapper<Product> {
 
-        String query = "SELECT o.*, u." + COL_USER_NAME +
-                " FROM " + TABLE_ORDERS + " o " +
-                "INNER JOIN " + TABLE_USERS + " u ON o." + COL_ORDER_USER_ID + " = u." + COL_USER_ID +
-                " WHERE strftime('%Y', o." + COL_ORDER_DATE + ") = ? AND o." + COL_ORDER_STATUS + " = 'accepted'" +
-                " ORDER BY o." + COL_ORDER_DATE + " DESC";
+        private final ProductRows products;
+        private final long readVersion;
 
-        Cursor cursor = db.rawQuery(query, new String[]{yearStr});
-        while (cursor.moveToNext()) {
-            orders.add(new Order(
-                    cursor.getInt(cursor.getColumnIndexOrThrow(COL_ORDER_ID)),
-                    cursor.getInt(cursor.getColumnIndexOrThrow(COL_ORDER_USER_ID)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_USER_NAME)),
-                    cursor.getDouble(cursor.getColumnIndexOrThrow(COL_ORDER_TOTAL)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_ORDER_DATE)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_ORDER_STATUS))
-            ));
+        SharedProductRows(Cursor cursor, long readVersion) {
+            this.products = new ProductRows(cursor);
+            this.readVersion = readVersion;
+        }
+
+        @Override
+        public Product map(Cursor cursor) {
+            Product cached = catalog.get(products.getId(cursor));
+            return cached != null ? cached : catalog.share(products.map(cursor), readVersion);
         }
-        cursor.close();
-        return orders;
     }
 
-}
\ No newline at end of file
+    private final class CartItemRows implements RowMapper<CartItem> {
+
+        private final SharedProductRows products;
+        private final int cartId;
+        private final int quantity;
+
+        CartItemRows(Cursor cursor, long readVersion) {
+            products = new SharedProductRows(cursor, readVersion);
+            cartId = cursor.getColumnIndexOrThrow(CART_LINE_ID);
+            quantity = cursor.getColumnIndexOrThrow(COL_CART_QUANTITY);
+        }
+
+        @Override
+        public CartItem map(Cursor cursor) {
+            return new CartItem(cursor.getInt(cartId), products.map(cursor), cursor.getInt(quantity));
+        }
+    }
+
+    /**
+     * Orders selected with {@link #ORDER_COLUMNS}.
+     */
+    private static final class OrderRows implements RowMapper<Order> {
+
+        private final int id;
+        private final int userId;
+        private final int userName;
+        private final int total;
+        private final int time;
+        private final int status;
+
+        OrderRows(Cursor cursor) {
+            id = cursor.getColumnIndexOrThrow(COL_ORDER_ID);
+            userId = cursor.getColumnIndexOrThrow(COL_ORDER_USER_ID);
+            userName = cursor.getColumnIndexOrThrow(COL_USER_NAME);
+            total = cursor.getColumnIndexOrThrow(COL_ORDER_TOTAL);
+            time = cursor.getColumnIndexOrThrow(COL_ORDER_TIME);
+            status = cursor.getColumnIndexOrThrow(COL_ORDER_STATUS);
+        }
+
+        @Override
+        public Order map(Cursor cursor) {
+            return new Order(cursor.getInt(id), cursor.getInt(userId), cursor.getString(userName),
+                    cursor.getDouble(total), cursor.getLong(time), cursor.getString(status));
+        }
+    }
+
+    /**
+     * Database for queries on order_time. On a device upgraded from version 2 the
+     * column may still be backfilling, so finish that first (this runs on a
+     * repository worker, never the main thread).
+     */
+    private SQLiteDatabase getOrderTimeDatabase() {
+        SQLiteDatabase db = getWritableDatabase();
+        backgroundMigrations.ensureComplete(db, V3OrderTimestamps.BACKFILL);
+        return db;
+    }
+
+    /**
+     * Database for revenue_daily reads. After an upgrade the rollup is filled in
+     * the background, so build it now if that has not happened yet.
+     */
+    private SQLiteDatabase getRollupDatabase() {
+        SQLiteDatabase db = getOrderTimeDatabase();
+        backgroundMigrations.ensureComplete(db, V4RevenueRollup.BUILD);
+        return db;
+    }
+
+    /**
+     * Database for changing an order's status. The rollups take the change as a
+     * delta, so a build still adding the existing orders must finish first or
+     * the order could be counted twice.
+     */
+    private SQLiteDatabase getOrderStatusDatabase() {
+        SQLiteDatabase db = getRollupDatabase();
+        backgroundMigrations.ensureComplete(db, V9OrderVolume.BUILD);
+        return db;
+    }
+
+    /**
+     * Database for order_volume reads. After an upgrade the counters are filled
+     * in the background, so count them now if that has not happened yet.
+     */
+    private SQLiteDatabase getVolumeDatabase() {
+        SQLiteDatabase db = getOrderTimeDatabase();
+        backgroundMigrations.ensureComplete(db, V9OrderVolume.BUILD);
+        return db;
+    }
+
+    /**
+     * Database for products_fts reads. After an upgrade the search keys of the
+     * existing catalog are filled in the background, so do that now if needed.
+     */
+    private SQLiteDatabase getSearchDatabase() {
+        SQLiteDatabase db = getWritableDatabase();
+        backgroundMigrations.ensureComplete(db, V8ProductSearchKeys.BACKFILL);
+        return db;
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.coffeeshop.database;
+
+import com.example.coffeeshop.models.Product;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory trigram index over the folded words of a product list, for finding
+ * products despite typos. A query word matches a product word when it is within a
+ * few edits of the start of it, so "capucino" and "cpapuc" both find "cappuccino".
+ * Build once per catalog load off the main thread; lookups are read-only and may
+ * run on any thread.
+ */
+final class FuzzyProductIndex {
+
+    // Marks the start of a word so leading letters get their own trigrams
+    private static final String PAD = "$$";
+
+    private final List<Product> products;
+    private final List<List<String>> productWords = new ArrayList<>();
+    private final Map<Integer, Integer> indexById = new HashMap<>();
+    private final List<String> vocabulary = new ArrayList<>();
+    // For each vocabulary word, the products (by list position) that contain it
+    private final List<int[]> wordProducts = new ArrayList<>();
+    // For each trigram, the vocabulary words containing it
+    private final Map<String, int[]> gramWords = new HashMap<>();
+
+    FuzzyProductIndex(List<Product> products) {
+        this.products = new ArrayList<>(products);
+        Map<String, Integer> wordIds = new HashMap<>();
+        List<IntList> postings = new ArrayList<>();
+        for (int i = 0; i < this.products.size(); i++) {
+            Product product = this.products.get(i);
+            indexById.put(product.getId(), i);
+            List<String> words = ProductSearchIndex.words(product.getDescription() == null
+                    ? product.getName() : product.getName() + " " + product.getDescription());
+            productWords.add(words);
+            for (String word : new LinkedHashSet<>(words)) {
+                Integer wordId = wordIds.get(word);
+                if (wordId == null) {
+                    wordId = vocabulary.size();
+                    wordIds.put(word, wordId);
+                    vocabulary.add(word);
+                    postings.add(new IntList());
+                }
+                postings.get(wordId).add(i);
+            }
+        }
+        for (IntList posting : postings) {
+            wordProducts.add(posting.toArray());
+        }
+
+        Map<String, IntList> grams = new HashMap<>();
+        for (int wordId = 0; wordId < vocabulary.size(); wordId++) {
+            for (String gram : trigrams(vocabulary.get(wordId))) {
+                IntList words = grams.get(gram);
+                if (words == null) {
+                    words = new IntList();
+                    grams.put(gram, words);
+                }
+                words.add(wordId);
+            }
+        }
+        for (Map.Entry<String, IntList> entry : grams.entrySet()) {
+            gramWords.put(entry.getKey(), entry.getValue().toArray());
+        }
+    }
+
+    /**
+     * The folded words of a product in this index, or null if it is not in it.
+     */
+    List<String> wordsOf(int productId) {
+        Integer index = indexById.get(productId);
+        return index == null ? null : productWords.get(index);
+    }
+
+    /**
+     * Products where every query word is within {@link #maxEdits} of the start of
+     * one of their words, closest first.
+     *
+     * @param queryWords folded words, from {@link ProductSearchIndex#words}
+     */
+    List<Product> search(List<String> queryWords) {
+        if (queryWords.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // Sum of the best distance of each query word, per product position
+        Map<Integer, Integer> distances = null;
+        for (String queryWord : queryWords) {
+            Map<Integer, Integer> matches = productsNear(queryWord);
+            if (distances == null) {
+                distances = matches;
+            } else {
+                Map<Integer, Integer> both = new HashMap<>();
+                for (Map.Entry<Integer, Integer> entry : distances.entrySet()) {
+                    Integer distance = matches.get(entry.getKey());
+                    if (distance != null) {
+                        both.put(entry.getKey(), entry.getValue() + distance);
+                    }
+                }
+                distances = both;
+            }
+            if (distances.isEmpty()) {
+                return new ArrayList<>();
+            }
+        }
+
+        List<Map.Entry<Integer, Integer>> ranked = new ArrayList<>(distances.entrySet());
+        ranked.sort((a, b) -> {
+            int byDistance = Integer.compare(a.getValue(), b.getValue());
+            return byDistance != 0 ? byDistance : products.get(a.getKey()).getName()
+                    .compareToIgnoreCase(products.get(b.getKey()).getName());
+        });
+        List<Product> results = new ArrayList<>(ranked.size());
+        for (Map.Entry<Integer, Integer> entry : ranked) {
+            results.add(products.get(entry.getKey()));
+        }
+        return results;
+    }
+
+    /**
+     * Edits allowed for a query word: none for short words, where one edit would
+     * match almost anything, then one, then two from eight letters on.
+     */
+    static int maxEdits(int length) {
+        return length < 4 ? 0 : length < 8 ? 1 : 2;
+    }
+
+    /** Product positions with a word near queryWord, and the best distance for each. */
+    private Map<Integer, Integer> productsNear(String queryWord) {
+        int edits = maxEdits(queryWord.length());
+        Set<String> queryGrams = new LinkedHashSet<>(trigrams(queryWord));
+        // An edit changes at most three trigrams (a swap four), so a word whose
+        // start is within that many edits still shares the rest with the query
+        int required = Math.max(1, queryGrams.size() - 4 * edits);
+        int[] shared = new int[vocabulary.size()];
+        IntList candidates = new IntList();
+        for (String gram : queryGrams) {
+            int[] words = gramWords.get(gram);
+            if (words == null) {
+                continue;
+            }
+            for (int wordId : words) {
+                if (shared[wordId]++ == 0) {
+                    candidates.add(wordId);
+                }
+            }
+        }
+
+        Map<Integer, Integer> matches = new HashMap<>();
+        for (int i = 0; i < candidates.size; i++) {
+            int wordId = candidates.values[i];
+            if (shared[wordId] < required) {
+                continue;
+            }
+            int distance = prefixDistance(queryWord, vocabulary.get(wordId), edits);
+            if (distance > edits) {
+                continue;
+            }
+            for (int product : wordProducts.get(wordId)) {
+                Integer best = matches.get(product);
+                if (best == null || distance < best) {
+                    matches.put(product, distance);
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Smallest edit distance between query and any prefix of word, counting a
+     * swap of two neighbouring letters as one edit, or max + 1 once it is certain
+     * to exceed max.
+     */
+    static int prefixDistance(String query, String word, int max) {
+        int n = Math.min(word.length(), query.length() + max);
+        int[] beforePrevious = new int[n + 1];
+        int[] previous = new int[n + 1];
+        int[] current = new int[n + 1];
+        for (int j = 0; j <= n; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= query.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= n; j++) {
+                char q = query.charAt(i - 1);
+                char w = word.charAt(j - 1);
+                int distance = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1),
+                        previous[j - 1] + (q == w ? 0 : 1));
+                if (i > 1 && j > 1 && q == word.charAt(j - 2) && query.charAt(i - 2) == w) {
+                    distance = Math.min(distance, beforePrevious[j - 2] + 1);
+                }
+                current[j] = distance;
+                rowMin = Math.min(rowMin, distance);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        int best = previous[0];
+        for (int j = 1; j <= n; j++) {
+            best = Math.min(best, previous[j]);
+        }
+        return Math.min(best, max + 1);
+    }
+
+    private static List<String> trigrams(String word) {
+        String padded = PAD + word;
+        List<String> grams = new ArrayList<>(word.length());
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /** Growable int array, to keep the postings unboxed. */
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.example.coffeeshop.database;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import com.example.coffeeshop.models.CustomerTotal;
+import com.example.coffeeshop.models.RevenuePoint;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Every order held in memory as columns of primitives (id, order_time, total,
+ * user_id, status), for admin reports the rollups don't cover. Queries scan the
+ * columns in parallel slices on the common fork-join pool instead of running a
+ * GROUP BY over the orders table.
+ * <p>
+ * Nothing is held until {@link DatabaseHelper#getOrderAnalytics()} is first
+ * called. From then on the helper applies every committed order write here, so
+ * the columns stay current without reloading.
+ */
+public final class OrderAnalytics {
+
+    // Scans split into slices of at most this many orders
+    static final int DEFAULT_SLICE = 64 * 1024;
+    private static final int INITIAL_CAPACITY = 1024;
+    // A Java array header, counted once per column
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int BYTES_PER_ORDER = Integer.BYTES + Long.BYTES + Double.BYTES
+            + Integer.BYTES + Byte.BYTES;
+
+    private final ForkJoinPool pool;
+    private final int slice;
+    // Status strings in the order first seen; a status column byte indexes this
+    private final List<String> statusNames = new ArrayList<>();
+
+    private boolean loaded;
+    private int size;
+    private int maxUserId;
+    // Ascending, since order ids only grow, so an id is found by binary search
+    private int[] ids = new int[0];
+    private long[] times = new long[0];
+    private double[] totals = new double[0];
+    private int[] userIds = new int[0];
+    private byte[] statuses = new byte[0];
+
+    OrderAnalytics() {
+        this(ForkJoinPool.commonPool(), DEFAULT_SLICE);
+    }
+
+    OrderAnalytics(ForkJoinPool pool, int slice) {
+        this.pool = pool;
+        this.slice = slice;
+    }
+
+    /**
+     * Reads every order once. Writes committed before the load are in what it
+     * reads; writes applied while it runs wait for it and are then replayed.
+     */
+    synchronized void load(SQLiteDatabase db) {
+        if (loaded) {
+            return;
+        }
+        Cursor cursor = db.rawQuery("SELECT id, order_time, total_amount, user_id, status " +
+                "FROM orders ORDER BY id", null);
+        ensureCapacity(Math.max(INITIAL_CAPACITY, cursor.getCount()));
+        while (cursor.moveToNext()) {
+            put(cursor.getInt(0), cursor.getLong(1), cursor.getDouble(2), cursor.getInt(3),
+                    cursor.getString(4));
+        }
+        cursor.close();
+        loaded = true;
+    }
+
+    /**
+     * Adds an order. Call after the insert has committed.
+     */
+    synchronized void append(int id, long time, double total, int userId, String status) {
+        // Before the load, or already read by it
+        if (!loaded || (size > 0 && id <= ids[size - 1])) {
+            return;
+        }
+        ensureCapacity(size + 1);
+        put(id, time, total, userId, status);
+    }
+
+    /**
+     * Changes the status of an order. Call after the update has committed.
+     */
+    synchronized void setStatus(int id, String status) {
+        int index = loaded ? Arrays.binarySearch(ids, 0, size, id) : -1;
+        if (index >= 0) {
+            statuses[index] = statusCode(status);
+        }
+    }
+
+    public synchronized int getSize() {
+        return size;
+    }
+
+    /**
+     * Bytes held by the columns, including the unused capacity at their ends.
+     */
+    public synchronized long getMemoryBytes() {
+        return (long) ids.length * BYTES_PER_ORDER + 5L * ARRAY_HEADER_BYTES;
+    }
+
+    /**
+     * Orders matching filter and their revenue, as one point starting at the
+     * filter's start.
+     */
+    public synchronized RevenuePoint getTotals(OrderFilter filter) {
+        double[] sums = scan(2, matcher(filter), (index, into) -> {
+            into[0]++;
+            into[1] += totals[index];
+        });
+        return new RevenuePoint(filter.getFrom(), (int) sums[0], sums[1]);
+    }
+
+    public synchronized double getAverageTicket(OrderFilter filter) {
+        RevenuePoint period = getTotals(filter);
+        return period.getOrderCount() == 0 ? 0.0 : period.getRevenue() / period.getOrderCount();
+    }
+
+    /**
+     * The same series as {@link DatabaseHelper#getRevenueSeries}, counted from
+     * the orders matching filter rather than the daily rollup.
+     */
+    public synchronized List<RevenuePoint> getRevenueSeries(OrderFilter filter, RevenueBucket bucket) {
+        List<Long> startList = new ArrayList<>();
+        for (long start = bucket.start(filter.getFrom()); start < filter.getTo(); start = bucket.next(start)) {
+            startList.add(start);
+        }
+        long[] starts = new long[startList.size()];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = startList.get(i);
+        }
+
+        double[] sums = scan(starts.length * 2, matcher(filter), (index, into) -> {
+            int found = Arrays.binarySearch(starts, times[index]);
+            // Not an exact start: the bucket is the one before the insertion point
+            int bucketIndex = found >= 0 ? found : -found - 2;
+            into[bucketIndex * 2]++;
+            into[bucketIndex * 2 + 1] += totals[index];
+        });
+
+        List<RevenuePoint> series = new ArrayList<>(starts.length);
+        for (int i = 0; i < starts.length; i++) {
+            series.add(new RevenuePoint(starts[i], (int) sums[i * 2], sums[i * 2 + 1]));
+        }
+        return series;
+    }
+
+    /**
+     * The customers with the most revenue among the orders matching filter,
+     * highest first.
+     */
+    public synchronized List<CustomerTotal> getTopCustomers(OrderFilter filter, int limit) {
+        // User ids are small and dense, so each slice sums into arrays indexed by them
+        double[] sums = scan((maxUserId + 1) * 2, matcher(filter), (index, into) -> {
+            into[userIds[index] * 2]++;
+            into[userIds[index] * 2 + 1] += totals[index];
+        });
+
+        PriorityQueue<CustomerTotal> top = new PriorityQueue<>(Math.max(1, limit),
+                (a, b) -> Double.compare(a.getRevenue(), b.getRevenue()));
+        for (int userId = 0; userId <= maxUserId && limit > 0; userId++) {
+            if (sums[userId * 2] == 0) {
+                continue;
+            }
+            top.add(new CustomerTotal(userId, (int) sums[userId * 2], sums[userId * 2 + 1]));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<CustomerTotal> result = new ArrayList<>(top);
+        Collections.sort(result, (a, b) -> Double.compare(b.getRevenue(), a.getRevenue()));
+        return result;
+    }
+
+    // Called with the lock held, so the columns can't change during a scan
+    private double[] scan(int width, Matcher matcher, Accumulator accumulator) {
+        if (width == 0) {
+            return new double[0];
+        }
+        return pool.invoke(new Scan(0, size, width, slice, (from, to, into) -> {
+            for (int i = from; i < to; i++) {
+                if (matcher.matches(i)) {
+                    accumulator.add(i, into);
+                }
+            }
+        }));
+    }
+
+    private Matcher matcher(OrderFilter filter) {
+        int code = statusNames.indexOf(filter.getStatus());
+        if (code < 0) {
+            return index -> false;
+        }
+        byte status = (byte) code;
+        long from = filter.getFrom();
+        long to = filter.getTo();
+        return index -> statuses[index] == status && times[index] >= from && times[index] < to;
+    }
+
+    private void put(int id, long time, double total, int userId, String status) {
+        ids[size] = id;
+        times[size] = time;
+        totals[size] = total;
+        userIds[size] = userId;
+        statuses[size] = statusCode(status);
+        maxUserId = Math.max(maxUserId, userId);
+        size++;
+    }
+
+    private byte statusCode(String status) {
+        int code = statusNames.indexOf(status);
+        if (code < 0) {
+            statusNames.add(status);
+            code = statusNames.size() - 1;
+        }
+        return (byte) code;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int grown = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, grown);
+        times = Arrays.copyOf(times, grown);
+        totals = Arrays.copyOf(totals, grown);
+        userIds = Arrays.copyOf(userIds, grown);
+        statuses = Arrays.copyOf(statuses, grown);
+    }
+
+    private interface Matcher {
+        boolean matches(int index);
+    }
+
+    private interface Accumulator {
+        void add(int index, double[] into);
+    }
+
+    private interface Slice {
+        void scan(int from, int to, double[] into);
+    }
+
+    /**
+     * Sums a slice into a fresh array of width values, splitting large slices in
+     * two and adding the halves.
+     */
+    private static final class Scan extends RecursiveTask<double[]> {
+
+        private final int from;
+        private final int to;
+        private final int width;
+        private final int sliceSize;
+        private final Slice slice;
+
+        Scan(int from, int to, int width, int sliceSize, Slice slice) {
+            this.from = from;
+            this.to = to;
+            this.width = width;
+            this.sliceSize = sliceSize;
+            this.slice = slice;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from <= sliceSize) {
+                double[] into = new double[width];
+                slice.scan(from, to, into);
+                return into;
+            }
+            int middle = (from + to) >>> 1;
+            Scan left = new Scan(from, middle, width, sliceSize, slice);
+            left.fork();
+            double[] right = new Scan(middle, to, width, sliceSize, slice).compute();
+            double[] sums = left.join();
+            for (int i = 0; i < width; i++) {
+                sums[i] += right[i];
+            }
+            return sums;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.coffeeshop.database;
+
+import java.util.Calendar;
+
+/**
+ * Which orders a list or revenue figure covers: one status and a half-open
+ * [from, to) range of order_time, with calendar periods in local time.
+ */
+public final class OrderFilter {
+
+    private final String status;
+    private final long from;
+    private final long to;
+
+    private OrderFilter(String status, long from, long to) {
+        this.status = status;
+        this.from = from;
+        this.to = to;
+    }
+
+    public static OrderFilter pending() {
+        return new OrderFilter("pending", Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param date local day as yyyy-MM-dd
+     */
+    public static OrderFilter acceptedOn(String date) {
+        String[] parts = date.split("-");
+        long start = localTime(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]) - 1,
+                Integer.parseInt(parts[2]));
+        return accepted(start, Calendar.DAY_OF_MONTH);
+    }
+
+    /**
+     * @param month 1-based month
+     */
+    public static OrderFilter acceptedInMonth(int year, int month) {
+        return accepted(localTime(year, month - 1, 1), Calendar.MONTH);
+    }
+
+    public static OrderFilter acceptedInYear(int year) {
+        return accepted(localTime(year, Calendar.JANUARY, 1), Calendar.YEAR);
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public long getFrom() {
+        return from;
+    }
+
+    public long getTo() {
+        return to;
+    }
+
+    private static OrderFilter accepted(long start, int periodField) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(start);
+        calendar.add(periodField, 1);
+        return new OrderFilter("accepted", start, calendar.getTimeInMillis());
+    }
+
+    private static long localTime(int year, int month, int day) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(year, month, day);
+        return calendar.getTimeInMillis();
+    }
+}
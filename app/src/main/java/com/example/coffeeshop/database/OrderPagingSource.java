@@ -0,0 +1,188 @@
+package com.example.coffeeshop.database;
+
+import com.example.coffeeshop.models.Order;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A scrolling window over the orders matching one filter. Pages are fetched
+ * through the repository as the visible range nears either end of the window,
+ * and pages far from the viewport are dropped again, so at most maxLoaded
+ * orders are held however many match. Call from the main thread only.
+ */
+public class OrderPagingSource {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int DEFAULT_MAX_PAGES = 4;
+
+    public interface Listener {
+        void onItemsInserted(int position, int count);
+        void onItemsRemoved(int position, int count);
+        void onReset();
+    }
+
+    private final CoffeeShopRepository repository;
+    private final OrderFilter filter;
+    private final int pageSize;
+    private final int maxLoaded;
+    private final int prefetchDistance;
+    private final List<Order> window = new ArrayList<>();
+
+    private Listener listener;
+    private Runnable onFirstPage;
+    private boolean hasNewer;
+    private boolean hasOlder = true;
+    private boolean loading;
+    // Bumped by refresh so pages requested for the old window are ignored
+    private int generation;
+
+    public OrderPagingSource(CoffeeShopRepository repository, OrderFilter filter) {
+        this(repository, filter, DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES);
+    }
+
+    public OrderPagingSource(CoffeeShopRepository repository, OrderFilter filter,
+                             int pageSize, int maxPages) {
+        this.repository = repository;
+        this.filter = filter;
+        this.pageSize = pageSize;
+        this.maxLoaded = pageSize * maxPages;
+        this.prefetchDistance = pageSize / 3;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public int size() {
+        return window.size();
+    }
+
+    public Order get(int position) {
+        return window.get(position);
+    }
+
+    /**
+     * Drops everything loaded and fetches the newest page again.
+     *
+     * @param onFirstPage run once that page has arrived, may be null
+     */
+    public void refresh(Runnable onFirstPage) {
+        generation++;
+        window.clear();
+        hasNewer = false;
+        hasOlder = true;
+        loading = false;
+        this.onFirstPage = onFirstPage;
+        if (listener != null) {
+            listener.onReset();
+        }
+        loadOlder();
+    }
+
+    /**
+     * Drops everything loaded and starts again from a newest page the caller
+     * already has, such as the one in a {@link com.example.coffeeshop.models.RevenueReport}.
+     * It must have been read with this source's page size.
+     */
+    public void start(List<Order> firstPage) {
+        generation++;
+        window.clear();
+        hasNewer = false;
+        hasOlder = firstPage.size() == pageSize;
+        loading = false;
+        onFirstPage = null;
+        if (listener != null) {
+            listener.onReset();
+        }
+        window.addAll(firstPage);
+        notifyInserted(0, firstPage.size());
+    }
+
+    /**
+     * Tells the source which window positions are on screen.
+     */
+    public void onVisibleRange(int first, int last) {
+        if (first < 0 || last < first) {
+            return;
+        }
+        // A viewport nearly as tall as the window (e.g. a list measured at full
+        // height) would make the two ends evict each other forever
+        if (last - first + 1 >= maxLoaded - pageSize) {
+            return;
+        }
+        if (last >= window.size() - 1 - prefetchDistance) {
+            loadOlder();
+        } else if (first <= prefetchDistance) {
+            loadNewer();
+        }
+    }
+
+    private void loadOlder() {
+        if (loading || !hasOlder) {
+            return;
+        }
+        loading = true;
+        int requested = generation;
+        Order anchor = window.isEmpty() ? null : window.get(window.size() - 1);
+        repository.getOrdersPage(filter, anchor, false, pageSize, page -> {
+            if (requested != generation) {
+                return;
+            }
+            loading = false;
+            hasOlder = page.size() == pageSize;
+            int start = window.size();
+            window.addAll(page);
+            notifyInserted(start, page.size());
+            if (window.size() > maxLoaded) {
+                int excess = window.size() - maxLoaded;
+                window.subList(0, excess).clear();
+                hasNewer = true;
+                notifyRemoved(0, excess);
+            }
+            firstPageLoaded();
+        });
+    }
+
+    private void loadNewer() {
+        if (loading || !hasNewer || window.isEmpty()) {
+            return;
+        }
+        loading = true;
+        int requested = generation;
+        repository.getOrdersPage(filter, window.get(0), true, pageSize, page -> {
+            if (requested != generation) {
+                return;
+            }
+            loading = false;
+            hasNewer = page.size() == pageSize;
+            window.addAll(0, page);
+            notifyInserted(0, page.size());
+            if (window.size() > maxLoaded) {
+                int excess = window.size() - maxLoaded;
+                window.subList(maxLoaded, window.size()).clear();
+                hasOlder = true;
+                notifyRemoved(maxLoaded, excess);
+            }
+        });
+    }
+
+    private void notifyInserted(int position, int count) {
+        if (listener != null && count > 0) {
+            listener.onItemsInserted(position, count);
+        }
+    }
+
+    private void notifyRemoved(int position, int count) {
+        if (listener != null && count > 0) {
+            listener.onItemsRemoved(position, count);
+        }
+    }
+
+    private void firstPageLoaded() {
+        if (onFirstPage != null) {
+            Runnable callback = onFirstPage;
+            onFirstPage = null;
+            callback.run();
+        }
+    }
+}
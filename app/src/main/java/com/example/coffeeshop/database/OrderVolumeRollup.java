@@ -0,0 +1,124 @@
+package com.example.coffeeshop.database;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+import com.example.coffeeshop.models.OrderHeatmap;
+import java.util.Calendar;
+
+/**
+ * order_volume holds the number of accepted orders for each local weekday and
+ * hour, 7 x 24 rows created up front. Order writes bump one row inside their own
+ * transaction, so the heatmap reads 168 rows instead of the order history.
+ */
+public final class OrderVolumeRollup {
+
+    private static final String TAG = "OrderVolumeRollup";
+
+    static final String TABLE = "order_volume";
+    static final String COL_WEEKDAY = "weekday"; // 0 is Monday, 6 is Sunday
+    static final String COL_HOUR = "hour"; // local hour, 0 to 23
+    static final String COL_ORDER_COUNT = "order_count";
+
+    // The same cell in SQL: strftime numbers Sunday as 0, the heatmap starts on Monday
+    private static final String ORDER_LOCAL_TIME = "order_time / 1000, 'unixepoch', 'localtime'";
+    private static final String ORDER_WEEKDAY =
+            "(CAST(strftime('%w', " + ORDER_LOCAL_TIME + ") AS INTEGER) + 6) % 7";
+    private static final String ORDER_HOUR = "CAST(strftime('%H', " + ORDER_LOCAL_TIME + ") AS INTEGER)";
+
+    private OrderVolumeRollup() {}
+
+    public static void createTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE + " (" +
+                COL_WEEKDAY + " INTEGER NOT NULL, " +
+                COL_HOUR + " INTEGER NOT NULL, " +
+                COL_ORDER_COUNT + " INTEGER NOT NULL, " +
+                "PRIMARY KEY (" + COL_WEEKDAY + ", " + COL_HOUR + "))");
+        // Every cell exists from the start, so counting an order is a single UPDATE
+        for (int weekday = 0; weekday < OrderHeatmap.DAYS; weekday++) {
+            for (int hour = 0; hour < OrderHeatmap.HOURS; hour++) {
+                db.execSQL("INSERT OR IGNORE INTO " + TABLE + " (" + COL_WEEKDAY + ", " + COL_HOUR +
+                        ", " + COL_ORDER_COUNT + ") VALUES (?, ?, 0)", new Object[]{weekday, hour});
+            }
+        }
+    }
+
+    /**
+     * Adds (or with a negative value removes) accepted orders to the weekday and
+     * hour of orderTime. Must run in the transaction that changed the order.
+     */
+    static void add(SQLiteDatabase db, long orderTime, int orders) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(orderTime);
+        db.execSQL("UPDATE " + TABLE + " SET " + COL_ORDER_COUNT + " = " + COL_ORDER_COUNT +
+                " + ? WHERE " + COL_WEEKDAY + " = ? AND " + COL_HOUR + " = ?",
+                new Object[]{orders, weekday(calendar), calendar.get(Calendar.HOUR_OF_DAY)});
+    }
+
+    static OrderHeatmap read(SQLiteDatabase db) {
+        int[][] counts = new int[OrderHeatmap.DAYS][OrderHeatmap.HOURS];
+        Cursor cursor = db.rawQuery("SELECT " + COL_WEEKDAY + ", " + COL_HOUR + ", " +
+                COL_ORDER_COUNT + " FROM " + TABLE, null);
+        while (cursor.moveToNext()) {
+            counts[cursor.getInt(0)][cursor.getInt(1)] = cursor.getInt(2);
+        }
+        cursor.close();
+        return new OrderHeatmap(counts);
+    }
+
+    /**
+     * Adds the accepted orders with afterId &lt; id &lt;= lastId, counted per cell in
+     * SQL and written in one pass.
+     */
+    public static void addOrders(SQLiteDatabase db, long afterId, long lastId) {
+        db.execSQL("INSERT OR REPLACE INTO " + TABLE + " (" + COL_WEEKDAY + ", " + COL_HOUR + ", " +
+                COL_ORDER_COUNT + ") SELECT v." + COL_WEEKDAY + ", v." + COL_HOUR + ", v." +
+                COL_ORDER_COUNT + " + c.orders FROM " + TABLE + " v JOIN (" +
+                countOrders("id > ? AND id <= ? AND ") + ") c ON c.weekday = v." + COL_WEEKDAY +
+                " AND c.hour = v." + COL_HOUR, new Object[]{afterId, lastId});
+    }
+
+    /**
+     * Replaces the counts with ones recomputed from the orders table, in one
+     * statement that also zeroes the cells without orders.
+     */
+    public static void rebuild(SQLiteDatabase db) {
+        db.execSQL("INSERT OR REPLACE INTO " + TABLE + " (" + COL_WEEKDAY + ", " + COL_HOUR + ", " +
+                COL_ORDER_COUNT + ") SELECT v." + COL_WEEKDAY + ", v." + COL_HOUR +
+                ", COALESCE(c.orders, 0) FROM " + TABLE + " v LEFT JOIN (" + countOrders("") +
+                ") c ON c.weekday = v." + COL_WEEKDAY + " AND c.hour = v." + COL_HOUR);
+    }
+
+    /**
+     * Compares every cell with a recomputation from the orders table. One SELECT
+     * reads both sides, so they agree on the orders without a transaction
+     * holding the write lock.
+     *
+     * @return true when they agree, otherwise the differing cells are logged
+     */
+    static boolean verify(SQLiteDatabase db) {
+        Cursor cursor = db.rawQuery("SELECT v." + COL_WEEKDAY + ", v." + COL_HOUR + ", v." +
+                COL_ORDER_COUNT + ", COALESCE(c.orders, 0) FROM " + TABLE + " v LEFT JOIN (" +
+                countOrders("") + ") c ON c.weekday = v." + COL_WEEKDAY + " AND c.hour = v." +
+                COL_HOUR + " WHERE v." + COL_ORDER_COUNT + " != COALESCE(c.orders, 0)", null);
+        boolean matches = true;
+        while (cursor.moveToNext()) {
+            Log.w(TAG, "Volume for weekday " + cursor.getInt(0) + " hour " + cursor.getInt(1) +
+                    " is " + cursor.getInt(2) + ", orders say " + cursor.getInt(3));
+            matches = false;
+        }
+        cursor.close();
+        return matches;
+    }
+
+    // Accepted orders matching where (a condition ending in AND, or empty) per weekday and hour
+    private static String countOrders(String where) {
+        return "SELECT " + ORDER_WEEKDAY + " AS weekday, " + ORDER_HOUR + " AS hour, " +
+                "COUNT(*) AS orders FROM orders WHERE " + where + "status = 'accepted' GROUP BY 1, 2";
+    }
+
+    // Calendar numbers Sunday as 1; the heatmap starts its week on Monday
+    private static int weekday(Calendar calendar) {
+        return (calendar.get(Calendar.DAY_OF_WEEK) + 5) % 7;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.coffeeshop.database;
+
+import com.example.coffeeshop.models.Product;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process-wide cache of the products table, one shared Product per id. Every
+ * product write goes through the cache and bumps its version, so a screen that
+ * remembers the version it last showed can tell whether to query again.
+ *
+ * Reads that raced a write must not store what they read: loaders take the
+ * version before querying and the cache ignores their rows if it has moved on.
+ */
+final class ProductCatalog {
+
+    // In id order, the order getAllProducts has always returned
+    private final Map<Integer, Product> products = new LinkedHashMap<>();
+    // Whether products holds the whole table or only rows met one at a time
+    private boolean complete;
+    private long version;
+
+    synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return every product, or null if the whole table has not been loaded
+     */
+    synchronized List<Product> getAll() {
+        return complete ? new ArrayList<>(products.values()) : null;
+    }
+
+    synchronized Product get(int id) {
+        return products.get(id);
+    }
+
+    /**
+     * Stores the whole table as read at readVersion and returns the shared
+     * instances, keeping any that were already cached.
+     */
+    synchronized List<Product> fill(List<Product> rows, long readVersion) {
+        if (readVersion != version) {
+            return rows;
+        }
+        Map<Integer, Product> loaded = new LinkedHashMap<>();
+        for (Product row : rows) {
+            Product cached = products.get(row.getId());
+            loaded.put(row.getId(), cached != null ? cached : row);
+        }
+        products.clear();
+        products.putAll(loaded);
+        complete = true;
+        return new ArrayList<>(products.values());
+    }
+
+    /**
+     * Returns the shared instance for a row read at readVersion, caching the row
+     * if it is the first one seen for its id.
+     */
+    synchronized Product share(Product row, long readVersion) {
+        Product cached = products.get(row.getId());
+        if (cached != null) {
+            return cached;
+        }
+        if (readVersion == version) {
+            products.put(row.getId(), row);
+        }
+        return row;
+    }
+
+    /**
+     * Records an insert or update that has been committed. The cache keeps its own
+     * copy, so later changes to the caller's object do not leak into it.
+     */
+    synchronized void put(Product product) {
+        products.put(product.getId(), new Product(product.getId(), product.getName(),
+                product.getDescription(), product.getPrice(), product.getImageUrl()));
+        version++;
+    }
+
+    synchronized void remove(int id) {
+        products.remove(id);
+        version++;
+    }
+}
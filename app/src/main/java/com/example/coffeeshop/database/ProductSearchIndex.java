@@ -0,0 +1,168 @@
+package com.example.coffeeshop.database;
+
+import android.database.sqlite.SQLiteDatabase;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * products_fts is a full-text index over each product's search_key: its name and
+ * description folded to lower case without accents. It is an external content
+ * FTS4 table: the key stays in products and triggers keep the index in step with
+ * every insert, update and delete.
+ */
+public final class ProductSearchIndex {
+
+    static final String TABLE = "products_fts";
+
+    // Arguments for matchinfo(): phrase count, column count, then per phrase and
+    // column the hits in this row, hits in all rows and rows with a hit
+    static final String MATCHINFO_FORMAT = "pcx";
+
+    private ProductSearchIndex() {}
+
+    /**
+     * Creates the index table and its triggers. The index starts empty; call
+     * rebuild when products already exist.
+     */
+    public static void createTable(SQLiteDatabase db) {
+        // The platform SQLite on API 28 has no FTS5, so this is FTS4. The prefix
+        // option keeps 2 and 3 letter prefixes in the index so "lat*" is a lookup
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS " + TABLE + " USING fts4(" +
+                "content='products', search_key, tokenize=unicode61, prefix='2,3')");
+        // An external content index has to drop a row's old tokens before products
+        // changes, and add the new ones after. Edits that keep the key skip it.
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS products_fts_before_update " +
+                "BEFORE UPDATE OF search_key ON products " +
+                "WHEN old.search_key IS NOT new.search_key BEGIN " +
+                "DELETE FROM " + TABLE + " WHERE docid = old.id; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS products_fts_before_delete " +
+                "BEFORE DELETE ON products BEGIN " +
+                "DELETE FROM " + TABLE + " WHERE docid = old.id; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS products_fts_after_update " +
+                "AFTER UPDATE OF search_key ON products " +
+                "WHEN old.search_key IS NOT new.search_key BEGIN " +
+                "INSERT INTO " + TABLE + " (docid, search_key) VALUES (new.id, new.search_key); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS products_fts_after_insert " +
+                "AFTER INSERT ON products BEGIN " +
+                "INSERT INTO " + TABLE + " (docid, search_key) VALUES (new.id, new.search_key); END");
+    }
+
+    /**
+     * Re-reads every product into the index.
+     */
+    public static void rebuild(SQLiteDatabase db) {
+        db.execSQL("INSERT INTO " + TABLE + " (" + TABLE + ") VALUES ('rebuild')");
+    }
+
+    /**
+     * The search_key stored for a product: the words of its name and description,
+     * folded, separated by single spaces.
+     */
+    public static String searchKey(String name, String description) {
+        return String.join(" ", words(description == null ? name : name + " " + description));
+    }
+
+    /**
+     * Lower case without accents, so "Cà phê sữa đá" and "ca phe sua da" compare
+     * equal. Combining marks are dropped after canonical decomposition; đ is a
+     * letter of its own rather than d with a mark, so it is mapped by hand.
+     */
+    static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (c == '\u0111' || c == '\u0110') { // đ, Đ
+                c = 'd';
+            }
+            folded.append(c);
+        }
+        return folded.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Splits text into folded words the way the unicode61 tokenizer does: runs of
+     * letters and digits, everything else separates.
+     */
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        text = fold(text);
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Turns what the user typed into an FTS query where every word must match
+     * the start of a word in the search key.
+     *
+     * @return the MATCH argument, or null if the text holds no searchable word
+     */
+    static String toMatchQuery(String text) {
+        StringBuilder query = new StringBuilder();
+        // Folded words are lower case, so OR and NEAR are not read as operators
+        for (String word : words(text)) {
+            query.append(query.length() == 0 ? "" : " ").append(word).append('*');
+        }
+        return query.length() == 0 ? null : query.toString();
+    }
+
+    /**
+     * Whether every query word starts one of the product's words, the same test
+     * the MATCH query applies. productWords comes from {@link #words} of the name
+     * and description, queryWords from {@link #words} of the query.
+     */
+    static boolean matches(List<String> productWords, List<String> queryWords) {
+        for (String queryWord : queryWords) {
+            boolean found = false;
+            for (String productWord : productWords) {
+                if (productWord.startsWith(queryWord)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Relevance of one row from its matchinfo(pcx) blob: for every query word, the
+     * share of that word's hits that fall in this row, so rare words count most.
+     */
+    static double score(byte[] matchinfo) {
+        ByteBuffer buffer = ByteBuffer.wrap(matchinfo).order(ByteOrder.nativeOrder());
+        int phrases = buffer.getInt(0);
+        int columns = buffer.getInt(4);
+        double score = 0;
+        for (int phrase = 0; phrase < phrases; phrase++) {
+            for (int column = 0; column < columns; column++) {
+                int offset = 8 + 12 * (phrase * columns + column);
+                int hitsInRow = buffer.getInt(offset);
+                int hitsInAllRows = buffer.getInt(offset + 4);
+                if (hitsInRow > 0) {
+                    score += (double) hitsInRow / hitsInAllRows;
+                }
+            }
+        }
+        return score;
+    }
+}
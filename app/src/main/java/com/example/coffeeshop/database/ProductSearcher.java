@@ -0,0 +1,193 @@
+package com.example.coffeeshop.database;
+
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import com.example.coffeeshop.models.Product;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Search-as-you-type over the product catalog. Keystrokes are debounced, a new
+ * query cancels the one still running, and a query that only extends the last
+ * one (typing more letters or words) filters the last results in memory instead
+ * of asking the database again. When the full-text index finds nothing, the
+ * words are looked up again allowing for typos. Call from the main thread only.
+ */
+public class ProductSearcher {
+
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 200;
+
+    public interface Listener {
+        void onResults(List<Product> products);
+    }
+
+    private final CoffeeShopRepository repository;
+    private final Listener listener;
+    private final long debounceMillis;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    // Narrowing and word splitting stay off the main thread, one job at a time
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private List<Product> catalog = Collections.emptyList();
+    // Built on the worker when the catalog changes, so words are folded once per load
+    private volatile FuzzyProductIndex fuzzyIndex = new FuzzyProductIndex(Collections.emptyList());
+    // The query behind the results last delivered, and those results. Typo
+    // matches are not narrowed: a longer query may no longer be near them.
+    private String shownQuery;
+    private List<Product> shownResults = Collections.emptyList();
+    private boolean shownFuzzy;
+
+    private boolean cancelled;
+    private Runnable pending;
+    private CancellationSignal running;
+    // Bumped by every keystroke so results for older text are ignored
+    private int generation;
+
+    public ProductSearcher(CoffeeShopRepository repository, Listener listener) {
+        this(repository, listener, DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    public ProductSearcher(CoffeeShopRepository repository, Listener listener, long debounceMillis) {
+        this.repository = repository;
+        this.listener = listener;
+        this.debounceMillis = debounceMillis;
+    }
+
+    /**
+     * Sets the full product list, shown for an empty query. Results for the old
+     * catalog can no longer be narrowed, so the next query goes to the database.
+     */
+    public void setCatalog(List<Product> products) {
+        if (cancelled) {
+            return;
+        }
+        catalog = products;
+        shownQuery = null;
+        shownResults = Collections.emptyList();
+        List<Product> snapshot = new ArrayList<>(products);
+        worker.execute(() -> fuzzyIndex = new FuzzyProductIndex(snapshot));
+    }
+
+    /**
+     * Searches for text once typing pauses. Empty text shows the catalog at once.
+     */
+    public void search(String text) {
+        if (cancelled) {
+            return;
+        }
+        cancelPending();
+        int requested = generation;
+        List<String> queryWords = ProductSearchIndex.words(text);
+        String query = String.join(" ", queryWords);
+        if (queryWords.isEmpty()) {
+            deliver(requested, query, catalog, false);
+            return;
+        }
+        if (query.equals(shownQuery)) {
+            return;
+        }
+        pending = () -> {
+            pending = null;
+            if (shownQuery != null && !shownQuery.isEmpty() && !shownFuzzy
+                    && query.startsWith(shownQuery)) {
+                narrow(requested, query, queryWords);
+            } else {
+                runQuery(requested, query, queryWords);
+            }
+        };
+        handler.postDelayed(pending, debounceMillis);
+    }
+
+    /**
+     * Drops any scheduled or running search and stops the worker. Call when the
+     * screen goes away; later calls are ignored.
+     */
+    public void cancel() {
+        cancelled = true;
+        cancelPending();
+        worker.shutdownNow();
+    }
+
+    private void cancelPending() {
+        generation++;
+        if (pending != null) {
+            handler.removeCallbacks(pending);
+            pending = null;
+        }
+        if (running != null) {
+            running.cancel();
+            running = null;
+        }
+    }
+
+    /**
+     * Every word of a query that extends the shown one starts with a word of the
+     * shown query, so its results are a subset of the shown results.
+     */
+    private void narrow(int requested, String query, List<String> queryWords) {
+        List<Product> candidates = shownResults;
+        worker.execute(() -> {
+            FuzzyProductIndex index = fuzzyIndex;
+            List<Product> results = new ArrayList<>();
+            for (Product product : candidates) {
+                List<String> productWords = index.wordsOf(product.getId());
+                if (productWords == null) {
+                    productWords = wordsOf(product);
+                }
+                if (ProductSearchIndex.matches(productWords, queryWords)) {
+                    results.add(product);
+                }
+            }
+            handler.post(() -> deliver(requested, query, results, false));
+        });
+    }
+
+    private void runQuery(int requested, String query, List<String> queryWords) {
+        CancellationSignal signal = new CancellationSignal();
+        running = signal;
+        repository.searchProducts(query, signal, results -> {
+            if (running == signal) {
+                running = null;
+            }
+            if (signal.isCanceled() || requested != generation) {
+                return;
+            }
+            if (results.isEmpty()) {
+                searchWithTypos(requested, query, queryWords);
+            } else {
+                deliver(requested, query, results, false);
+            }
+        });
+    }
+
+    private void searchWithTypos(int requested, String query, List<String> queryWords) {
+        worker.execute(() -> {
+            List<Product> results = fuzzyIndex.search(queryWords);
+            handler.post(() -> deliver(requested, query, results, true));
+        });
+    }
+
+    private void deliver(int requested, String query, List<Product> results, boolean fuzzy) {
+        if (requested != generation) {
+            return;
+        }
+        shownQuery = query;
+        shownResults = results;
+        shownFuzzy = fuzzy;
+        listener.onResults(results);
+    }
+
+    private static List<String> wordsOf(Product product) {
+        String description = product.getDescription();
+        return ProductSearchIndex.words(description == null
+                ? product.getName() : product.getName() + " " + description);
+    }
+}
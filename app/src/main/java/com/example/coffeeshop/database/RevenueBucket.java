@@ -0,0 +1,54 @@
+package com.example.coffeeshop.database;
+
+import java.util.Calendar;
+
+/**
+ * How a revenue series is grouped. Each bucket is named by the revenue_daily
+ * day key of its first day, so SQL and Java agree on where buckets start.
+ * Weeks start on Monday.
+ */
+public enum RevenueBucket {
+
+    DAY(Calendar.DAY_OF_MONTH, RevenueRollup.COL_DAY),
+    // 'weekday 0' moves to the coming Sunday (or stays on one); six days back is its Monday
+    WEEK(Calendar.WEEK_OF_YEAR, "date(" + RevenueRollup.COL_DAY + ", 'weekday 0', '-6 days')"),
+    MONTH(Calendar.MONTH, "substr(" + RevenueRollup.COL_DAY + ", 1, 8) || '01'");
+
+    private final int calendarField;
+    // Maps a day key to the day key of its bucket's first day
+    final String startExpression;
+
+    RevenueBucket(int calendarField, String startExpression) {
+        this.calendarField = calendarField;
+        this.startExpression = startExpression;
+    }
+
+    /**
+     * The start of the bucket holding time, in local time.
+     */
+    long start(long time) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(time);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        if (this == WEEK) {
+            int daysSinceMonday = (calendar.get(Calendar.DAY_OF_WEEK) + 5) % 7;
+            calendar.add(Calendar.DAY_OF_MONTH, -daysSinceMonday);
+        } else if (this == MONTH) {
+            calendar.set(Calendar.DAY_OF_MONTH, 1);
+        }
+        return calendar.getTimeInMillis();
+    }
+
+    /**
+     * The start of the bucket after the one starting at start.
+     */
+    long next(long start) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(start);
+        calendar.add(calendarField, 1);
+        return calendar.getTimeInMillis();
+    }
+}
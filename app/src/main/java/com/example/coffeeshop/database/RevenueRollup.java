@@ -0,0 +1,126 @@
+package com.example.coffeeshop.database;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * revenue_daily holds one row per local day with the number and sum of accepted
+ * orders. Order writes keep it current inside their own transaction, so revenue
+ * totals read a few hundred rollup rows instead of every order.
+ */
+public final class RevenueRollup {
+
+    private static final String TAG = "RevenueRollup";
+
+    static final String TABLE = "revenue_daily";
+    static final String COL_DAY = "day"; // local day as yyyy-MM-dd, sorts by date
+    static final String COL_ORDER_COUNT = "order_count";
+    static final String COL_REVENUE = "revenue";
+
+    // Deltas are added to a REAL, so allow rounding noise below half a cent
+    private static final double TOLERANCE = 0.005;
+
+    // The local day of an order in SQL, the same key dayKey() makes in Java
+    private static final String ORDER_DAY = "date(order_time / 1000, 'unixepoch', 'localtime')";
+    private static final String ORDER_TOTALS = "SELECT " + ORDER_DAY + " AS day, COUNT(*) AS orders, " +
+            "SUM(total_amount) AS revenue FROM orders WHERE status = 'accepted' GROUP BY 1";
+
+    private RevenueRollup() {}
+
+    public static void createTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE + " (" +
+                COL_DAY + " TEXT PRIMARY KEY, " +
+                COL_ORDER_COUNT + " INTEGER NOT NULL, " +
+                COL_REVENUE + " REAL NOT NULL)");
+    }
+
+    static String dayKey(long time) {
+        return new SimpleDateFormat("yyyy-MM-dd", Locale.US).format(new Date(time));
+    }
+
+    /**
+     * Adds (or with negative values removes) accepted orders to the day of orderTime.
+     * Must run in the transaction that changed the order.
+     */
+    static void add(SQLiteDatabase db, long orderTime, int orders, double amount) {
+        addToDay(db, dayKey(orderTime), orders, amount);
+    }
+
+    /**
+     * Adds the accepted orders with afterId &lt; id &lt;= lastId, grouped by day in
+     * SQL, so a batch writes one row per day it touches.
+     */
+    public static void addOrders(SQLiteDatabase db, long afterId, long lastId) {
+        Cursor cursor = db.rawQuery("SELECT " + ORDER_DAY + ", COUNT(*), SUM(total_amount) " +
+                "FROM orders WHERE id > ? AND id <= ? AND status = 'accepted' GROUP BY 1",
+                new String[]{String.valueOf(afterId), String.valueOf(lastId)});
+        while (cursor.moveToNext()) {
+            addToDay(db, cursor.getString(0), cursor.getInt(1), cursor.getDouble(2));
+        }
+        cursor.close();
+    }
+
+    private static void addToDay(SQLiteDatabase db, String day, int orders, double amount) {
+        // The platform SQLite on API 28 predates UPSERT, so insert the row then update it
+        db.execSQL("INSERT OR IGNORE INTO " + TABLE + " (" + COL_DAY + ", " + COL_ORDER_COUNT +
+                ", " + COL_REVENUE + ") VALUES (?, 0, 0)", new Object[]{day});
+        db.execSQL("UPDATE " + TABLE + " SET " + COL_ORDER_COUNT + " = " + COL_ORDER_COUNT +
+                " + ?, " + COL_REVENUE + " = " + COL_REVENUE + " + ? WHERE " + COL_DAY + " = ?",
+                new Object[]{orders, amount, day});
+        db.execSQL("DELETE FROM " + TABLE + " WHERE " + COL_DAY + " = ? AND " +
+                COL_ORDER_COUNT + " <= 0", new Object[]{day});
+    }
+
+    /**
+     * Replaces the rollup with totals recomputed from the orders table.
+     */
+    public static void rebuild(SQLiteDatabase db) {
+        db.beginTransaction();
+        try {
+            db.delete(TABLE, null, null);
+            db.execSQL("INSERT INTO " + TABLE + " (" + COL_DAY + ", " + COL_ORDER_COUNT + ", " +
+                    COL_REVENUE + ") " + ORDER_TOTALS);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Compares every rollup row with a recomputation from the orders table. Both
+     * sides are read by one SELECT, so they see the same orders without a
+     * transaction holding the write lock.
+     *
+     * @return true when they agree, otherwise the differing days are logged
+     */
+    static boolean verify(SQLiteDatabase db) {
+        Cursor cursor = db.rawQuery("SELECT o.day, o.orders, o.revenue, r." + COL_ORDER_COUNT +
+                ", r." + COL_REVENUE + " FROM (" + ORDER_TOTALS + ") o " +
+                "LEFT JOIN " + TABLE + " r ON r." + COL_DAY + " = o.day " +
+                "WHERE r." + COL_DAY + " IS NULL OR r." + COL_ORDER_COUNT + " != o.orders" +
+                " OR ABS(r." + COL_REVENUE + " - o.revenue) >= " + TOLERANCE +
+                " UNION ALL SELECT " + COL_DAY + ", NULL, NULL, " + COL_ORDER_COUNT + ", " +
+                COL_REVENUE + " FROM " + TABLE + " WHERE " + COL_DAY + " NOT IN (SELECT " +
+                ORDER_DAY + " FROM orders WHERE status = 'accepted')", null);
+        boolean matches = true;
+        while (cursor.moveToNext()) {
+            Log.w(TAG, "Rollup for " + cursor.getString(0) + " is " + totals(cursor, 3) +
+                    ", orders say " + totals(cursor, 1));
+            matches = false;
+        }
+        cursor.close();
+        return matches;
+    }
+
+    private static String totals(Cursor cursor, int ordersColumn) {
+        if (cursor.isNull(ordersColumn)) {
+            return "missing";
+        }
+        return String.format(Locale.US, "%d orders / %.2f",
+                cursor.getInt(ordersColumn), cursor.getDouble(ordersColumn + 1));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.coffeeshop.database;
+
+import android.database.Cursor;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns the current row of a cursor into an object. A mapper is made for one
+ * cursor and looks up its column indexes when it is made, so reading a row is
+ * only the typed getters.
+ */
+interface RowMapper<T> {
+
+    T map(Cursor cursor);
+
+    /**
+     * Maps every row into a list sized from the cursor's count, then closes it.
+     */
+    static <T> List<T> readAll(Cursor cursor, RowMapper<T> mapper) {
+        try {
+            List<T> rows = new ArrayList<>(cursor.getCount());
+            while (cursor.moveToNext()) {
+                rows.add(mapper.map(cursor));
+            }
+            return rows;
+        } finally {
+            cursor.close();
+        }
+    }
+}
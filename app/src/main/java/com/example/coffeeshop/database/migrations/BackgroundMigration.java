@@ -0,0 +1,47 @@
+package com.example.coffeeshop.database.migrations;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * Expensive part of a migration that runs in resumable batches after first paint.
+ * Progress is an opaque cursor (usually the last processed row id) saved together
+ * with each batch, so a killed process picks up where it stopped.
+ */
+public abstract class BackgroundMigration {
+
+    public static final long DONE = -1;
+
+    private final String name;
+
+    protected BackgroundMigration(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Processes the next batch after progress. Runs inside a transaction.
+     *
+     * @return the new progress, or DONE when nothing is left
+     */
+    public abstract long runBatch(SQLiteDatabase db, long progress, int batchSize);
+
+    /**
+     * Highest id of the next batchSize rows of table after progress, or DONE when
+     * there are none. Lets row-by-row steps walk a table in id order.
+     */
+    protected static long lastIdOfBatch(SQLiteDatabase db, String table, long progress, int batchSize) {
+        Cursor cursor = db.rawQuery("SELECT MAX(id) FROM (SELECT id FROM " + table +
+                " WHERE id > ? ORDER BY id LIMIT " + batchSize + ")",
+                new String[]{String.valueOf(progress)});
+        long lastId = DONE;
+        if (cursor.moveToFirst() && !cursor.isNull(0)) {
+            lastId = cursor.getLong(0);
+        }
+        cursor.close();
+        return lastId;
+    }
+}
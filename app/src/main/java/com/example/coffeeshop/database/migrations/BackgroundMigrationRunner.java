@@ -0,0 +1,176 @@
+package com.example.coffeeshop.database.migrations;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs scheduled background migrations batch by batch. Each batch and its saved
+ * progress commit in one transaction, so the writer lock is only held briefly and
+ * an interrupted run resumes from the last committed batch.
+ */
+public class BackgroundMigrationRunner {
+
+    private static final String TAG = "BackgroundMigrations";
+
+    static final String TABLE_TASKS = "schema_tasks";
+    static final String COL_NAME = "name";
+    static final String COL_PROGRESS = "progress";
+    static final String COL_DONE = "done";
+    // Upper bound of a migration's id range, for tasks that must stop where live writes take over
+    static final String TABLE_LIMITS = "schema_task_limits";
+    static final String COL_MAX_ID = "max_id";
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final Map<String, BackgroundMigration> migrations = new LinkedHashMap<>();
+    private final Set<String> completed = ConcurrentHashMap.newKeySet();
+    private final int batchSize;
+
+    public BackgroundMigrationRunner(List<BackgroundMigration> migrations, int batchSize) {
+        for (BackgroundMigration migration : migrations) {
+            this.migrations.put(migration.getName(), migration);
+        }
+        this.batchSize = batchSize;
+    }
+
+    public static void createTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_TASKS + " (" +
+                COL_NAME + " TEXT PRIMARY KEY, " +
+                COL_PROGRESS + " INTEGER NOT NULL DEFAULT 0, " +
+                COL_DONE + " INTEGER NOT NULL DEFAULT 0)");
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_LIMITS + " (" +
+                COL_NAME + " TEXT PRIMARY KEY, " +
+                COL_MAX_ID + " INTEGER NOT NULL)");
+    }
+
+    /**
+     * Forgets a scheduled migration that a later version made pointless, whether
+     * or not it has run.
+     */
+    static void cancel(SQLiteDatabase db, String name) {
+        db.delete(TABLE_TASKS, COL_NAME + " = ?", new String[]{name});
+    }
+
+    /**
+     * Records the highest id of table now as the last row migration name
+     * processes. Called from {@link Migration#migrate}, so rows written after the
+     * upgrade are left to the code that writes them.
+     */
+    static void recordLimit(SQLiteDatabase db, String name, String table) {
+        db.execSQL("INSERT OR REPLACE INTO " + TABLE_LIMITS + " (" + COL_NAME + ", " + COL_MAX_ID +
+                ") SELECT ?, COALESCE(MAX(id), 0) FROM " + table, new Object[]{name});
+    }
+
+    /**
+     * The id recorded by {@link #recordLimit}, or 0 when there is none.
+     */
+    static long readLimit(SQLiteDatabase db, String name) {
+        Cursor cursor = db.query(TABLE_LIMITS, new String[]{COL_MAX_ID},
+                COL_NAME + " = ?", new String[]{name}, null, null, null);
+        long limit = 0;
+        if (cursor.moveToFirst()) {
+            limit = cursor.getLong(0);
+        }
+        cursor.close();
+        return limit;
+    }
+
+    static void schedule(SQLiteDatabase db, String name) {
+        ContentValues values = new ContentValues();
+        values.put(COL_NAME, name);
+        values.put(COL_PROGRESS, 0);
+        values.put(COL_DONE, 0);
+        db.insertWithOnConflict(TABLE_TASKS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    /**
+     * Runs every pending migration to completion, in the order they were scheduled.
+     */
+    public synchronized void runPending(SQLiteDatabase db) {
+        for (String name : pendingNames(db)) {
+            runToCompletion(db, name);
+        }
+    }
+
+    /**
+     * Makes sure one migration has finished before a query depends on it, running
+     * its remaining batches on the calling thread if needed. Cheap once complete.
+     */
+    public void ensureComplete(SQLiteDatabase db, String name) {
+        if (completed.contains(name)) {
+            return;
+        }
+        synchronized (this) {
+            runToCompletion(db, name);
+        }
+    }
+
+    public boolean isComplete(SQLiteDatabase db, String name) {
+        if (completed.contains(name)) {
+            return true;
+        }
+        return readProgress(db, name) == BackgroundMigration.DONE;
+    }
+
+    private List<String> pendingNames(SQLiteDatabase db) {
+        List<String> names = new ArrayList<>();
+        Cursor cursor = db.query(TABLE_TASKS, new String[]{COL_NAME},
+                COL_DONE + " = 0", null, null, null, "rowid");
+        while (cursor.moveToNext()) {
+            names.add(cursor.getString(0));
+        }
+        cursor.close();
+        return names;
+    }
+
+    private long readProgress(SQLiteDatabase db, String name) {
+        Cursor cursor = db.query(TABLE_TASKS, new String[]{COL_PROGRESS, COL_DONE},
+                COL_NAME + " = ?", new String[]{name}, null, null, null);
+        long progress = BackgroundMigration.DONE;
+        if (cursor.moveToFirst() && cursor.getInt(1) == 0) {
+            progress = cursor.getLong(0);
+        }
+        cursor.close();
+        return progress;
+    }
+
+    private void runToCompletion(SQLiteDatabase db, String name) {
+        long progress = readProgress(db, name);
+        if (progress == BackgroundMigration.DONE) {
+            completed.add(name);
+            return;
+        }
+        BackgroundMigration migration = migrations.get(name);
+        if (migration == null) {
+            Log.w(TAG, "Unknown background migration " + name);
+            return;
+        }
+
+        while (progress != BackgroundMigration.DONE) {
+            db.beginTransaction();
+            try {
+                progress = migration.runBatch(db, progress, batchSize);
+                ContentValues values = new ContentValues();
+                if (progress == BackgroundMigration.DONE) {
+                    values.put(COL_DONE, 1);
+                } else {
+                    values.put(COL_PROGRESS, progress);
+                }
+                db.update(TABLE_TASKS, values, COL_NAME + " = ?", new String[]{name});
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        }
+        completed.add(name);
+        Log.i(TAG, "Finished background migration " + name);
+    }
+}
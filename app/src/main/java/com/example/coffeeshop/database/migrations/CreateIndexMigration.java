@@ -0,0 +1,23 @@
+package com.example.coffeeshop.database.migrations;
+
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * Builds one index off the startup path. SQLite builds an index in a single
+ * statement, so this is one batch, and IF NOT EXISTS makes a retry harmless.
+ */
+public class CreateIndexMigration extends BackgroundMigration {
+
+    private final String createSql;
+
+    public CreateIndexMigration(String name, String createSql) {
+        super(name);
+        this.createSql = createSql;
+    }
+
+    @Override
+    public long runBatch(SQLiteDatabase db, long progress, int batchSize) {
+        db.execSQL(createSql);
+        return DONE;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.coffeeshop.database.migrations;
+
+import android.database.sqlite.SQLiteDatabase;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One schema step, from version - 1 to version.
+ * migrate runs inside onUpgrade's transaction during cold start, so it should only
+ * do cheap DDL. Anything that touches every row belongs in a BackgroundMigration
+ * returned from getBackgroundMigrations, which runs after first paint.
+ */
+public abstract class Migration {
+
+    private final int version;
+
+    protected Migration(int version) {
+        this.version = version;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public abstract void migrate(SQLiteDatabase db);
+
+    public List<BackgroundMigration> getBackgroundMigrations() {
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.coffeeshop.database.migrations;
+
+import android.database.sqlite.SQLiteDatabase;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies the ordered schema steps between two versions without dropping data.
+ */
+public class MigrationRunner {
+
+    private final List<Migration> steps;
+
+    public MigrationRunner(List<Migration> steps) {
+        int expected = 2;
+        for (Migration step : steps) {
+            if (step.getVersion() != expected) {
+                throw new IllegalArgumentException("Missing or out of order migration to version "
+                        + expected + ", found " + step.getVersion());
+            }
+            expected++;
+        }
+        this.steps = new ArrayList<>(steps);
+    }
+
+    public int getLatestVersion() {
+        return steps.isEmpty() ? 1 : steps.get(steps.size() - 1).getVersion();
+    }
+
+    public void upgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        BackgroundMigrationRunner.createTable(db);
+        for (Migration step : steps) {
+            if (step.getVersion() > oldVersion && step.getVersion() <= newVersion) {
+                step.migrate(db);
+                for (BackgroundMigration background : step.getBackgroundMigrations()) {
+                    BackgroundMigrationRunner.schedule(db, background.getName());
+                }
+            }
+        }
+    }
+
+    public List<BackgroundMigration> getBackgroundMigrations() {
+        List<BackgroundMigration> all = new ArrayList<>();
+        for (Migration step : steps) {
+            all.addAll(step.getBackgroundMigrations());
+        }
+        return all;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.coffeeshop.database.migrations;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Every schema step in version order. Add new steps to the end and bump
+ * DatabaseHelper.DATABASE_VERSION to match.
+ */
+public final class Migrations {
+
+    private Migrations() {}
+
+    public static List<Migration> all() {
+        return Arrays.asList(
+                new V2AccessPathIndexes(),
+                new V3OrderTimestamps(),
+                new V4RevenueRollup(),
+                new V5UniqueCartLines(),
+                new V6OrderItems(),
+                new V7ProductSearch(),
+                new V8ProductSearchKeys(),
+                new V9OrderVolume());
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.coffeeshop.database.migrations;
+
+import android.database.sqlite.SQLiteDatabase;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Version 2: the cart's user index, built after first paint. This version also
+ * indexed orders on order_date; version 3 replaced those indexes, so upgrades
+ * no longer build them only to drop them again.
+ */
+public class V2AccessPathIndexes extends Migration {
+
+    public V2AccessPathIndexes() {
+        super(2);
+    }
+
+    @Override
+    public void migrate(SQLiteDatabase db) {
+        // Nothing to change in the tables themselves
+    }
+
+    @Override
+    public List<BackgroundMigration> getBackgroundMigrations() {
+        return Collections.singletonList(
+                new CreateIndexMigration("v2_index_cart_user",
+                        "CREATE INDEX IF NOT EXISTS idx_cart_user ON cart(user_id)"));
+    }
+}
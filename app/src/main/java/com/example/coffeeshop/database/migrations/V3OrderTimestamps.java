@@ -0,0 +1,74 @@
+package com.example.coffeeshop.database.migrations;
+
+import android.database.sqlite.SQLiteDatabase;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Version 3: orders get an order_time column holding epoch milliseconds, so date
+ * filters become index range scans instead of strftime() on every row.
+ * order_date stays as the legacy text column.
+ */
+public class V3OrderTimestamps extends Migration {
+
+    public static final String BACKFILL = "v3_backfill_order_time";
+
+    public V3OrderTimestamps() {
+        super(3);
+    }
+
+    @Override
+    public void migrate(SQLiteDatabase db) {
+        db.execSQL("ALTER TABLE orders ADD COLUMN order_time INTEGER");
+        // Version 2 scheduled order_date indexes that would be dropped again below
+        BackgroundMigrationRunner.cancel(db, "v2_index_orders_status_date");
+        BackgroundMigrationRunner.cancel(db, "v2_index_orders_user_date");
+    }
+
+    @Override
+    public List<BackgroundMigration> getBackgroundMigrations() {
+        return Arrays.asList(
+                new OrderTimeBackfill(),
+                new CreateIndexMigration("v3_index_orders_status_time",
+                        "CREATE INDEX IF NOT EXISTS idx_orders_status_time ON orders(status, order_time)"),
+                new CreateIndexMigration("v3_index_orders_user_time",
+                        "CREATE INDEX IF NOT EXISTS idx_orders_user_time ON orders(user_id, order_time)"),
+                new DropOldOrderIndexes());
+    }
+
+    /** Converts order_date, written in the device's local time, to epoch millis. */
+    static class OrderTimeBackfill extends BackgroundMigration {
+
+        OrderTimeBackfill() {
+            super(BACKFILL);
+        }
+
+        @Override
+        public long runBatch(SQLiteDatabase db, long progress, int batchSize) {
+            long lastId = lastIdOfBatch(db, "orders", progress, batchSize);
+            if (lastId == DONE) {
+                return DONE;
+            }
+            // The 'utc' modifier treats order_date as local time and converts it to UTC
+            db.execSQL("UPDATE orders SET order_time = " +
+                    "COALESCE(CAST(strftime('%s', order_date, 'utc') AS INTEGER), 0) * 1000 " +
+                    "WHERE id > ? AND id <= ?", new Object[]{progress, lastId});
+            return lastId;
+        }
+    }
+
+    /** The version 2 text-date indexes, if they were built, are replaced by the order_time ones. */
+    static class DropOldOrderIndexes extends BackgroundMigration {
+
+        DropOldOrderIndexes() {
+            super("v3_drop_order_date_indexes");
+        }
+
+        @Override
+        public long runBatch(SQLiteDatabase db, long progress, int batchSize) {
+            db.execSQL("DROP INDEX IF EXISTS idx_orders_status_date");
+            db.execSQL("DROP INDEX IF EXISTS idx_orders_user_date");
+            return DONE;
+        }
+    }
+}
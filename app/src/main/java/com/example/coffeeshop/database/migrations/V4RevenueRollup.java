@@ -0,0 +1,56 @@
+package com.example.coffeeshop.database.migrations;
+
+import android.database.sqlite.SQLiteDatabase;
+import com.example.coffeeshop.database.RevenueRollup;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Version 4: the revenue_daily rollup. The table is created during the upgrade and
+ * filled from the accepted orders afterwards, once order_time has been backfilled.
+ * Orders placed after the upgrade are counted as they are written, so the build
+ * only covers the ids that existed at the upgrade.
+ */
+public class V4RevenueRollup extends Migration {
+
+    public static final String BUILD = "v4_build_revenue_daily";
+
+    public V4RevenueRollup() {
+        super(4);
+    }
+
+    @Override
+    public void migrate(SQLiteDatabase db) {
+        RevenueRollup.createTable(db);
+        BackgroundMigrationRunner.recordLimit(db, BUILD, "orders");
+    }
+
+    @Override
+    public List<BackgroundMigration> getBackgroundMigrations() {
+        return Collections.singletonList(new RollupBuild());
+    }
+
+    /**
+     * Adds the orders up to the recorded limit in batches of ids. Status changes
+     * finish the build before they touch the rollup (see DatabaseHelper), so an
+     * order is never counted by both.
+     */
+    static class RollupBuild extends BackgroundMigration {
+
+        RollupBuild() {
+            super(BUILD);
+        }
+
+        @Override
+        public long runBatch(SQLiteDatabase db, long progress, int batchSize) {
+            long limit = BackgroundMigrationRunner.readLimit(db, BUILD);
+            long lastId = lastIdOfBatch(db, "orders", progress, batchSize);
+            if (lastId == DONE || progress >= limit) {
+                return DONE;
+            }
+            lastId = Math.min(lastId, limit);
+            RevenueRollup.addOrders(db, progress, lastId);
+            return lastId == limit ? DONE : lastId;
+        }
+    }
+}
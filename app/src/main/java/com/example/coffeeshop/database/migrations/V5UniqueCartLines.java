@@ -0,0 +1,50 @@
+package com.example.coffeeshop.database.migrations;
+
+import android.database.sqlite.SQLiteDatabase;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Version 5: one cart row per (user_id, product_id). Duplicate rows left by the old
+ * read-then-write addToCart are merged into the oldest row before the unique index
+ * is created. Carts are small and addToCart depends on the index straight away, so
+ * this runs during the upgrade rather than in the background.
+ */
+public class V5UniqueCartLines extends Migration {
+
+    public V5UniqueCartLines() {
+        super(5);
+    }
+
+    @Override
+    public void migrate(SQLiteDatabase db) {
+        db.execSQL("UPDATE cart SET quantity = (SELECT SUM(c.quantity) FROM cart c " +
+                "WHERE c.user_id = cart.user_id AND c.product_id = cart.product_id) " +
+                "WHERE id IN (SELECT MIN(id) FROM cart GROUP BY user_id, product_id HAVING COUNT(*) > 1)");
+        db.execSQL("DELETE FROM cart WHERE id NOT IN " +
+                "(SELECT MIN(id) FROM cart GROUP BY user_id, product_id)");
+        db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS idx_cart_user_product ON cart(user_id, product_id)");
+    }
+
+    @Override
+    public List<BackgroundMigration> getBackgroundMigrations() {
+        return Collections.singletonList(new DropCartUserIndex());
+    }
+
+    /**
+     * idx_cart_user_product starts with user_id, so it covers idx_cart_user. This is
+     * scheduled after version 2's build of that index, so it cannot come back.
+     */
+    static class DropCartUserIndex extends BackgroundMigration {
+
+        DropCartUserIndex() {
+            super("v5_drop_cart_user_index");
+        }
+
+        @Override
+        public long runBatch(SQLiteDatabase db, long progress, int batchSize) {
+            db.execSQL("DROP INDEX IF EXISTS idx_cart_user");
+            return DONE;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.coffeeshop.database.migrations;
+
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * Version 6: order_items records the product, quantity and unit price of every
+ * line an order was placed with. Older orders only have their total.
+ */
+public class V6OrderItems extends Migration {
+
+    public V6OrderItems() {
+        super(6);
+    }
+
+    @Override
+    public void migrate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE order_items (id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "order_id INTEGER NOT NULL, product_id INTEGER NOT NULL, " +
+                "quantity INTEGER NOT NULL, unit_price REAL NOT NULL, " +
+                "FOREIGN KEY(order_id) REFERENCES orders(id), " +
+                "FOREIGN KEY(product_id) REFERENCES products(id))");
+        // The table starts empty, so the index costs nothing to build here
+        db.execSQL("CREATE INDEX idx_order_items_order ON order_items(order_id)");
+    }
+}
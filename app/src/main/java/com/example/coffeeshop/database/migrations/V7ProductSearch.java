@@ -0,0 +1,58 @@
+package com.example.coffeeshop.database.migrations;
+
+import android.database.sqlite.SQLiteDatabase;
+import com.example.coffeeshop.database.ProductSearchIndex;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Version 7: the products_fts full-text index. The table and its triggers are
+ * created during the upgrade and the existing catalog is indexed afterwards.
+ */
+public class V7ProductSearch extends Migration {
+
+    public static final String BUILD = "v7_build_products_fts";
+
+    public V7ProductSearch() {
+        super(7);
+    }
+
+    @Override
+    public void migrate(SQLiteDatabase db) {
+        // The version 7 index; version 8 replaces it with one over search_key
+        db.execSQL("CREATE VIRTUAL TABLE products_fts USING fts4(content='products', " +
+                "name, description, tokenize=unicode61, prefix='2,3')");
+        db.execSQL("CREATE TRIGGER products_fts_before_update BEFORE UPDATE OF name, description " +
+                "ON products BEGIN DELETE FROM products_fts WHERE docid = old.id; END");
+        db.execSQL("CREATE TRIGGER products_fts_before_delete BEFORE DELETE " +
+                "ON products BEGIN DELETE FROM products_fts WHERE docid = old.id; END");
+        db.execSQL("CREATE TRIGGER products_fts_after_update AFTER UPDATE OF name, description " +
+                "ON products BEGIN INSERT INTO products_fts (docid, name, description) " +
+                "VALUES (new.id, new.name, new.description); END");
+        db.execSQL("CREATE TRIGGER products_fts_after_insert AFTER INSERT " +
+                "ON products BEGIN INSERT INTO products_fts (docid, name, description) " +
+                "VALUES (new.id, new.name, new.description); END");
+    }
+
+    @Override
+    public List<BackgroundMigration> getBackgroundMigrations() {
+        return Collections.singletonList(new IndexBuild());
+    }
+
+    /**
+     * Products changed since the upgrade are already indexed by the triggers; the
+     * rebuild re-reads those too, so it is safe to run at any point.
+     */
+    static class IndexBuild extends BackgroundMigration {
+
+        IndexBuild() {
+            super(BUILD);
+        }
+
+        @Override
+        public long runBatch(SQLiteDatabase db, long progress, int batchSize) {
+            ProductSearchIndex.rebuild(db);
+            return DONE;
+        }
+    }
+}
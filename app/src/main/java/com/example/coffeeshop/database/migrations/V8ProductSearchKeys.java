@@ -0,0 +1,69 @@
+package com.example.coffeeshop.database.migrations;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import com.example.coffeeshop.database.ProductSearchIndex;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Version 8: products get a search_key column holding the name and description
+ * folded to lower case without accents, and products_fts indexes that key instead
+ * of the raw text, so "ca phe sua da" finds "Cà phê sữa đá". The keys need Java
+ * to compute, so existing products are filled in the background.
+ */
+public class V8ProductSearchKeys extends Migration {
+
+    public static final String BACKFILL = "v8_backfill_search_key";
+
+    public V8ProductSearchKeys() {
+        super(8);
+    }
+
+    @Override
+    public void migrate(SQLiteDatabase db) {
+        db.execSQL("ALTER TABLE products ADD COLUMN search_key TEXT");
+        db.execSQL("DROP TRIGGER IF EXISTS products_fts_before_update");
+        db.execSQL("DROP TRIGGER IF EXISTS products_fts_before_delete");
+        db.execSQL("DROP TRIGGER IF EXISTS products_fts_after_update");
+        db.execSQL("DROP TRIGGER IF EXISTS products_fts_after_insert");
+        db.execSQL("DROP TABLE IF EXISTS products_fts");
+        ProductSearchIndex.createTable(db);
+    }
+
+    @Override
+    public List<BackgroundMigration> getBackgroundMigrations() {
+        return Collections.singletonList(new SearchKeyBackfill());
+    }
+
+    /**
+     * Writes the key of every product in id order. The triggers index each key as
+     * it is written; the last batch rebuilds the index once more so it matches the
+     * table exactly, whatever was indexed or deleted before the keys existed.
+     */
+    static class SearchKeyBackfill extends BackgroundMigration {
+
+        SearchKeyBackfill() {
+            super(BACKFILL);
+        }
+
+        @Override
+        public long runBatch(SQLiteDatabase db, long progress, int batchSize) {
+            long lastId = lastIdOfBatch(db, "products", progress, batchSize);
+            if (lastId == DONE) {
+                ProductSearchIndex.rebuild(db);
+                return DONE;
+            }
+            Cursor cursor = db.rawQuery("SELECT id, name, description FROM products " +
+                    "WHERE id > ? AND id <= ?",
+                    new String[]{String.valueOf(progress), String.valueOf(lastId)});
+            while (cursor.moveToNext()) {
+                db.execSQL("UPDATE products SET search_key = ? WHERE id = ?", new Object[]{
+                        ProductSearchIndex.searchKey(cursor.getString(1), cursor.getString(2)),
+                        cursor.getLong(0)});
+            }
+            cursor.close();
+            return lastId;
+        }
+    }
+}
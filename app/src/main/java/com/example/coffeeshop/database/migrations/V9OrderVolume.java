@@ -0,0 +1,55 @@
+package com.example.coffeeshop.database.migrations;
+
+import android.database.sqlite.SQLiteDatabase;
+import com.example.coffeeshop.database.OrderVolumeRollup;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Version 9: the order_volume counters behind the weekday x hour heatmap. The
+ * table is created during the upgrade and counted from the accepted orders
+ * afterwards. Orders placed after the upgrade are counted as they are written,
+ * so the build only covers the ids that existed at the upgrade.
+ */
+public class V9OrderVolume extends Migration {
+
+    public static final String BUILD = "v9_build_order_volume";
+
+    public V9OrderVolume() {
+        super(9);
+    }
+
+    @Override
+    public void migrate(SQLiteDatabase db) {
+        OrderVolumeRollup.createTable(db);
+        BackgroundMigrationRunner.recordLimit(db, BUILD, "orders");
+    }
+
+    @Override
+    public List<BackgroundMigration> getBackgroundMigrations() {
+        return Collections.singletonList(new VolumeBuild());
+    }
+
+    /**
+     * Counts the orders up to the recorded limit in batches of ids, like
+     * {@link V4RevenueRollup.RollupBuild}.
+     */
+    static class VolumeBuild extends BackgroundMigration {
+
+        VolumeBuild() {
+            super(BUILD);
+        }
+
+        @Override
+        public long runBatch(SQLiteDatabase db, long progress, int batchSize) {
+            long limit = BackgroundMigrationRunner.readLimit(db, BUILD);
+            long lastId = lastIdOfBatch(db, "orders", progress, batchSize);
+            if (lastId == DONE || progress >= limit) {
+                return DONE;
+            }
+            lastId = Math.min(lastId, limit);
+            OrderVolumeRollup.addOrders(db, progress, lastId);
+            return lastId == limit ? DONE : lastId;
+        }
+    }
+}
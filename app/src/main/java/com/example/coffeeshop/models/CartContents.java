@@ -0,0 +1,29 @@
+package com.example.coffeeshop.models;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A user's cart lines together with their summary, both taken from one read so
+ * the total always matches the lines shown.
+ */
+public class CartContents {
+
+    public static final CartContents EMPTY = new CartContents(Collections.emptyList(), CartSummary.EMPTY);
+
+    private final List<CartItem> items;
+    private final CartSummary summary;
+
+    public CartContents(List<CartItem> items, CartSummary summary) {
+        this.items = items;
+        this.summary = summary;
+    }
+
+    public List<CartItem> getItems() {
+        return items;
+    }
+
+    public CartSummary getSummary() {
+        return summary;
+    }
+}
@@ -1,9 +1,19 @@
 package com.example.coffeeshop.models;
 
+import com.example.coffeeshop.utils.DisplayFormat;
+import java.util.Locale;
+
 public class CartItem {
     private int cartId;
     private Product product;
     private int quantity;
+    // Formatted on first use and kept while the quantity, price and locale match
+    private String quantityText;
+    private int quantityTextValue;
+    private String subtotalText;
+    private int subtotalQuantity;
+    private double subtotalPrice;
+    private Locale subtotalLocale;
 
     public CartItem(int cartId, Product product, int quantity) {
         this.cartId = cartId;
@@ -38,4 +48,25 @@ public class CartItem {
     public double getSubtotal() {
         return product.getPrice() * quantity;
     }
+
+    public String getQuantityText() {
+        if (quantityText == null || quantityTextValue != quantity) {
+            quantityText = String.valueOf(quantity);
+            quantityTextValue = quantity;
+        }
+        return quantityText;
+    }
+
+    public String getSubtotalText() {
+        Locale locale = Locale.getDefault();
+        double price = product.getPrice();
+        if (subtotalText == null || subtotalQuantity != quantity || subtotalPrice != price
+                || !locale.equals(subtotalLocale)) {
+            subtotalText = DisplayFormat.price(price * quantity);
+            subtotalQuantity = quantity;
+            subtotalPrice = price;
+            subtotalLocale = locale;
+        }
+        return subtotalText;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.example.coffeeshop.models;
+
+import java.util.List;
+
+/**
+ * Totals of one user's cart. Money is kept in whole cents so adding up lines
+ * never drifts the way summing doubles does.
+ */
+public class CartSummary {
+
+    public static final CartSummary EMPTY = new CartSummary(0, 0, 0);
+
+    private final int lineCount;
+    private final int unitCount;
+    private final long totalCents;
+
+    public CartSummary(int lineCount, int unitCount, long totalCents) {
+        this.lineCount = lineCount;
+        this.unitCount = unitCount;
+        this.totalCents = totalCents;
+    }
+
+    /**
+     * The summary of lines already read, in cents the way the summary query sums them.
+     */
+    public static CartSummary of(List<CartItem> items) {
+        int units = 0;
+        long cents = 0;
+        for (CartItem item : items) {
+            units += item.getQuantity();
+            cents += toCents(item.getProduct().getPrice()) * item.getQuantity();
+        }
+        return new CartSummary(items.size(), units, cents);
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public int getUnitCount() {
+        return unitCount;
+    }
+
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    public double getTotal() {
+        return totalCents / 100.0;
+    }
+
+    /**
+     * This summary after one line's quantity changed by unitDelta.
+     */
+    public CartSummary withQuantityChange(double unitPrice, int unitDelta) {
+        return new CartSummary(lineCount, unitCount + unitDelta,
+                totalCents + toCents(unitPrice) * unitDelta);
+    }
+
+    /**
+     * A price in whole cents, rounded the way the summary query rounds it.
+     */
+    public static long toCents(double price) {
+        return Math.round(price * 100);
+    }
+}
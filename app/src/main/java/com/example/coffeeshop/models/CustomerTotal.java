@@ -0,0 +1,29 @@
+package com.example.coffeeshop.models;
+
+/**
+ * Accepted orders and their revenue for one customer.
+ */
+public class CustomerTotal {
+
+    private final int userId;
+    private final int orderCount;
+    private final double revenue;
+
+    public CustomerTotal(int userId, int orderCount, double revenue) {
+        this.userId = userId;
+        this.orderCount = orderCount;
+        this.revenue = revenue;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+}
@@ -1,19 +1,30 @@
 package com.example.coffeeshop.models;
 
+import com.example.coffeeshop.utils.DisplayFormat;
+import java.util.Locale;
+
 public class Order {
     private int id;
     private int userId;
     private String userName;
     private double totalAmount;
-    private String orderDate;
+    private long orderTime; // epoch millis
     private String status; // pending, accepted, rejected
+    // The labelled lines an order row shows, made together for one locale and
+    // dropped when a field they show changes
+    private Locale textLocale;
+    private String numberText;
+    private String customerText;
+    private String totalText;
+    private String dateText;
+    private String statusText;
 
-    public Order(int id, int userId, String userName, double totalAmount, String orderDate, String status) {
+    public Order(int id, int userId, String userName, double totalAmount, long orderTime, String status) {
         this.id = id;
         this.userId = userId;
         this.userName = userName;
         this.totalAmount = totalAmount;
-        this.orderDate = orderDate;
+        this.orderTime = orderTime;
         this.status = status;
     }
 
@@ -23,6 +34,7 @@ public class Order {
 
     public void setId(int id) {
         this.id = id;
+        textLocale = null;
     }
 
     public int getUserId() {
@@ -39,6 +51,7 @@ public class Order {
 
     public void setUserName(String userName) {
         this.userName = userName;
+        textLocale = null;
     }
 
     public double getTotalAmount() {
@@ -47,14 +60,16 @@ public class Order {
 
     public void setTotalAmount(double totalAmount) {
         this.totalAmount = totalAmount;
+        textLocale = null;
     }
 
-    public String getOrderDate() {
-        return orderDate;
+    public long getOrderTime() {
+        return orderTime;
     }
 
-    public void setOrderDate(String orderDate) {
-        this.orderDate = orderDate;
+    public void setOrderTime(long orderTime) {
+        this.orderTime = orderTime;
+        textLocale = null;
     }
 
     public String getStatus() {
@@ -63,5 +78,48 @@ public class Order {
 
     public void setStatus(String status) {
         this.status = status;
+        textLocale = null;
+    }
+
+    /**
+     * Makes the row text now rather than on first bind, e.g. on the thread that
+     * read the order.
+     */
+    public void prepareText() {
+        Locale locale = Locale.getDefault();
+        if (locale.equals(textLocale)) {
+            return;
+        }
+        numberText = "Order #" + id;
+        customerText = "Customer: " + userName;
+        totalText = "Total: " + DisplayFormat.price(totalAmount);
+        dateText = "Date: " + DisplayFormat.dateTime(orderTime);
+        statusText = "Status: " + status.toUpperCase(locale);
+        textLocale = locale;
+    }
+
+    public String getNumberText() {
+        prepareText();
+        return numberText;
+    }
+
+    public String getCustomerText() {
+        prepareText();
+        return customerText;
+    }
+
+    public String getTotalText() {
+        prepareText();
+        return totalText;
+    }
+
+    public String getDateText() {
+        prepareText();
+        return dateText;
+    }
+
+    public String getStatusText() {
+        prepareText();
+        return statusText;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,36 @@
+package com.example.coffeeshop.models;
+
+/**
+ * Accepted orders by local weekday (0 is Monday) and hour of the day.
+ */
+public class OrderHeatmap {
+
+    public static final int DAYS = 7;
+    public static final int HOURS = 24;
+    public static final OrderHeatmap EMPTY = new OrderHeatmap(new int[DAYS][HOURS]);
+
+    private final int[][] counts;
+    private final int max;
+
+    public OrderHeatmap(int[][] counts) {
+        this.counts = counts;
+        int busiest = 0;
+        for (int[] day : counts) {
+            for (int count : day) {
+                busiest = Math.max(busiest, count);
+            }
+        }
+        this.max = busiest;
+    }
+
+    public int getCount(int weekday, int hour) {
+        return counts[weekday][hour];
+    }
+
+    /**
+     * Orders in the busiest hour of the week, 0 when there are none.
+     */
+    public int getMax() {
+        return max;
+    }
+}
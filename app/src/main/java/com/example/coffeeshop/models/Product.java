@@ -1,6 +1,8 @@
 package com.example.coffeeshop.models;
 
+import com.example.coffeeshop.utils.DisplayFormat;
 import java.io.Serializable;
+import java.util.Locale;
 
 public class Product implements Serializable {
     private int id;
@@ -8,6 +10,9 @@ public class Product implements Serializable {
     private String description;
     private double price;
     private String imageUrl;
+    // Formatted on first use and kept until the price or locale changes
+    private transient String priceText;
+    private transient Locale priceTextLocale;
 
     public Product(int id, String name, String description, double price, String imageUrl) {
         this.id = id;
@@ -54,6 +59,16 @@ public class Product implements Serializable {
 
     public void setPrice(double price) {
         this.price = price;
+        priceText = null;
+    }
+
+    public String getPriceText() {
+        Locale locale = Locale.getDefault();
+        if (priceText == null || !locale.equals(priceTextLocale)) {
+            priceText = DisplayFormat.price(price);
+            priceTextLocale = locale;
+        }
+        return priceText;
     }
 
     public String getImageUrl() {
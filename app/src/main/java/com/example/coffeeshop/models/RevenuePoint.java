@@ -0,0 +1,29 @@
+package com.example.coffeeshop.models;
+
+/**
+ * Revenue of the accepted orders in one bucket of a series.
+ */
+public class RevenuePoint {
+
+    private final long start; // epoch millis of the bucket's first local day
+    private final int orderCount;
+    private final double revenue;
+
+    public RevenuePoint(long start, int orderCount, double revenue) {
+        this.start = start;
+        this.orderCount = orderCount;
+        this.revenue = revenue;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.coffeeshop.models;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Revenue of one period together with the newest of its orders, read at the
+ * same moment so the figures and the list agree.
+ */
+public class RevenueReport {
+
+    public static final RevenueReport EMPTY = new RevenueReport(0, 0.0, Collections.emptyList());
+
+    private final int orderCount;
+    private final double revenue;
+    private final List<Order> firstPage;
+
+    public RevenueReport(int orderCount, double revenue, List<Order> firstPage) {
+        this.orderCount = orderCount;
+        this.revenue = revenue;
+        this.firstPage = firstPage;
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public double getAverageTicket() {
+        return orderCount == 0 ? 0.0 : revenue / orderCount;
+    }
+
+    public List<Order> getFirstPage() {
+        return firstPage;
+    }
+}
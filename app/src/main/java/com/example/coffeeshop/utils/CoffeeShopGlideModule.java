@@ -0,0 +1,41 @@
+package com.example.coffeeshop.utils;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.module.AppGlideModule;
+import com.bumptech.glide.request.RequestOptions;
+
+/**
+ * Cache budgets for {@link ProductImageLoader}. Product images are small
+ * thumbnails plus one detail image at a time, so the memory cache holds a few
+ * screens of them rather than Glide's default share of the heap.
+ */
+@GlideModule
+public final class CoffeeShopGlideModule extends AppGlideModule {
+
+    private static final float MEMORY_CACHE_SCREENS = 2;
+    private static final float BITMAP_POOL_SCREENS = 3;
+    private static final String DISK_CACHE_NAME = "product_images";
+    private static final long DISK_CACHE_BYTES = 50L * 1024 * 1024;
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        builder.setMemorySizeCalculator(new MemorySizeCalculator.Builder(context)
+                .setMemoryCacheScreens(MEMORY_CACHE_SCREENS)
+                .setBitmapPoolScreens(BITMAP_POOL_SCREENS));
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_NAME,
+                DISK_CACHE_BYTES));
+        // Photos have no alpha; images that do are still decoded as ARGB_8888
+        builder.setDefaultRequestOptions(new RequestOptions().format(DecodeFormat.PREFER_RGB_565));
+    }
+
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
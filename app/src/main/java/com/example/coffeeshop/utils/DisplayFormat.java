@@ -0,0 +1,34 @@
+package com.example.coffeeshop.utils;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * The price and date formats shown in lists. Models call these once and keep
+ * the result, so binding a row only sets strings that already exist.
+ */
+public final class DisplayFormat {
+
+    private static final String DATE_TIME_PATTERN = "MMM dd, yyyy hh:mm a";
+
+    // Rebuilt when the default locale changes; guarded by the class lock
+    private static SimpleDateFormat dateTimeFormat;
+    private static Locale dateTimeLocale;
+
+    private DisplayFormat() {
+    }
+
+    public static String price(double amount) {
+        return String.format(Locale.getDefault(), "$%.2f", amount);
+    }
+
+    public static synchronized String dateTime(long time) {
+        Locale locale = Locale.getDefault();
+        if (!locale.equals(dateTimeLocale)) {
+            dateTimeFormat = new SimpleDateFormat(DATE_TIME_PATTERN, locale);
+            dateTimeLocale = locale;
+        }
+        return dateTimeFormat.format(new Date(time));
+    }
+}
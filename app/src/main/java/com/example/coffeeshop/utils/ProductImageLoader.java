@@ -0,0 +1,200 @@
+package com.example.coffeeshop.utils;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.net.Uri;
+import android.widget.ImageView;
+import androidx.annotation.DrawableRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.bumptech.glide.util.FixedPreloadSizeProvider;
+import com.example.coffeeshop.R;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Loads a product's image, which is either a Cloudinary URL or the name of a
+ * bundled drawable. Both kinds go through Glide, so they decode off the main
+ * thread and are downsampled to the size shown. Cloudinary is also asked to
+ * scale the image itself, so a list row downloads a thumbnail rather than the
+ * full upload.
+ */
+public class ProductImageLoader {
+
+    private static final String CLOUDINARY_UPLOAD = "/image/upload/";
+    // Thumbnail requests kept for reuse; a menu has few enough images to fit
+    private static final int MAX_THUMBNAIL_REQUESTS = 64;
+
+    private final RequestManager glide;
+    private final int thumbnailSize;
+    // Cloudinary transformations, made once since every row uses the same one
+    private final String thumbnailTransformation;
+    private final String largeTransformation;
+    // Built once per image, since a RequestBuilder can start any number of loads.
+    // Main thread only, like Glide's into()
+    private final Map<String, RequestBuilder<Drawable>> thumbnailRequests =
+            new LinkedHashMap<String, RequestBuilder<Drawable>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, RequestBuilder<Drawable>> eldest) {
+                    return size() > MAX_THUMBNAIL_REQUESTS;
+                }
+            };
+
+    public ProductImageLoader(Context context) {
+        glide = Glide.with(context);
+        thumbnailSize = context.getResources().getDimensionPixelSize(R.dimen.product_thumbnail_size);
+        thumbnailTransformation = "c_fill,w_" + thumbnailSize + ",h_" + thumbnailSize + ",q_auto";
+        largeTransformation = "c_limit,w_" + context.getResources().getDisplayMetrics().widthPixels
+                + ",q_auto";
+    }
+
+    /**
+     * A list row's image, at {@code R.dimen.product_thumbnail_size}.
+     */
+    public void loadThumbnail(String image, ImageView into) {
+        thumbnail(image).into(into);
+    }
+
+    /**
+     * An image as wide as the screen at most, fitted to the view.
+     */
+    public void loadLarge(String image, ImageView into) {
+        RequestBuilder<Drawable> request = isRemote(image)
+                ? glide.load(sizedUrl(image, largeTransformation))
+                : glide.load(drawableFor(image));
+        request.centerCrop()
+                .placeholder(R.drawable.coffee_default)
+                .error(R.drawable.coffee_default)
+                .into(into);
+    }
+
+    /**
+     * A picked image that has not been uploaded yet.
+     */
+    public void loadPreview(Uri uri, ImageView into) {
+        glide.load(uri)
+                .centerCrop()
+                .into(into);
+    }
+
+    /**
+     * A scroll listener that starts loading the thumbnails of the rows about to
+     * scroll into view. The requests match {@link #loadThumbnail}, so binding
+     * those rows finds the images in the memory cache.
+     *
+     * @param images the image of the row at a position, or null for none
+     * @param ahead  how many rows past the visible ones to load
+     */
+    public RecyclerView.OnScrollListener createPreloader(IntFunction<String> images, int ahead) {
+        ListPreloader.PreloadModelProvider<String> provider = new ListPreloader.PreloadModelProvider<String>() {
+            @NonNull
+            @Override
+            public List<String> getPreloadItems(int position) {
+                String image = images.apply(position);
+                return image == null ? Collections.emptyList() : Collections.singletonList(image);
+            }
+
+            @Nullable
+            @Override
+            public RequestBuilder<?> getPreloadRequestBuilder(@NonNull String image) {
+                return thumbnail(image);
+            }
+        };
+        return new RecyclerViewPreloader<>(glide, provider,
+                new FixedPreloadSizeProvider<>(thumbnailSize, thumbnailSize), ahead);
+    }
+
+    private RequestBuilder<Drawable> thumbnail(String image) {
+        RequestBuilder<Drawable> request = thumbnailRequests.get(image);
+        if (request == null) {
+            request = buildThumbnail(image);
+            thumbnailRequests.put(image, request);
+        }
+        return request;
+    }
+
+    private RequestBuilder<Drawable> buildThumbnail(String image) {
+        RequestBuilder<Drawable> request = isRemote(image)
+                ? glide.load(sizedUrl(image, thumbnailTransformation))
+                : glide.load(thumbnailFor(image));
+        return request
+                .override(thumbnailSize)
+                .centerCrop()
+                .placeholder(R.drawable.coffee_default_thumb)
+                .error(R.drawable.coffee_default_thumb);
+    }
+
+    public static boolean isRemote(String image) {
+        return image != null && (image.startsWith("http://") || image.startsWith("https://"));
+    }
+
+    /**
+     * Puts transformation into a Cloudinary delivery URL. Other URLs are
+     * returned as they are.
+     */
+    static String sizedUrl(String url, String transformation) {
+        int at = url.indexOf(CLOUDINARY_UPLOAD);
+        if (at < 0) {
+            return url;
+        }
+        int end = at + CLOUDINARY_UPLOAD.length();
+        return url.substring(0, end) + transformation + "/" + url.substring(end);
+    }
+
+    @DrawableRes
+    static int drawableFor(String imageName) {
+        return BundledImage.named(imageName).full;
+    }
+
+    @DrawableRes
+    static int thumbnailFor(String imageName) {
+        return BundledImage.named(imageName).thumbnail;
+    }
+
+    /**
+     * The catalog images shipped with the app, generated at build time from
+     * src/main/menu-images into density buckets, each with a list-sized copy.
+     */
+    enum BundledImage {
+        AMERICANO(R.drawable.americano, R.drawable.americano_thumb),
+        CAPPUCCINO(R.drawable.cappuccino, R.drawable.cappuccino_thumb),
+        COLDBREW(R.drawable.coldbrew, R.drawable.coldbrew_thumb),
+        ESPRESSO(R.drawable.espresso, R.drawable.espresso_thumb),
+        FLATWHITE(R.drawable.flatwhite, R.drawable.flatwhite_thumb),
+        LATTE(R.drawable.latte, R.drawable.latte_thumb),
+        MACCHIATO(R.drawable.macchiato, R.drawable.macchiato_thumb),
+        MOCHA(R.drawable.mocha, R.drawable.mocha_thumb),
+        COFFEE_DEFAULT(R.drawable.coffee_default, R.drawable.coffee_default_thumb);
+
+        private static final BundledImage[] ALL = values();
+
+        @DrawableRes
+        final int full;
+        @DrawableRes
+        final int thumbnail;
+
+        BundledImage(@DrawableRes int full, @DrawableRes int thumbnail) {
+            this.full = full;
+            this.thumbnail = thumbnail;
+        }
+
+        // Products store the image name in any case; unknown names get the default
+        static BundledImage named(String imageName) {
+            for (BundledImage image : ALL) {
+                if (image.name().equalsIgnoreCase(imageName)) {
+                    return image;
+                }
+            }
+            return COFFEE_DEFAULT;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.coffeeshop.views;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+import com.example.coffeeshop.R;
+import com.example.coffeeshop.models.OrderHeatmap;
+import java.text.DateFormatSymbols;
+import java.util.Calendar;
+import java.util.Locale;
+
+/**
+ * Weekdays down the side, hours across the top, each cell shaded by its share
+ * of the busiest hour. Cells are square, so the view is as tall as the width
+ * makes them.
+ */
+public class OrderHeatmapView extends View {
+
+    // Hours labelled across the top; every hour would not fit on a phone
+    private static final int HOUR_LABEL_STEP = 3;
+    // Weekday names from Monday, in Calendar's numbering
+    private static final int[] WEEKDAYS = {Calendar.MONDAY, Calendar.TUESDAY, Calendar.WEDNESDAY,
+            Calendar.THURSDAY, Calendar.FRIDAY, Calendar.SATURDAY, Calendar.SUNDAY};
+
+    private final Paint cellPaint = new Paint();
+    private final Paint emptyPaint = new Paint();
+    private final Paint labelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final String[] dayLabels = new String[OrderHeatmap.DAYS];
+    private final String[] hourLabels = new String[OrderHeatmap.HOURS];
+    private final float gap;
+    private final float labelWidth;
+    private final int busyColor;
+
+    private OrderHeatmap heatmap = OrderHeatmap.EMPTY;
+
+    public OrderHeatmapView(Context context) {
+        this(context, null);
+    }
+
+    public OrderHeatmapView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        busyColor = ContextCompat.getColor(context, R.color.primary);
+        emptyPaint.setColor(ContextCompat.getColor(context, R.color.WarmCream));
+        labelPaint.setColor(ContextCompat.getColor(context, R.color.textSecondary));
+        labelPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 10,
+                getResources().getDisplayMetrics()));
+        gap = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 2,
+                getResources().getDisplayMetrics());
+
+        String[] names = new DateFormatSymbols(Locale.getDefault()).getShortWeekdays();
+        float widest = 0;
+        for (int i = 0; i < WEEKDAYS.length; i++) {
+            dayLabels[i] = names[WEEKDAYS[i]];
+            widest = Math.max(widest, labelPaint.measureText(dayLabels[i]));
+        }
+        labelWidth = widest + gap * 2;
+        for (int hour = 0; hour < OrderHeatmap.HOURS; hour++) {
+            hourLabels[hour] = String.valueOf(hour);
+        }
+    }
+
+    public void setHeatmap(OrderHeatmap heatmap) {
+        this.heatmap = heatmap;
+        invalidate();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        float cell = cellSize(width);
+        int height = (int) Math.ceil(getPaddingTop() + headerHeight() + cell * OrderHeatmap.DAYS
+                + getPaddingBottom());
+        setMeasuredDimension(width, resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+        float cell = cellSize(getWidth());
+        float left = getPaddingLeft() + labelWidth;
+        float top = getPaddingTop() + headerHeight();
+        int max = heatmap.getMax();
+
+        labelPaint.setTextAlign(Paint.Align.CENTER);
+        for (int hour = 0; hour < OrderHeatmap.HOURS; hour += HOUR_LABEL_STEP) {
+            canvas.drawText(hourLabels[hour], left + cell * hour + cell / 2,
+                    top - gap * 2, labelPaint);
+        }
+
+        labelPaint.setTextAlign(Paint.Align.LEFT);
+        for (int day = 0; day < OrderHeatmap.DAYS; day++) {
+            float y = top + cell * day;
+            canvas.drawText(dayLabels[day], getPaddingLeft(),
+                    y + cell / 2 + labelPaint.getTextSize() / 3, labelPaint);
+            for (int hour = 0; hour < OrderHeatmap.HOURS; hour++) {
+                int count = heatmap.getCount(day, hour);
+                Paint paint = emptyPaint;
+                if (count > 0) {
+                    // Even the quietest hour with orders stays visible against an empty one
+                    int alpha = 48 + Math.round(207f * count / max);
+                    cellPaint.setColor(Color.argb(alpha, Color.red(busyColor),
+                            Color.green(busyColor), Color.blue(busyColor)));
+                    paint = cellPaint;
+                }
+                float x = left + cell * hour;
+                canvas.drawRect(x, y, x + cell - gap, y + cell - gap, paint);
+            }
+        }
+    }
+
+    private float cellSize(int width) {
+        return Math.max(0, width - getPaddingLeft() - getPaddingRight() - labelWidth) / OrderHeatmap.HOURS;
+    }
+
+    private float headerHeight() {
+        return labelPaint.getTextSize() + gap * 3;
+    }
+}
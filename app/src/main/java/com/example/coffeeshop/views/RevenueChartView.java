@@ -0,0 +1,120 @@
+package com.example.coffeeshop.views;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+import com.example.coffeeshop.R;
+import com.example.coffeeshop.models.RevenuePoint;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Bar chart of a revenue series, one bar per bucket with its date underneath.
+ * Labels that would overlap are thinned out, and the tallest bar is labelled
+ * with its amount. Everything is measured in setSeries so drawing allocates
+ * nothing.
+ */
+public class RevenueChartView extends View {
+
+    private final Paint barPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint axisPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint labelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final float gap;
+
+    private double[] values = new double[0];
+    private String[] labels = new String[0];
+    private String maxLabel = "";
+    private double max;
+    private float widestLabel;
+
+    public RevenueChartView(Context context) {
+        this(context, null);
+    }
+
+    public RevenueChartView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        barPaint.setColor(ContextCompat.getColor(context, R.color.primary));
+        axisPaint.setColor(ContextCompat.getColor(context, R.color.textSecondary));
+        axisPaint.setStrokeWidth(dp(1));
+        labelPaint.setColor(ContextCompat.getColor(context, R.color.textSecondary));
+        labelPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 10,
+                getResources().getDisplayMetrics()));
+        labelPaint.setTextAlign(Paint.Align.CENTER);
+        gap = dp(4);
+    }
+
+    /**
+     * @param labelPattern SimpleDateFormat pattern for the date under each bar
+     */
+    public void setSeries(List<RevenuePoint> series, String labelPattern) {
+        SimpleDateFormat format = new SimpleDateFormat(labelPattern, Locale.getDefault());
+        values = new double[series.size()];
+        labels = new String[series.size()];
+        max = 0;
+        widestLabel = 0;
+        Date date = new Date();
+        for (int i = 0; i < series.size(); i++) {
+            RevenuePoint point = series.get(i);
+            values[i] = point.getRevenue();
+            max = Math.max(max, values[i]);
+            date.setTime(point.getStart());
+            labels[i] = format.format(date);
+            widestLabel = Math.max(widestLabel, labelPaint.measureText(labels[i]));
+        }
+        maxLabel = String.format(Locale.getDefault(), "$%.2f", max);
+        invalidate();
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+        if (values.length == 0) {
+            return;
+        }
+        float left = getPaddingLeft();
+        float right = getWidth() - getPaddingRight();
+        float textHeight = labelPaint.getTextSize();
+        float top = getPaddingTop() + textHeight + gap;
+        float baseline = getHeight() - getPaddingBottom() - textHeight - gap;
+        float slot = (right - left) / values.length;
+        float barWidth = Math.max(1, slot - Math.min(gap, slot / 3));
+        // Every step-th label fits without running into its neighbours
+        int step = (int) Math.ceil((widestLabel + gap) / slot);
+
+        for (int i = 0; i < values.length; i++) {
+            float center = left + slot * i + slot / 2;
+            if (max > 0 && values[i] > 0) {
+                float height = (float) (values[i] / max) * (baseline - top);
+                canvas.drawRect(center - barWidth / 2, baseline - height,
+                        center + barWidth / 2, baseline, barPaint);
+                if (values[i] == max) {
+                    canvas.drawText(maxLabel, clamp(center, left, right, maxLabel),
+                            baseline - height - gap, labelPaint);
+                }
+            }
+            if (i % step == 0) {
+                canvas.drawText(labels[i], center, baseline + gap + textHeight, labelPaint);
+            }
+        }
+        canvas.drawLine(left, baseline, right, baseline, axisPaint);
+    }
+
+    // Keeps centred text inside [left, right]
+    private float clamp(float center, float left, float right, String text) {
+        float half = labelPaint.measureText(text) / 2;
+        return Math.max(left + half, Math.min(right - half, center));
+    }
+
+    private float dp(float value) {
+        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, value,
+                getResources().getDisplayMetrics());
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.coffeeshop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Activity;
+import android.os.Looper;
+import com.example.coffeeshop.database.CoffeeShopRepository;
+import com.example.coffeeshop.database.MainThreadRecordingDatabaseHelper;
+import com.example.coffeeshop.database.DatabaseTestSupport;
+import com.example.coffeeshop.utils.SessionManager;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class MainThreadDatabaseAccessTest {
+
+    private MainThreadRecordingDatabaseHelper dbHelper;
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        dbHelper = new MainThreadRecordingDatabaseHelper(RuntimeEnvironment.getApplication());
+        executor = Executors.newFixedThreadPool(2);
+        CoffeeShopRepository.setInstance(DatabaseTestSupport.createRepository(dbHelper, executor));
+
+        SessionManager session = SessionManager.getInstance(RuntimeEnvironment.getApplication());
+        session.setUserId(1);
+        session.setUserName("Admin User");
+        session.setUserRole("admin");
+    }
+
+    @After
+    public void tearDown() {
+        CoffeeShopRepository.setInstance(null);
+        executor.shutdownNow();
+        dbHelper.close();
+    }
+
+    @Test
+    public void productListNeverQueriesOnMainThread() throws Exception {
+        assertNoMainThreadAccess(ProductListActivity.class);
+    }
+
+    @Test
+    public void cartNeverQueriesOnMainThread() throws Exception {
+        assertNoMainThreadAccess(CartActivity.class);
+    }
+
+    @Test
+    public void orderManagementNeverQueriesOnMainThread() throws Exception {
+        assertNoMainThreadAccess(OrderManagementActivity.class);
+    }
+
+    @Test
+    public void revenueNeverQueriesOnMainThread() throws Exception {
+        assertNoMainThreadAccess(RevenueActivity.class);
+    }
+
+    private void assertNoMainThreadAccess(Class<? extends Activity> activityClass) throws Exception {
+        Robolectric.buildActivity(activityClass).setup();
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertEquals(0, dbHelper.mainThreadAccesses.get());
+        assertTrue(dbHelper.backgroundAccesses.get() > 0);
+    }
+}
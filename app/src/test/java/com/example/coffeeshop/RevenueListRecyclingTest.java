@@ -0,0 +1,145 @@
+package com.example.coffeeshop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.DatePickerDialog;
+import android.content.DialogInterface;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Looper;
+import android.view.View;
+import android.widget.TextView;
+import androidx.recyclerview.widget.RecyclerView;
+import com.example.coffeeshop.database.CoffeeShopRepository;
+import com.example.coffeeshop.database.DatabaseHelper;
+import com.example.coffeeshop.database.DatabaseTestSupport;
+import com.example.coffeeshop.database.OrderAnalytics;
+import com.example.coffeeshop.database.OrderPagingSource;
+import com.example.coffeeshop.utils.SessionManager;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.shadows.ShadowDialog;
+
+/**
+ * A year with many orders must only create and bind the rows that fit on screen.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class RevenueListRecyclingTest {
+
+    private static final String DB_NAME = "revenue_recycling_test.db";
+    private static final int ORDERS = 600;
+
+    private DatabaseHelper dbHelper;
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        RuntimeEnvironment.getApplication().deleteDatabase(DB_NAME);
+        dbHelper = DatabaseTestSupport.openHelper(RuntimeEnvironment.getApplication(), DB_NAME);
+        executor = Executors.newFixedThreadPool(2);
+        CoffeeShopRepository.setInstance(DatabaseTestSupport.createRepository(dbHelper, executor));
+
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < ORDERS; i++) {
+                dbHelper.createOrder(1, 3.0, "accepted");
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        SessionManager session = SessionManager.getInstance(RuntimeEnvironment.getApplication());
+        session.setUserId(1);
+        session.setUserName("Admin User");
+        session.setUserRole("admin");
+    }
+
+    @After
+    public void tearDown() {
+        CoffeeShopRepository.setInstance(null);
+        executor.shutdownNow();
+        dbHelper.close();
+        RuntimeEnvironment.getApplication().deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void boundOrderViewsFollowTheViewportNotTheResultSize() {
+        RevenueActivity activity = Robolectric.buildActivity(RevenueActivity.class).setup().get();
+        RecyclerView list = activity.findViewById(R.id.rv_orders);
+        AtomicInteger attached = new AtomicInteger();
+        list.addOnChildAttachStateChangeListener(new RecyclerView.OnChildAttachStateChangeListener() {
+            @Override
+            public void onChildViewAttachedToWindow(View view) {
+                attached.incrementAndGet();
+            }
+
+            @Override
+            public void onChildViewDetachedFromWindow(View view) {
+            }
+        });
+
+        // Filter by this year through the UI
+        activity.findViewById(R.id.radio_year).performClick();
+        activity.findViewById(R.id.btn_select_date).performClick();
+        DatePickerDialog picker = (DatePickerDialog) ShadowDialog.getLatestDialog();
+        picker.getButton(DialogInterface.BUTTON_POSITIVE).performClick();
+        waitUntil(() -> list.getAdapter().getItemCount() > 1);
+        waitUntil(() -> false); // let any follow-up page loads settle
+
+        int loadedOrders = list.getAdapter().getItemCount() - 1;
+        int children = list.getChildCount();
+        assertEquals("only the first page is fetched", OrderPagingSource.DEFAULT_PAGE_SIZE, loadedOrders);
+        assertTrue("laid out " + children + " rows", children < 15);
+        assertTrue("attached " + attached.get() + " rows for " + ORDERS + " orders",
+                attached.get() < 15);
+    }
+
+    @Test
+    public void topCustomersComeFromTheOrderColumnsAndLeaveWithTheScreen() {
+        ActivityController<RevenueActivity> controller = Robolectric.buildActivity(RevenueActivity.class).setup();
+        RevenueActivity activity = controller.get();
+        RecyclerView list = activity.findViewById(R.id.rv_orders);
+
+        activity.findViewById(R.id.radio_year).performClick();
+        activity.findViewById(R.id.btn_select_date).performClick();
+        DatePickerDialog picker = (DatePickerDialog) ShadowDialog.getLatestDialog();
+        picker.getButton(DialogInterface.BUTTON_POSITIVE).performClick();
+        TextView topCustomers = list.getChildAt(0).findViewById(R.id.tv_top_customers);
+        waitUntil(() -> topCustomers.getVisibility() == View.VISIBLE);
+
+        assertEquals(View.VISIBLE, topCustomers.getVisibility());
+        assertTrue(topCustomers.getText().toString(), topCustomers.getText().toString()
+                .contains(activity.getString(R.string.top_customer_row, 1, ORDERS, ORDERS * 3.0)));
+
+        OrderAnalytics loaded = dbHelper.getOrderAnalytics();
+        activity.finish();
+        controller.pause().stop().destroy();
+        assertNotSame("finishing the screen drops the loaded columns", loaded, dbHelper.getOrderAnalytics());
+    }
+
+    private interface Condition {
+        boolean met();
+    }
+
+    private static void waitUntil(Condition condition) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(1000);
+        while (!condition.met() && System.nanoTime() < deadline) {
+            shadowOf(Looper.getMainLooper()).idle();
+            Thread.yield();
+        }
+    }
+}
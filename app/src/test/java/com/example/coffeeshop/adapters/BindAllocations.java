@@ -0,0 +1,33 @@
+package com.example.coffeeshop.adapters;
+
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures what binding allocates. Robolectric has no ART allocation counter,
+ * so this reads the JVM's per-thread allocated-bytes counter instead.
+ */
+final class BindAllocations {
+
+    static final int ROWS = 10_000;
+    // As many holders as a screen recycles through while scrolling
+    static final int HOLDERS = 12;
+    // Less than the smallest object per row, so no bind may allocate at all
+    static final long MAX_BYTES_PER_ROW = 16;
+
+    private BindAllocations() {}
+
+    /** Bytes the current thread allocated while running work. */
+    static long measure(Runnable work) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        work.run();
+        return threads.getThreadAllocatedBytes(thread) - before;
+    }
+}
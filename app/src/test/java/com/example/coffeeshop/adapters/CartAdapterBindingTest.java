@@ -0,0 +1,98 @@
+package com.example.coffeeshop.adapters;
+
+import static com.example.coffeeshop.adapters.BindAllocations.HOLDERS;
+import static com.example.coffeeshop.adapters.BindAllocations.ROWS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Activity;
+import android.widget.FrameLayout;
+import com.example.coffeeshop.models.CartItem;
+import com.example.coffeeshop.models.Product;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Binding a cart row must only set text the line already holds. Quantity
+ * changes rebind the row without asking for its image again.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CartAdapterBindingTest {
+
+    private Activity activity;
+    private CountingImageLoader images;
+
+    @Before
+    public void setup() {
+        activity = Robolectric.buildActivity(Activity.class).setup().get();
+        images = new CountingImageLoader(activity);
+    }
+
+    @Test
+    public void scrollingTenThousandRowsAllocatesNearlyNothing() {
+        List<CartItem> items = items(ROWS);
+        CartAdapter adapter = new CartAdapter(activity, items, null, images);
+        CartAdapter.CartViewHolder[] holders = createHolders(adapter);
+        // A first pass, so only steady-state binding is measured
+        bindAll(adapter, holders);
+
+        long allocated = BindAllocations.measure(() -> bindAll(adapter, holders));
+
+        assertTrue("allocated " + allocated + " bytes binding " + ROWS + " rows",
+                allocated < BindAllocations.MAX_BYTES_PER_ROW * ROWS);
+        CartItem last = items.get(ROWS - 1);
+        CartAdapter.CartViewHolder lastHolder = holders[(ROWS - 1) % HOLDERS];
+        assertSame(last.getSubtotalText(), lastHolder.tvSubtotal.getText());
+        assertSame(last.getQuantityText(), lastHolder.tvQuantity.getText());
+    }
+
+    @Test
+    public void quantityChangesKeepTheImage() {
+        List<CartItem> items = items(1);
+        CartAdapter adapter = new CartAdapter(activity, items, null, images);
+        CartAdapter.CartViewHolder holder = createHolders(adapter)[0];
+        adapter.onBindViewHolder(holder, 0);
+
+        items.get(0).setQuantity(7);
+        adapter.onBindViewHolder(holder, 0);
+
+        assertEquals(1, images.thumbnails);
+        assertEquals("7", holder.tvQuantity.getText().toString());
+    }
+
+    private CartAdapter.CartViewHolder[] createHolders(CartAdapter adapter) {
+        FrameLayout parent = new FrameLayout(activity);
+        CartAdapter.CartViewHolder[] holders = new CartAdapter.CartViewHolder[HOLDERS];
+        for (int i = 0; i < HOLDERS; i++) {
+            holders[i] = adapter.onCreateViewHolder(parent, 0);
+        }
+        return holders;
+    }
+
+    private static void bindAll(CartAdapter adapter, CartAdapter.CartViewHolder[] holders) {
+        for (int position = 0; position < adapter.getItemCount(); position++) {
+            adapter.onBindViewHolder(holders[position % holders.length], position);
+        }
+    }
+
+    // Lines share the catalog's Product instances, as getCartItems returns them
+    private static List<CartItem> items(int count) {
+        Product[] menu = {
+                new Product(1, "Espresso", "Strong and bold", 2.99, "espresso"),
+                new Product(2, "Cappuccino", "Espresso with milk foam", 3.99, "cappuccino"),
+                new Product(3, "Latte", "Espresso with steamed milk", 4.99, "latte"),
+                new Product(4, "Mocha", "Espresso with chocolate", 4.49, "mocha"),
+                new Product(5, "Cold Brew", "Steeped overnight", 3.79, "coldbrew")};
+        List<CartItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new CartItem(i + 1, menu[i % menu.length], 1 + i % 4));
+        }
+        return items;
+    }
+}
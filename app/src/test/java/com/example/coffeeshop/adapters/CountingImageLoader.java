@@ -0,0 +1,23 @@
+package com.example.coffeeshop.adapters;
+
+import android.content.Context;
+import android.widget.ImageView;
+import com.example.coffeeshop.utils.ProductImageLoader;
+
+/**
+ * Counts the thumbnails an adapter asks for instead of loading them, so a test
+ * measures the bind alone.
+ */
+class CountingImageLoader extends ProductImageLoader {
+
+    int thumbnails;
+
+    CountingImageLoader(Context context) {
+        super(context);
+    }
+
+    @Override
+    public void loadThumbnail(String image, ImageView into) {
+        thumbnails++;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.coffeeshop.adapters;
+
+import static com.example.coffeeshop.adapters.BindAllocations.HOLDERS;
+import static com.example.coffeeshop.adapters.BindAllocations.ROWS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Activity;
+import android.os.Looper;
+import android.view.View;
+import android.widget.FrameLayout;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import com.example.coffeeshop.database.OrderFilter;
+import com.example.coffeeshop.database.OrderPagingSource;
+import com.example.coffeeshop.models.Order;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Binding a row must only set text the order already holds; listeners belong
+ * to the holder and find their order when clicked.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(qualifiers = "h1200dp")
+public class OrderAdapterBindingTest {
+
+    private Activity activity;
+
+    @Before
+    public void setup() {
+        activity = Robolectric.buildActivity(Activity.class).setup().get();
+    }
+
+    @Test
+    public void scrollingTenThousandRowsAllocatesNearlyNothing() {
+        List<Order> orders = orders(ROWS);
+        for (Order order : orders) {
+            // What the repository does on its worker for every page it reads
+            order.prepareText();
+        }
+        OrderAdapter adapter = new OrderAdapter(activity, source(orders), new NoOpListener());
+        FrameLayout parent = new FrameLayout(activity);
+        OrderAdapter.OrderViewHolder[] holders = new OrderAdapter.OrderViewHolder[HOLDERS];
+        for (int i = 0; i < HOLDERS; i++) {
+            holders[i] = adapter.onCreateViewHolder(parent, 0);
+        }
+        View.OnClickListener accept = shadowOf(holders[0].btnAccept).getOnClickListener();
+        // A first pass, so only steady-state binding is measured
+        bindAll(adapter, holders);
+
+        long allocated = BindAllocations.measure(() -> bindAll(adapter, holders));
+
+        assertTrue("allocated " + allocated + " bytes binding " + ROWS + " rows",
+                allocated < BindAllocations.MAX_BYTES_PER_ROW * ROWS);
+        assertSame(accept, shadowOf(holders[0].btnAccept).getOnClickListener());
+        Order last = orders.get(ROWS - 1);
+        OrderAdapter.OrderViewHolder lastHolder = holders[(ROWS - 1) % HOLDERS];
+        assertSame(last.getDateText(), lastHolder.tvDate.getText());
+        assertSame(last.getTotalText(), lastHolder.tvAmount.getText());
+    }
+
+    @Test
+    public void clicksFindTheOrderNowInTheRow() {
+        List<Order> orders = orders(3);
+        List<Order> accepted = new ArrayList<>();
+        OrderPagingSource source = source(orders);
+        OrderAdapter adapter = new OrderAdapter(activity, source, new NoOpListener() {
+            @Override
+            public void onAcceptClick(Order order) {
+                accepted.add(order);
+            }
+        });
+        RecyclerView list = new RecyclerView(activity);
+        list.setLayoutManager(new LinearLayoutManager(activity));
+        list.setItemAnimator(null);
+        list.setAdapter(adapter);
+        activity.setContentView(list);
+        shadowOf(Looper.getMainLooper()).idle();
+
+        // The holder bound to the newest order now shows the next one
+        source.start(orders.subList(1, 3));
+        shadowOf(Looper.getMainLooper()).idle();
+        OrderAdapter.OrderViewHolder first =
+                (OrderAdapter.OrderViewHolder) list.findViewHolderForAdapterPosition(0);
+        assertNotNull(first);
+        first.btnAccept.performClick();
+
+        assertEquals(1, accepted.size());
+        assertSame(orders.get(1), accepted.get(0));
+    }
+
+    @Test
+    public void textFollowsAStatusChange() {
+        Order order = orders(1).get(0);
+        assertEquals("Status: PENDING", order.getStatusText());
+
+        order.setStatus("accepted");
+
+        assertEquals("Status: ACCEPTED", order.getStatusText());
+    }
+
+    private static void bindAll(OrderAdapter adapter, OrderAdapter.OrderViewHolder[] holders) {
+        for (int position = 0; position < adapter.getItemCount(); position++) {
+            adapter.onBindViewHolder(holders[position % holders.length], position);
+        }
+    }
+
+    private static OrderPagingSource source(List<Order> orders) {
+        // Everything arrives as the first page, so the source never asks the repository
+        OrderPagingSource source = new OrderPagingSource(null, OrderFilter.pending(),
+                orders.size() + 1, 1);
+        source.start(orders);
+        return source;
+    }
+
+    private static List<Order> orders(int count) {
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            orders.add(new Order(count - i, 1, "Customer " + i, 4.99 + i % 10,
+                    1_700_000_000_000L - i * 60_000L, "pending"));
+        }
+        return orders;
+    }
+
+    private static class NoOpListener implements OrderAdapter.OnOrderActionListener {
+        @Override
+        public void onAcceptClick(Order order) {
+        }
+
+        @Override
+        public void onRejectClick(Order order) {
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.coffeeshop.adapters;
+
+import static com.example.coffeeshop.adapters.BindAllocations.HOLDERS;
+import static com.example.coffeeshop.adapters.BindAllocations.ROWS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Activity;
+import android.widget.FrameLayout;
+import com.example.coffeeshop.models.Product;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Binding a product row must only set text the product already holds, and
+ * only ask for its image when the row shows a different one.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ProductAdapterBindingTest {
+
+    // The menu's images, which a long product list repeats
+    private static final String[] IMAGES = {"espresso", "latte", "cappuccino", "mocha",
+            "americano", "macchiato", "flatwhite", "coldbrew",
+            "https://res.cloudinary.com/demo/image/upload/v1/coffee_shop/special.jpg"};
+
+    private Activity activity;
+    private CountingImageLoader images;
+
+    @Before
+    public void setup() {
+        activity = Robolectric.buildActivity(Activity.class).setup().get();
+        images = new CountingImageLoader(activity);
+    }
+
+    @Test
+    public void scrollingTenThousandRowsAllocatesNearlyNothing() {
+        List<Product> products = products(ROWS);
+        ProductAdapter adapter = new ProductAdapter(activity, products, null, false, images);
+        ProductAdapter.ProductViewHolder[] holders = createHolders(adapter);
+        // A first pass, so only steady-state binding is measured
+        bindAll(adapter, holders);
+
+        long allocated = BindAllocations.measure(() -> bindAll(adapter, holders));
+
+        assertTrue("allocated " + allocated + " bytes binding " + ROWS + " rows",
+                allocated < BindAllocations.MAX_BYTES_PER_ROW * ROWS);
+        Product last = products.get(ROWS - 1);
+        ProductAdapter.ProductViewHolder lastHolder = holders[(ROWS - 1) % HOLDERS];
+        assertSame(last.getPriceText(), lastHolder.tvPrice.getText());
+        assertSame(last.getImageUrl(), lastHolder.image);
+    }
+
+    @Test
+    public void rebindingARowKeepsItsImage() {
+        ProductAdapter adapter = new ProductAdapter(activity, products(2), null, false, images);
+        ProductAdapter.ProductViewHolder holder = createHolders(adapter)[0];
+
+        adapter.onBindViewHolder(holder, 0);
+        adapter.onBindViewHolder(holder, 0);
+        assertEquals(1, images.thumbnails);
+
+        adapter.onBindViewHolder(holder, 1);
+        assertEquals(2, images.thumbnails);
+    }
+
+    @Test
+    public void aProductWithoutAnImageStillGetsTheDefault() {
+        List<Product> products = new ArrayList<>();
+        products.add(new Product(1, "Tea", "", 2.00, null));
+        ProductAdapter adapter = new ProductAdapter(activity, products, null, false, images);
+
+        adapter.onBindViewHolder(createHolders(adapter)[0], 0);
+
+        assertEquals(1, images.thumbnails);
+    }
+
+    private ProductAdapter.ProductViewHolder[] createHolders(ProductAdapter adapter) {
+        FrameLayout parent = new FrameLayout(activity);
+        ProductAdapter.ProductViewHolder[] holders = new ProductAdapter.ProductViewHolder[HOLDERS];
+        for (int i = 0; i < HOLDERS; i++) {
+            holders[i] = adapter.onCreateViewHolder(parent, 0);
+        }
+        return holders;
+    }
+
+    private static void bindAll(ProductAdapter adapter, ProductAdapter.ProductViewHolder[] holders) {
+        for (int position = 0; position < adapter.getItemCount(); position++) {
+            adapter.onBindViewHolder(holders[position % holders.length], position);
+        }
+    }
+
+    private static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(new Product(i + 1, "Coffee " + i, "House blend number " + i,
+                    2.49 + i % 10, IMAGES[i % IMAGES.length]));
+        }
+        return products;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.coffeeshop.adapters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Activity;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import com.example.coffeeshop.models.Product;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Updates must only rebind the rows whose product changed. The screen is tall
+ * enough that every row is on it, so no bind is needed to fill freed space.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(qualifiers = "h1200dp")
+public class ProductAdapterTest {
+
+    private CountingAdapter adapter;
+
+    @Before
+    public void setup() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        RecyclerView list = new RecyclerView(activity);
+        list.setLayoutManager(new LinearLayoutManager(activity));
+        // Change animations bind a second holder; only the adapter's updates are measured
+        list.setItemAnimator(null);
+        adapter = new CountingAdapter(activity);
+        list.setAdapter(adapter);
+        activity.setContentView(list);
+
+        submit(products());
+        assertEquals(4, adapter.getItemCount());
+        assertEquals(4, adapter.binds);
+        adapter.binds = 0;
+    }
+
+    @Test
+    public void reloadingTheSameProductsBindsNothing() {
+        submit(products());
+
+        assertEquals(0, adapter.binds);
+    }
+
+    @Test
+    public void refiningASearchBindsNothing() {
+        List<Product> lattes = new ArrayList<>(products());
+        lattes.remove(0);
+        lattes.remove(0);
+
+        submit(lattes);
+
+        assertEquals(2, adapter.getItemCount());
+        assertEquals(0, adapter.binds);
+    }
+
+    @Test
+    public void editingOneProductBindsOneRow() {
+        List<Product> edited = products();
+        edited.set(2, new Product(3, "Latte", "Espresso with steamed milk", 5.49, "latte"));
+
+        submit(edited);
+
+        assertEquals(1, adapter.binds);
+    }
+
+    @Test
+    public void sortingMovesRowsWithoutBinding() {
+        List<Product> reversed = products();
+        Collections.reverse(reversed);
+
+        submit(reversed);
+
+        assertEquals(0, adapter.binds);
+        assertEquals(4, adapter.getItemId(0));
+    }
+
+    private void submit(List<Product> products) {
+        AtomicBoolean committed = new AtomicBoolean();
+        adapter.updateList(products, () -> committed.set(true));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!committed.get() && System.nanoTime() < deadline) {
+            shadowOf(Looper.getMainLooper()).idle();
+            Thread.yield();
+        }
+        assertTrue(committed.get());
+        // Let the layout pass the update requested run
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    private static List<Product> products() {
+        return new ArrayList<>(Arrays.asList(
+                new Product(1, "Espresso", "Strong and bold", 2.99, "espresso"),
+                new Product(2, "Cappuccino", "Espresso with milk foam", 3.99, "cappuccino"),
+                new Product(3, "Latte", "Espresso with steamed milk", 4.99, "latte"),
+                new Product(4, "Iced Latte", "Latte over ice", 4.79, "latte")));
+    }
+
+    private static class CountingAdapter extends ProductAdapter {
+        int binds;
+
+        CountingAdapter(Activity activity) {
+            super(activity, new ArrayList<>(), null, false);
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull ProductViewHolder holder, int position) {
+            binds++;
+            super.onBindViewHolder(holder, position);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.coffeeshop.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.content.Context;
+import android.os.Looper;
+import com.example.coffeeshop.models.CartItem;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class CartQuantityWriterTest {
+
+    private static final String DB_NAME = "cart_quantity_writer_test.db";
+    private static final long DELAY_MILLIS = 100;
+    private static final int USER_ID = 1;
+
+    private final AtomicInteger writes = new AtomicInteger();
+    private volatile boolean failWrites;
+    private int failedCartId = -1;
+    private int rolledBackTo = -1;
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+    private ExecutorService executor;
+    private CartQuantityWriter writer;
+    private int cartId;
+
+    @Before
+    public void setup() {
+        context = RuntimeEnvironment.getApplication();
+        context.deleteDatabase(DB_NAME);
+        dbHelper = new DatabaseHelper(context, DB_NAME, DatabaseConfig.DEFAULT) {
+            @Override
+            public boolean updateCartItemQuantity(int cartId, int quantity) {
+                writes.incrementAndGet();
+                return !failWrites && super.updateCartItemQuantity(cartId, quantity);
+            }
+        };
+        executor = Executors.newFixedThreadPool(2);
+        writer = new CartQuantityWriter(DatabaseTestSupport.createRepository(dbHelper, executor),
+                (cartId, quantity) -> {
+                    failedCartId = cartId;
+                    rolledBackTo = quantity;
+                }, DELAY_MILLIS);
+
+        assertTrue(dbHelper.addToCart(USER_ID, 1, 1));
+        cartId = dbHelper.getCartItems(USER_ID).get(0).getCartId();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        dbHelper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void rapidTapsBecomeOneWrite() {
+        for (int quantity = 1; quantity < 6; quantity++) {
+            writer.setQuantity(cartId, quantity, quantity + 1);
+        }
+        assertTrue(awaitFlush());
+
+        assertEquals(1, writes.get());
+        assertEquals(6, savedQuantity());
+    }
+
+    @Test
+    public void changesArePendingUntilSaved() {
+        assertFalse(writer.hasPending());
+
+        writer.setQuantity(cartId, 1, 2);
+        assertTrue(writer.hasPending());
+
+        assertTrue(awaitFlush());
+        assertFalse(writer.hasPending());
+    }
+
+    @Test
+    public void tapsThatCancelOutWriteNothing() {
+        writer.setQuantity(cartId, 1, 2);
+        writer.setQuantity(cartId, 2, 1);
+        assertTrue(awaitFlush());
+
+        assertEquals(0, writes.get());
+    }
+
+    @Test
+    public void waitingWritesAreMadeAfterTheDelay() {
+        writer.setQuantity(cartId, 1, 3);
+        assertEquals(0, writes.get());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (savedQuantity() != 3 && System.nanoTime() < deadline) {
+            shadowOf(Looper.getMainLooper()).idleFor(DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            Thread.yield();
+        }
+        assertEquals(3, savedQuantity());
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    public void failedWritesRollBackToTheSavedQuantity() {
+        failWrites = true;
+        writer.setQuantity(cartId, 1, 2);
+        writer.setQuantity(cartId, 2, 3);
+
+        assertFalse(awaitFlush());
+        assertEquals(cartId, failedCartId);
+        assertEquals(1, rolledBackTo);
+        assertEquals(1, savedQuantity());
+    }
+
+    @Test
+    public void forgottenRowsAreNotWritten() {
+        writer.setQuantity(cartId, 1, 4);
+        writer.forget(cartId);
+        assertTrue(awaitFlush());
+
+        assertEquals(0, writes.get());
+        assertEquals(-1, failedCartId);
+    }
+
+    // Flushes and runs main-looper callbacks until every write has finished
+    private boolean awaitFlush() {
+        AtomicReference<Boolean> result = new AtomicReference<>();
+        writer.flush(result::set);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (result.get() == null && System.nanoTime() < deadline) {
+            shadowOf(Looper.getMainLooper()).idle();
+            Thread.yield();
+        }
+        assertTrue("Timed out waiting for writes", result.get() != null);
+        return result.get();
+    }
+
+    private int savedQuantity() {
+        for (CartItem item : dbHelper.getCartItems(USER_ID)) {
+            if (item.getCartId() == cartId) {
+                return item.getQuantity();
+            }
+        }
+        return -1;
+    }
+}
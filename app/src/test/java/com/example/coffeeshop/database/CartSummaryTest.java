@@ -0,0 +1,182 @@
+package com.example.coffeeshop.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import com.example.coffeeshop.models.CartContents;
+import com.example.coffeeshop.models.CartItem;
+import com.example.coffeeshop.models.CartSummary;
+import com.example.coffeeshop.models.Product;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class CartSummaryTest {
+
+    private static final String DB_NAME = "cart_summary_test.db";
+    private static final int USER_ID = 1;
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+
+    @Before
+    public void setup() {
+        context = RuntimeEnvironment.getApplication();
+        context.deleteDatabase(DB_NAME);
+        dbHelper = DatabaseTestSupport.openHelper(context, DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void emptyCartHasAnEmptySummary() {
+        CartSummary summary = dbHelper.getCartSummary(USER_ID);
+
+        assertEquals(0, summary.getLineCount());
+        assertEquals(0, summary.getUnitCount());
+        assertEquals(0, summary.getTotalCents());
+    }
+
+    @Test
+    public void linesUnitsAndTotalAreSummed() {
+        // Sample products: 1 Espresso 2.99, 3 Latte 4.99
+        dbHelper.addToCart(USER_ID, 1, 2);
+        dbHelper.addToCart(USER_ID, 3, 1);
+
+        CartSummary summary = dbHelper.getCartSummary(USER_ID);
+
+        assertEquals(2, summary.getLineCount());
+        assertEquals(3, summary.getUnitCount());
+        assertEquals(1097, summary.getTotalCents());
+    }
+
+    @Test
+    public void totalsAreExactInCents() {
+        assertTrue(dbHelper.addProduct(new Product("Sugar Shot", "", 0.1, "")));
+        int sugar = dbHelper.searchProducts("sugar").get(0).getId();
+        dbHelper.addToCart(USER_ID, sugar, 3);
+
+        // 0.1 * 3 is 0.30000000000000004 as a double
+        assertEquals(30, dbHelper.getCartSummary(USER_ID).getTotalCents());
+        assertEquals(0.3, dbHelper.getCartSummary(USER_ID).getTotal(), 0);
+    }
+
+    @Test
+    public void summaryIsCachedUntilTheCartChanges() {
+        dbHelper.addToCart(USER_ID, 1, 1);
+        CartSummary first = dbHelper.getCartSummary(USER_ID);
+        assertSame(first, dbHelper.getCartSummary(USER_ID));
+
+        dbHelper.addToCart(USER_ID, 1, 1);
+        CartSummary added = dbHelper.getCartSummary(USER_ID);
+        assertNotSame(first, added);
+        assertEquals(2, added.getUnitCount());
+
+        int cartId = dbHelper.getCartItems(USER_ID).get(0).getCartId();
+        dbHelper.updateCartItemQuantity(cartId, 5);
+        assertEquals(5, dbHelper.getCartSummary(USER_ID).getUnitCount());
+
+        dbHelper.removeFromCart(cartId);
+        assertEquals(0, dbHelper.getCartSummary(USER_ID).getUnitCount());
+
+        dbHelper.addToCart(USER_ID, 3, 2);
+        assertEquals(2, dbHelper.getCartSummary(USER_ID).getUnitCount());
+        dbHelper.clearCart(USER_ID);
+        assertEquals(0, dbHelper.getCartSummary(USER_ID).getUnitCount());
+
+        dbHelper.addToCart(USER_ID, 3, 2);
+        assertEquals(2, dbHelper.getCartSummary(USER_ID).getUnitCount());
+        assertTrue(dbHelper.checkout(USER_ID) > 0);
+        assertEquals(0, dbHelper.getCartSummary(USER_ID).getUnitCount());
+    }
+
+    @Test
+    public void priceChangesReachTheTotal() {
+        dbHelper.addToCart(USER_ID, 3, 2);
+        assertEquals(998, dbHelper.getCartSummary(USER_ID).getTotalCents());
+
+        Product latte = dbHelper.getProductById(3);
+        assertTrue(dbHelper.updateProduct(new Product(latte.getId(), latte.getName(),
+                latte.getDescription(), 5.25, latte.getImageUrl())));
+
+        assertEquals(1050, dbHelper.getCartSummary(USER_ID).getTotalCents());
+    }
+
+    @Test
+    public void cartLinesKeepTheirOwnIds() {
+        // The first cart line (id 1) is for Latte, product 3
+        dbHelper.addToCart(USER_ID, 3, 1);
+
+        CartItem line = dbHelper.getCartItems(USER_ID).get(0);
+
+        assertEquals(1, line.getCartId());
+        assertEquals(3, line.getProduct().getId());
+        assertTrue(dbHelper.updateCartItemQuantity(line.getCartId(), 4));
+        assertEquals(4, dbHelper.getCartSummary(USER_ID).getUnitCount());
+    }
+
+    @Test
+    public void contentsSummaryMatchesTheQuery() {
+        assertTrue(dbHelper.addProduct(new Product("Sugar Shot", "", 0.1, "")));
+        int sugar = dbHelper.searchProducts("sugar").get(0).getId();
+        dbHelper.addToCart(USER_ID, sugar, 3);
+        dbHelper.addToCart(USER_ID, 3, 2);
+
+        CartContents contents = dbHelper.getCartContents(USER_ID);
+        CartSummary queried = dbHelper.getCartSummary(USER_ID);
+
+        assertEquals(2, contents.getItems().size());
+        assertEquals(queried.getLineCount(), contents.getSummary().getLineCount());
+        assertEquals(queried.getUnitCount(), contents.getSummary().getUnitCount());
+        assertEquals(queried.getTotalCents(), contents.getSummary().getTotalCents());
+    }
+
+    @Test
+    public void unitCountNeedsNoSummary() {
+        dbHelper.addToCart(USER_ID, 1, 2);
+        dbHelper.addToCart(USER_ID, 3, 1);
+
+        assertEquals(3, dbHelper.getCartUnitCount(USER_ID));
+        assertEquals(0, dbHelper.getCartUnitCount(USER_ID + 1));
+
+        int cartId = dbHelper.getCartItems(USER_ID).get(0).getCartId();
+        dbHelper.updateCartItemQuantity(cartId, 5);
+        assertEquals(6, dbHelper.getCartUnitCount(USER_ID));
+    }
+
+    @Test
+    public void contentsShareTheCachedSummary() {
+        dbHelper.addToCart(USER_ID, 1, 2);
+
+        CartContents contents = dbHelper.getCartContents(USER_ID);
+        assertSame(contents.getSummary(), dbHelper.getCartSummary(USER_ID));
+        assertSame(contents.getSummary(), dbHelper.getCartContents(USER_ID).getSummary());
+
+        dbHelper.addToCart(USER_ID, 1, 1);
+        CartContents added = dbHelper.getCartContents(USER_ID);
+        assertEquals(3, added.getSummary().getUnitCount());
+        assertSame(added.getSummary(), dbHelper.getCartSummary(USER_ID));
+    }
+
+    @Test
+    public void quantityChangesAdjustInCents() {
+        CartSummary summary = new CartSummary(1, 1, 10);
+
+        CartSummary changed = summary.withQuantityChange(0.1, 2);
+
+        assertEquals(1, changed.getLineCount());
+        assertEquals(3, changed.getUnitCount());
+        assertEquals(30, changed.getTotalCents());
+    }
+}
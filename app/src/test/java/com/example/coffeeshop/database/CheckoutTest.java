@@ -0,0 +1,89 @@
+package com.example.coffeeshop.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import com.example.coffeeshop.models.Order;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class CheckoutTest {
+
+    private static final String DB_NAME = "checkout_test.db";
+    private static final int USER_ID = 1;
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+
+    @Before
+    public void setup() {
+        context = RuntimeEnvironment.getApplication();
+        context.deleteDatabase(DB_NAME);
+        dbHelper = DatabaseTestSupport.openHelper(context, DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void checkoutSnapshotsTheCartIntoOneOrder() {
+        // Sample products: 1 Espresso 2.99, 3 Latte 4.99
+        dbHelper.addToCart(USER_ID, 1, 2);
+        dbHelper.addToCart(USER_ID, 3, 1);
+
+        long orderId = dbHelper.checkout(USER_ID);
+
+        assertTrue(orderId > 0);
+        List<Order> pending = dbHelper.getPendingOrders();
+        assertEquals(1, pending.size());
+        assertEquals(orderId, pending.get(0).getId());
+        assertEquals(10.97, pending.get(0).getTotalAmount(), 0.001);
+        assertEquals(0, dbHelper.getCartItems(USER_ID).size());
+
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        Cursor items = db.rawQuery("SELECT product_id, quantity, unit_price FROM order_items " +
+                "WHERE order_id = ? ORDER BY product_id", new String[]{String.valueOf(orderId)});
+        assertEquals(2, items.getCount());
+        items.moveToFirst();
+        assertEquals(1, items.getInt(0));
+        assertEquals(2, items.getInt(1));
+        assertEquals(2.99, items.getDouble(2), 0.001);
+        items.moveToNext();
+        assertEquals(3, items.getInt(0));
+        assertEquals(1, items.getInt(1));
+        assertEquals(4.99, items.getDouble(2), 0.001);
+        items.close();
+    }
+
+    @Test
+    public void itemsKeepThePriceTheOrderWasPlacedAt() {
+        dbHelper.addToCart(USER_ID, 1, 1);
+        long orderId = dbHelper.checkout(USER_ID);
+        dbHelper.getWritableDatabase().execSQL("UPDATE products SET price = 9.99 WHERE id = 1");
+
+        Cursor items = dbHelper.getReadableDatabase().rawQuery(
+                "SELECT unit_price FROM order_items WHERE order_id = ?",
+                new String[]{String.valueOf(orderId)});
+        assertTrue(items.moveToFirst());
+        assertEquals(2.99, items.getDouble(0), 0.001);
+        items.close();
+    }
+
+    @Test
+    public void emptyCartPlacesNoOrder() {
+        assertEquals(-1, dbHelper.checkout(USER_ID));
+        assertEquals(0, dbHelper.getPendingOrders().size());
+    }
+}
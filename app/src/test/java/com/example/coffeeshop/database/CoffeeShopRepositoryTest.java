@@ -0,0 +1,110 @@
+package com.example.coffeeshop.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.database.sqlite.SQLiteException;
+import android.os.Looper;
+import com.example.coffeeshop.models.CartItem;
+import com.example.coffeeshop.models.Product;
+import com.example.coffeeshop.models.User;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class CoffeeShopRepositoryTest {
+
+    private MainThreadRecordingDatabaseHelper dbHelper;
+    private ExecutorService executor;
+    private CoffeeShopRepository repository;
+
+    @Before
+    public void setup() {
+        dbHelper = new MainThreadRecordingDatabaseHelper(RuntimeEnvironment.getApplication());
+        executor = Executors.newFixedThreadPool(2);
+        repository = new CoffeeShopRepository(dbHelper, executor);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        dbHelper.close();
+    }
+
+    @Test
+    public void queriesRunOffTheMainThread() {
+        User admin = await(cb -> repository.loginUser("admin@coffeeshop.com", "123", cb));
+        List<Product> products = await(repository::getAllProducts);
+        Boolean added = await(cb -> repository.addToCart(admin.getId(), products.get(0).getId(), 2, cb));
+        List<CartItem> cart = await(cb -> repository.getCartItems(admin.getId(), cb));
+        Boolean placed = await(cb -> repository.placeOrder(admin.getId(), cb));
+
+        assertNotNull(admin);
+        assertFalse(products.isEmpty());
+        assertTrue(added);
+        assertEquals(1, cart.size());
+        assertTrue(placed);
+        assertEquals(0, dbHelper.mainThreadAccesses.get());
+        assertTrue(dbHelper.backgroundAccesses.get() > 0);
+    }
+
+    @Test
+    public void callbacksAreDeliveredOnTheMainThread() {
+        AtomicBoolean onMainThread = new AtomicBoolean(false);
+        await(cb -> repository.getPendingOrders(orders -> {
+            onMainThread.set(Looper.myLooper() == Looper.getMainLooper());
+            cb.onResult(orders);
+        }));
+
+        assertTrue(onMainThread.get());
+    }
+
+    @Test
+    public void failedTaskDeliversFallback() {
+        DatabaseHelper failing = new DatabaseHelper(RuntimeEnvironment.getApplication()) {
+            @Override
+            public boolean updateOrderStatus(int orderId, String status) {
+                throw new SQLiteException("disk I/O error");
+            }
+        };
+        repository = new CoffeeShopRepository(failing, executor);
+
+        Boolean result = await(cb -> repository.updateOrderStatus(1, "accepted", cb));
+
+        assertFalse(result);
+        failing.close();
+    }
+
+    private interface Call<T> {
+        void start(CoffeeShopRepository.Callback<T> callback);
+    }
+
+    private static <T> T await(Call<T> call) {
+        AtomicReference<T> result = new AtomicReference<>();
+        AtomicBoolean done = new AtomicBoolean(false);
+        call.start(value -> {
+            result.set(value);
+            done.set(true);
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!done.get() && System.nanoTime() < deadline) {
+            shadowOf(Looper.getMainLooper()).idle();
+            Thread.yield();
+        }
+        assertTrue("Timed out waiting for repository callback", done.get());
+        return result.get();
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.coffeeshop.database;
+
+import android.content.Context;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Gives tests outside this package access to package-private constructors.
+ */
+public final class DatabaseTestSupport {
+
+    private DatabaseTestSupport() {}
+
+    public static CoffeeShopRepository createRepository(DatabaseHelper databaseHelper,
+                                                        ExecutorService executor) {
+        return new CoffeeShopRepository(databaseHelper, executor);
+    }
+
+    public static DatabaseHelper openHelper(Context context, String databaseName) {
+        return new DatabaseHelper(context, databaseName, DatabaseConfig.DEFAULT);
+    }
+}
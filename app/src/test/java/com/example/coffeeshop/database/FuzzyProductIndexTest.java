@@ -0,0 +1,64 @@
+package com.example.coffeeshop.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.coffeeshop.models.Product;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class FuzzyProductIndexTest {
+
+    private static final String CA_PHE_SUA_DA = "C\u00e0 ph\u00ea s\u1eefa \u0111\u00e1";
+
+    private final FuzzyProductIndex index = new FuzzyProductIndex(Arrays.asList(
+            new Product(1, "Cappuccino", "Espresso with steamed milk foam", 4.49, "cappuccino"),
+            new Product(2, "Caramel Macchiato", "Espresso with vanilla and caramel", 5.29, "macchiato"),
+            new Product(3, CA_PHE_SUA_DA, "Vietnamese iced coffee", 3.49, "coldbrew"),
+            new Product(4, "Matcha Latte", "Green tea with milk", 4.99, "latte"),
+            new Product(5, "Capuchin Blend", "House blend", 3.99, "espresso")));
+
+    @Test
+    public void typosWithinTheEditBudgetMatch() {
+        assertEquals(names("Cappuccino"), names(index.search(ProductSearchIndex.words("cappucino"))));
+        // Swapped letters count as one edit
+        assertEquals(names("Cappuccino"), names(index.search(ProductSearchIndex.words("cpapucc"))));
+        assertEquals(names("Matcha Latte"), names(index.search(ProductSearchIndex.words("macha"))));
+    }
+
+    @Test
+    public void everyWordMustMatchAndCloserMatchesComeFirst() {
+        assertEquals(names(CA_PHE_SUA_DA), names(index.search(ProductSearchIndex.words("ca phe sua"))));
+        assertEquals(names("Capuchin Blend", "Cappuccino"),
+                names(index.search(ProductSearchIndex.words("capuc"))));
+    }
+
+    @Test
+    public void shortWordsMustMatchExactly() {
+        assertEquals(0, index.search(ProductSearchIndex.words("tes")).size());
+        assertEquals(names("Matcha Latte"), names(index.search(ProductSearchIndex.words("tea"))));
+    }
+
+    @Test
+    public void prefixDistanceIsBounded() {
+        assertEquals(0, FuzzyProductIndex.prefixDistance("capp", "cappuccino", 1));
+        assertEquals(1, FuzzyProductIndex.prefixDistance("cpap", "cappuccino", 1));
+        assertTrue(FuzzyProductIndex.prefixDistance("latte", "cappuccino", 2) > 2);
+    }
+
+    private static List<String> names(String... names) {
+        return Arrays.asList(names);
+    }
+
+    private static List<String> names(List<Product> products) {
+        String[] names = new String[products.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = products.get(i).getName();
+        }
+        return Arrays.asList(names);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.coffeeshop.database;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Looper;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DatabaseHelper that counts how often a connection is requested on the main
+ * thread versus a background thread.
+ */
+public class MainThreadRecordingDatabaseHelper extends DatabaseHelper {
+
+    public final AtomicInteger mainThreadAccesses = new AtomicInteger();
+    public final AtomicInteger backgroundAccesses = new AtomicInteger();
+
+    public MainThreadRecordingDatabaseHelper(Context context) {
+        super(context);
+    }
+
+    @Override
+    public SQLiteDatabase getReadableDatabase() {
+        record();
+        return super.getReadableDatabase();
+    }
+
+    @Override
+    public SQLiteDatabase getWritableDatabase() {
+        record();
+        return super.getWritableDatabase();
+    }
+
+    private void record() {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            mainThreadAccesses.incrementAndGet();
+        } else {
+            backgroundAccesses.incrementAndGet();
+        }
+    }
+}
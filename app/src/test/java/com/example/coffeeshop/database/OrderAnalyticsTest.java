@@ -0,0 +1,160 @@
+package com.example.coffeeshop.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+import com.example.coffeeshop.models.CustomerTotal;
+import com.example.coffeeshop.models.RevenuePoint;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class OrderAnalyticsTest {
+
+    private static final String DB_NAME = "order_analytics_test.db";
+    private static final String[] STATUSES = {"pending", "accepted", "rejected"};
+    private static final int ORDERS = 400;
+    // Small enough that the generated orders are scanned in many parallel slices
+    private static final int SLICE = 16;
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+
+    @Before
+    public void setup() {
+        context = RuntimeEnvironment.getApplication();
+        context.deleteDatabase(DB_NAME);
+        dbHelper = DatabaseTestSupport.openHelper(context, DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void parallelScansMatchTheSqlReports() {
+        generateOrders();
+        OrderAnalytics analytics = new OrderAnalytics(ForkJoinPool.commonPool(), SLICE);
+        analytics.load(dbHelper.getWritableDatabase());
+        assertEquals(ORDERS, analytics.getSize());
+
+        OrderFilter year = OrderFilter.acceptedInYear(2025);
+        assertSameSeries(dbHelper.getRevenueSeries(year, RevenueBucket.MONTH),
+                analytics.getRevenueSeries(year, RevenueBucket.MONTH));
+        OrderFilter june = OrderFilter.acceptedInMonth(2025, 6);
+        assertSameSeries(dbHelper.getRevenueSeries(june, RevenueBucket.DAY),
+                analytics.getRevenueSeries(june, RevenueBucket.DAY));
+        assertSameSeries(dbHelper.getRevenueSeries(june, RevenueBucket.WEEK),
+                analytics.getRevenueSeries(june, RevenueBucket.WEEK));
+
+        assertEquals(dbHelper.getRevenueReport(year, 1).getAverageTicket(),
+                analytics.getAverageTicket(year), 0.001);
+        assertEquals(dbHelper.getRevenueReport(june, 1).getOrderCount(),
+                analytics.getTotals(june).getOrderCount());
+
+        List<CustomerTotal> expected = topCustomersBySql(year, 3);
+        List<CustomerTotal> top = analytics.getTopCustomers(year, 3);
+        assertEquals(3, top.size());
+        for (int i = 0; i < top.size(); i++) {
+            assertEquals(expected.get(i).getUserId(), top.get(i).getUserId());
+            assertEquals(expected.get(i).getOrderCount(), top.get(i).getOrderCount());
+            assertEquals(expected.get(i).getRevenue(), top.get(i).getRevenue(), 0.001);
+        }
+    }
+
+    @Test
+    public void writesAfterTheFirstReportAreApplied() {
+        long march = localTime(2025, Calendar.MARCH, 10);
+        dbHelper.createOrder(1, 4.00, "accepted", march);
+        OrderAnalytics analytics = dbHelper.getOrderAnalytics();
+        OrderFilter year = OrderFilter.acceptedInYear(2025);
+        assertEquals(4.00, analytics.getTotals(year).getRevenue(), 0.001);
+
+        dbHelper.createOrder(2, 6.00, "accepted", march);
+        dbHelper.createOrder(2, 9.00, "pending", march);
+        assertEquals(10.00, analytics.getTotals(year).getRevenue(), 0.001);
+
+        dbHelper.updateOrderStatus(3, "accepted");
+        dbHelper.updateOrderStatus(1, "rejected");
+        assertEquals(2, analytics.getTotals(year).getOrderCount());
+        assertEquals(15.00, analytics.getTotals(year).getRevenue(), 0.001);
+        assertEquals(2, analytics.getTopCustomers(year, 5).get(0).getUserId());
+
+        // Sample product 1 is Espresso at 2.99
+        dbHelper.addToCart(1, 1, 2);
+        long orderId = dbHelper.checkout(1);
+        dbHelper.updateOrderStatus((int) orderId, "accepted");
+        Calendar now = Calendar.getInstance();
+        OrderFilter today = OrderFilter.acceptedInYear(now.get(Calendar.YEAR));
+        assertEquals(dbHelper.getRevenueReport(today, 1).getRevenue(),
+                analytics.getTotals(today).getRevenue(), 0.001);
+        assertEquals(4, analytics.getSize());
+    }
+
+    @Test
+    public void memoryCoversEveryColumn() {
+        generateOrders();
+        OrderAnalytics analytics = dbHelper.getOrderAnalytics();
+
+        // id, order_time, total, user_id and status take 25 bytes per order
+        assertTrue(analytics.getMemoryBytes() >= 25L * ORDERS);
+
+        dbHelper.releaseOrderAnalytics();
+        assertEquals(ORDERS, dbHelper.getOrderAnalytics().getSize());
+    }
+
+    private void generateOrders() {
+        Random random = new Random(7);
+        long start = localTime(2025, Calendar.JANUARY, 1);
+        for (int i = 0; i < ORDERS; i++) {
+            long time = start + (long) (random.nextDouble() * 365L * 24 * 60 * 60 * 1000);
+            double total = 1 + random.nextInt(2000) / 100.0;
+            dbHelper.createOrder(1 + random.nextInt(6), total, STATUSES[random.nextInt(3)], time);
+        }
+        for (int i = 0; i < ORDERS / 2; i++) {
+            dbHelper.updateOrderStatus(1 + random.nextInt(ORDERS), STATUSES[random.nextInt(3)]);
+        }
+    }
+
+    private List<CustomerTotal> topCustomersBySql(OrderFilter filter, int limit) {
+        Cursor cursor = dbHelper.getReadableDatabase().rawQuery("SELECT user_id, COUNT(*), " +
+                "SUM(total_amount) FROM orders WHERE status = ? AND order_time >= ? AND order_time < ? " +
+                "GROUP BY user_id ORDER BY 3 DESC LIMIT " + limit, new String[]{filter.getStatus(),
+                String.valueOf(filter.getFrom()), String.valueOf(filter.getTo())});
+        List<CustomerTotal> customers = new ArrayList<>();
+        while (cursor.moveToNext()) {
+            customers.add(new CustomerTotal(cursor.getInt(0), cursor.getInt(1), cursor.getDouble(2)));
+        }
+        cursor.close();
+        return customers;
+    }
+
+    private static void assertSameSeries(List<RevenuePoint> expected, List<RevenuePoint> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getStart(), actual.get(i).getStart());
+            assertEquals(expected.get(i).getOrderCount(), actual.get(i).getOrderCount());
+            assertEquals(expected.get(i).getRevenue(), actual.get(i).getRevenue(), 0.001);
+        }
+    }
+
+    private long localTime(int year, int month, int day) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(year, month, day);
+        return calendar.getTimeInMillis();
+    }
+}
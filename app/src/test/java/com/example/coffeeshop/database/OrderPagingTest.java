@@ -0,0 +1,206 @@
+package com.example.coffeeshop.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Looper;
+import com.example.coffeeshop.models.Order;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class OrderPagingTest {
+
+    private static final String DB_NAME = "order_paging_test.db";
+    private static final int ORDERS = 230;
+    private static final int PAGE_SIZE = 10;
+    private static final int MAX_PAGES = 3;
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        context = RuntimeEnvironment.getApplication();
+        context.deleteDatabase(DB_NAME);
+        dbHelper = DatabaseTestSupport.openHelper(context, DB_NAME);
+        executor = Executors.newSingleThreadExecutor();
+
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < ORDERS; i++) {
+                // Groups of three orders share a timestamp, so paging must break ties on id
+                db.execSQL("INSERT INTO orders (user_id, total_amount, order_date, order_time, status) " +
+                        "VALUES (1, 1.0, '', ?, 'pending')", new Object[]{1_000_000L + (i / 3) * 1000L});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        dbHelper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void pagesWalkEveryOrderOnceInBothDirections() {
+        List<Integer> older = new ArrayList<>();
+        Order anchor = null;
+        List<Order> page;
+        do {
+            page = dbHelper.getOrdersPage(OrderFilter.pending(), anchor, false, PAGE_SIZE);
+            for (Order order : page) {
+                older.add(order.getId());
+            }
+            anchor = page.isEmpty() ? anchor : page.get(page.size() - 1);
+        } while (page.size() == PAGE_SIZE);
+
+        assertEquals(ORDERS, older.size());
+        assertDescending(older);
+
+        List<Integer> newer = new ArrayList<>();
+        do {
+            page = dbHelper.getOrdersPage(OrderFilter.pending(), anchor, true, PAGE_SIZE);
+            for (int i = page.size() - 1; i >= 0; i--) {
+                newer.add(page.get(i).getId());
+            }
+            anchor = page.isEmpty() ? anchor : page.get(0);
+        } while (page.size() == PAGE_SIZE);
+
+        // Everything above the oldest order, oldest first
+        List<Integer> expected = new ArrayList<>(older.subList(0, ORDERS - 1));
+        Collections.reverse(expected);
+        assertEquals(expected, newer);
+    }
+
+    @Test
+    public void sourceHoldsABoundedWindowWhileScrolling() {
+        CoffeeShopRepository repository = DatabaseTestSupport.createRepository(dbHelper, executor);
+        OrderPagingSource source = new OrderPagingSource(repository, OrderFilter.pending(),
+                PAGE_SIZE, MAX_PAGES);
+        AtomicInteger changes = new AtomicInteger();
+        source.setListener(new OrderPagingSource.Listener() {
+            @Override
+            public void onItemsInserted(int position, int count) {
+                changes.incrementAndGet();
+            }
+
+            @Override
+            public void onItemsRemoved(int position, int count) {
+                changes.incrementAndGet();
+            }
+
+            @Override
+            public void onReset() {
+            }
+        });
+
+        source.refresh(null);
+        awaitChange(changes, 0);
+
+        // Scroll to the bottom with a 5-row viewport, then back to the top
+        int largest = 0;
+        List<Integer> seen = new ArrayList<>();
+        while (true) {
+            int before = changes.get();
+            source.onVisibleRange(source.size() - 5, source.size() - 1);
+            if (!settle(changes, before)) {
+                break;
+            }
+            largest = Math.max(largest, source.size());
+        }
+        for (int i = 0; i < source.size(); i++) {
+            seen.add(source.get(i).getId());
+        }
+        assertEquals(1, (int) seen.get(seen.size() - 1)); // the oldest order
+        assertTrue("window grew to " + largest, largest <= PAGE_SIZE * MAX_PAGES);
+
+        while (true) {
+            int before = changes.get();
+            source.onVisibleRange(0, 4);
+            if (!settle(changes, before)) {
+                break;
+            }
+            largest = Math.max(largest, source.size());
+        }
+        assertEquals(ORDERS, source.get(0).getId()); // the newest order
+        assertTrue("window grew to " + largest, largest <= PAGE_SIZE * MAX_PAGES);
+    }
+
+    @Test
+    public void sourceContinuesFromAPageItWasGiven() {
+        CoffeeShopRepository repository = DatabaseTestSupport.createRepository(dbHelper, executor);
+        OrderPagingSource source = new OrderPagingSource(repository, OrderFilter.pending(),
+                PAGE_SIZE, MAX_PAGES);
+        AtomicInteger changes = new AtomicInteger();
+        source.setListener(new OrderPagingSource.Listener() {
+            @Override
+            public void onItemsInserted(int position, int count) {
+                changes.incrementAndGet();
+            }
+
+            @Override
+            public void onItemsRemoved(int position, int count) {
+                changes.incrementAndGet();
+            }
+
+            @Override
+            public void onReset() {
+            }
+        });
+
+        source.start(dbHelper.getOrdersPage(OrderFilter.pending(), null, false, PAGE_SIZE));
+        assertEquals(1, changes.get());
+        assertEquals(PAGE_SIZE, source.size());
+        assertEquals(ORDERS, source.get(0).getId());
+
+        source.onVisibleRange(PAGE_SIZE - 5, PAGE_SIZE - 1);
+        awaitChange(changes, 1);
+        assertEquals(2 * PAGE_SIZE, source.size());
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < source.size(); i++) {
+            ids.add(source.get(i).getId());
+        }
+        assertDescending(ids);
+    }
+
+    private static void assertDescending(List<Integer> ids) {
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1) > ids.get(i));
+        }
+    }
+
+    private static void awaitChange(AtomicInteger changes, int before) {
+        assertTrue("Timed out waiting for a page", settle(changes, before));
+    }
+
+    // Runs main-looper callbacks until the source reports a change or nothing is pending
+    private static boolean settle(AtomicInteger changes, int before) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+        while (changes.get() == before && System.nanoTime() < deadline) {
+            shadowOf(Looper.getMainLooper()).idle();
+            Thread.yield();
+        }
+        return changes.get() != before;
+    }
+}
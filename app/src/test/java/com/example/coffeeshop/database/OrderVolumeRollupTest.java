@@ -0,0 +1,122 @@
+package com.example.coffeeshop.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteCursor;
+import com.example.coffeeshop.models.OrderHeatmap;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class OrderVolumeRollupTest {
+
+    private static final String DB_NAME = "order_volume_test.db";
+    private static final String[] STATUSES = {"pending", "accepted", "rejected"};
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+
+    @Before
+    public void setup() {
+        context = RuntimeEnvironment.getApplication();
+        context.deleteDatabase(DB_NAME);
+        dbHelper = DatabaseTestSupport.openHelper(context, DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void acceptedOrdersAreCountedByWeekdayAndHour() {
+        // Monday 2025-11-03 08:30 and 08:59, Tuesday 14:05
+        dbHelper.createOrder(1, 3.00, "accepted", localTime(2025, Calendar.NOVEMBER, 3, 8, 30));
+        dbHelper.createOrder(1, 3.00, "accepted", localTime(2025, Calendar.NOVEMBER, 3, 8, 59));
+        dbHelper.createOrder(1, 3.00, "accepted", localTime(2025, Calendar.NOVEMBER, 4, 14, 5));
+        dbHelper.createOrder(1, 3.00, "pending", localTime(2025, Calendar.NOVEMBER, 4, 14, 10));
+
+        OrderHeatmap heatmap = dbHelper.getOrderHeatmap();
+
+        assertEquals(2, heatmap.getCount(0, 8));
+        assertEquals(1, heatmap.getCount(1, 14));
+        assertEquals(0, heatmap.getCount(0, 9));
+        assertEquals(2, heatmap.getMax());
+    }
+
+    @Test
+    public void statusChangesMoveOrdersInAndOut() {
+        long sundayNoon = localTime(2025, Calendar.NOVEMBER, 9, 12, 0);
+        dbHelper.createOrder(1, 3.00, "pending", sundayNoon);
+
+        dbHelper.updateOrderStatus(1, "accepted");
+        dbHelper.updateOrderStatus(1, "accepted");
+        assertEquals(1, dbHelper.getOrderHeatmap().getCount(6, 12));
+
+        dbHelper.updateOrderStatus(1, "rejected");
+        assertEquals(0, dbHelper.getOrderHeatmap().getCount(6, 12));
+    }
+
+    @Test
+    public void countersMatchAFullRecountOfGeneratedOrders() {
+        Random random = new Random(42);
+        long start = localTime(2025, Calendar.JANUARY, 1, 0, 0);
+        int orders = 500;
+        for (int i = 0; i < orders; i++) {
+            long time = start + (long) (random.nextDouble() * 365L * 24 * 60 * 60 * 1000);
+            dbHelper.createOrder(1, 1 + random.nextInt(20), STATUSES[random.nextInt(3)], time);
+        }
+        for (int i = 0; i < orders; i++) {
+            dbHelper.updateOrderStatus(1 + random.nextInt(orders), STATUSES[random.nextInt(3)]);
+        }
+
+        assertTrue(dbHelper.verifyOrderVolume());
+
+        // And a drifted counter is caught
+        dbHelper.getWritableDatabase().execSQL(
+                "UPDATE order_volume SET order_count = order_count + 1 WHERE weekday = 3 AND hour = 7");
+        assertFalse(dbHelper.verifyOrderVolume());
+        OrderVolumeRollup.rebuild(dbHelper.getWritableDatabase());
+        assertTrue(dbHelper.verifyOrderVolume());
+    }
+
+    @Test
+    public void verifyReadsOutsideAnyTransaction() {
+        dbHelper.createOrder(1, 3.00, "accepted");
+        List<Boolean> inTransaction = new ArrayList<>();
+        DatabaseHelper recording = new DatabaseHelper(context, DB_NAME, DatabaseConfig.DEFAULT,
+                (db, driver, editTable, query) -> {
+                    inTransaction.add(db.inTransaction());
+                    return new SQLiteCursor(driver, editTable, query);
+                });
+        try {
+            recording.getWritableDatabase();
+            inTransaction.clear();
+
+            assertTrue(recording.verifyOrderVolume());
+            assertEquals(Collections.singletonList(false), inTransaction);
+        } finally {
+            recording.close();
+        }
+    }
+
+    private long localTime(int year, int month, int day, int hour, int minute) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(year, month, day, hour, minute);
+        return calendar.getTimeInMillis();
+    }
+}
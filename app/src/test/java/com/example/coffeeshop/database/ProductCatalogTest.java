@@ -0,0 +1,136 @@
+package com.example.coffeeshop.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import com.example.coffeeshop.models.CartItem;
+import com.example.coffeeshop.models.Product;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class ProductCatalogTest {
+
+    private static final String DB_NAME = "product_catalog_test.db";
+    private static final int USER_ID = 1;
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+
+    @Before
+    public void setup() {
+        context = RuntimeEnvironment.getApplication();
+        context.deleteDatabase(DB_NAME);
+        dbHelper = DatabaseTestSupport.openHelper(context, DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void everyProductWriteBumpsTheVersion() {
+        long version = dbHelper.getCatalogVersion();
+
+        assertTrue(dbHelper.addProduct(new Product("Hazelnut Latte", "Nutty and sweet", 5.29, "latte")));
+        assertTrue(dbHelper.getCatalogVersion() > version);
+        version = dbHelper.getCatalogVersion();
+
+        Product hazelnut = dbHelper.searchProducts("hazelnut").get(0);
+        hazelnut.setPrice(5.49);
+        assertTrue(dbHelper.updateProduct(hazelnut));
+        assertTrue(dbHelper.getCatalogVersion() > version);
+        version = dbHelper.getCatalogVersion();
+
+        assertTrue(dbHelper.deleteProduct(hazelnut.getId()));
+        assertTrue(dbHelper.getCatalogVersion() > version);
+    }
+
+    @Test
+    public void readsAndFailedWritesKeepTheVersion() {
+        long version = dbHelper.getCatalogVersion();
+
+        dbHelper.getAllProducts();
+        dbHelper.getProductById(1);
+        dbHelper.getCartItems(USER_ID);
+        assertFalse(dbHelper.deleteProduct(9999));
+
+        assertEquals(version, dbHelper.getCatalogVersion());
+    }
+
+    @Test
+    public void productsAreSharedAcrossReads() {
+        List<Product> first = dbHelper.getAllProducts();
+        List<Product> second = dbHelper.getAllProducts();
+
+        assertEquals(first.size(), second.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertSame(first.get(i), second.get(i));
+        }
+        assertSame(first.get(0), dbHelper.getProductById(first.get(0).getId()));
+        assertSame(first.get(0), dbHelper.searchProducts(first.get(0).getName()).get(0));
+    }
+
+    @Test
+    public void cartLinesShareTheCatalogProducts() {
+        Product espresso = dbHelper.getProductById(1);
+        assertTrue(dbHelper.addToCart(USER_ID, 1, 2));
+
+        List<CartItem> cart = dbHelper.getCartItems(USER_ID);
+
+        assertEquals(1, cart.size());
+        assertSame(espresso, cart.get(0).getProduct());
+    }
+
+    @Test
+    public void updatesAreWrittenThrough() {
+        Product latte = dbHelper.getProductById(3);
+        Product edited = new Product(latte.getId(), latte.getName(), latte.getDescription(),
+                6.49, latte.getImageUrl());
+        assertTrue(dbHelper.updateProduct(edited));
+
+        Product cached = dbHelper.getProductById(3);
+        assertEquals(6.49, cached.getPrice(), 0.001);
+        // The cache keeps its own copy of what was written
+        assertNotSame(edited, cached);
+        edited.setPrice(1.00);
+        assertEquals(6.49, dbHelper.getProductById(3).getPrice(), 0.001);
+        assertSame(cached, findById(dbHelper.getAllProducts(), 3));
+    }
+
+    @Test
+    public void addedAndDeletedProductsShowInTheCachedList() {
+        int before = dbHelper.getAllProducts().size();
+
+        assertTrue(dbHelper.addProduct(new Product("Hazelnut Latte", "Nutty and sweet", 5.29, "latte")));
+        List<Product> afterAdd = dbHelper.getAllProducts();
+        assertEquals(before + 1, afterAdd.size());
+        Product hazelnut = afterAdd.get(afterAdd.size() - 1);
+        assertEquals("Hazelnut Latte", hazelnut.getName());
+
+        assertTrue(dbHelper.deleteProduct(hazelnut.getId()));
+        assertEquals(before, dbHelper.getAllProducts().size());
+        assertNull(dbHelper.getProductById(hazelnut.getId()));
+    }
+
+    private static Product findById(List<Product> products, int id) {
+        for (Product product : products) {
+            if (product.getId() == id) {
+                return product;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.coffeeshop.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import com.example.coffeeshop.models.Product;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class ProductSearchTest {
+
+    private static final String DB_NAME = "product_search_test.db";
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+
+    @Before
+    public void setup() {
+        context = RuntimeEnvironment.getApplication();
+        context.deleteDatabase(DB_NAME);
+        dbHelper = DatabaseTestSupport.openHelper(context, DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void wordsMatchByPrefixInAnyOrder() {
+        assertEquals(names("Cold Brew"), names(dbHelper.searchProducts("BREW col")));
+        assertEquals(names("Cappuccino"), names(dbHelper.searchProducts("capp")));
+    }
+
+    @Test
+    public void nameMatchesRankAboveDescriptionMatches() {
+        // "Espresso" is in the name of one sample product and the description of five
+        List<Product> results = dbHelper.searchProducts("espresso");
+
+        assertEquals(6, results.size());
+        assertEquals("Espresso", results.get(0).getName());
+    }
+
+    @Test
+    public void indexFollowsProductChanges() {
+        assertTrue(dbHelper.addProduct(new Product("Hazelnut Latte", "Nutty and sweet", 5.29, "latte")));
+        assertEquals(names("Hazelnut Latte"), names(dbHelper.searchProducts("hazel")));
+
+        Product hazelnut = dbHelper.searchProducts("hazel").get(0);
+        hazelnut.setName("Pistachio Latte");
+        assertTrue(dbHelper.updateProduct(hazelnut));
+        assertEquals(0, dbHelper.searchProducts("hazel").size());
+        assertEquals(names("Pistachio Latte"), names(dbHelper.searchProducts("pista")));
+
+        assertTrue(dbHelper.deleteProduct(hazelnut.getId()));
+        assertEquals(0, dbHelper.searchProducts("pista").size());
+    }
+
+    @Test
+    public void accentsAndCaseAreIgnored() {
+        assertTrue(dbHelper.addProduct(new Product("C\u00e0 ph\u00ea s\u1eefa \u0111\u00e1",
+                "Vietnamese iced coffee", 3.49, "coldbrew"))); // Cà phê sữa đá
+
+        assertEquals(1, dbHelper.searchProducts("ca phe sua da").size());
+        assertEquals(1, dbHelper.searchProducts("C\u00c0 PH\u00ca").size()); // CÀ PHÊ
+        assertEquals("ca phe sua da vietnamese iced coffee",
+                ProductSearchIndex.searchKey("C\u00e0 ph\u00ea s\u1eefa \u0110\u00e1", "Vietnamese iced coffee"));
+    }
+
+    @Test
+    public void queryWithoutWordsReturnsEverything() {
+        assertEquals(8, dbHelper.searchProducts(" \"* ").size());
+        assertNull(ProductSearchIndex.toMatchQuery("-()"));
+    }
+
+    @Test
+    public void operatorsAreSearchedAsWords() {
+        assertEquals("near* or* x*", ProductSearchIndex.toMatchQuery("NEAR OR \"x\""));
+    }
+
+    private static List<String> names(String... names) {
+        List<String> list = new ArrayList<>();
+        for (String name : names) {
+            list.add(name);
+        }
+        return list;
+    }
+
+    private static List<String> names(List<Product> products) {
+        List<String> list = new ArrayList<>();
+        for (Product product : products) {
+            list.add(product.getName());
+        }
+        return list;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.coffeeshop.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.content.Context;
+import android.os.CancellationSignal;
+import android.os.Looper;
+import com.example.coffeeshop.models.Product;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class ProductSearcherTest {
+
+    private static final String DB_NAME = "product_searcher_test.db";
+    private static final long DEBOUNCE_MILLIS = 100;
+
+    private final AtomicInteger queries = new AtomicInteger();
+    private final AtomicInteger deliveries = new AtomicInteger();
+    private volatile List<Product> shown = Collections.emptyList();
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+    private ExecutorService executor;
+    private ProductSearcher searcher;
+
+    @Before
+    public void setup() {
+        context = RuntimeEnvironment.getApplication();
+        context.deleteDatabase(DB_NAME);
+        dbHelper = new DatabaseHelper(context, DB_NAME, DatabaseConfig.DEFAULT) {
+            @Override
+            public List<Product> searchProducts(String query, CancellationSignal cancellationSignal) {
+                queries.incrementAndGet();
+                return super.searchProducts(query, cancellationSignal);
+            }
+        };
+        executor = Executors.newSingleThreadExecutor();
+        searcher = new ProductSearcher(DatabaseTestSupport.createRepository(dbHelper, executor),
+                products -> {
+                    shown = products;
+                    deliveries.incrementAndGet();
+                }, DEBOUNCE_MILLIS);
+        searcher.setCatalog(dbHelper.getAllProducts());
+    }
+
+    @After
+    public void tearDown() {
+        searcher.cancel();
+        executor.shutdownNow();
+        dbHelper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void keystrokesWithinTheDebounceRunOneQuery() {
+        searcher.search("l");
+        searcher.search("la");
+        searcher.search("lat");
+        awaitResults(0);
+
+        assertEquals(1, queries.get());
+        assertEquals(1, shown.size());
+        assertEquals("Latte", shown.get(0).getName());
+    }
+
+    @Test
+    public void extendingTheQueryNarrowsInMemory() {
+        searcher.search("esp");
+        awaitResults(0);
+        assertEquals(6, shown.size());
+
+        // Every sample product but Espresso itself has "espresso with" in its description
+        searcher.search("espresso w");
+        awaitResults(1);
+        assertEquals(1, queries.get());
+        assertEquals(5, shown.size());
+
+        searcher.search("mocha");
+        awaitResults(2);
+        assertEquals(2, queries.get());
+        assertEquals("Mocha", shown.get(0).getName());
+    }
+
+    @Test
+    public void typosAreLookedUpWhenTheIndexFindsNothing() {
+        searcher.search("capucino");
+        awaitResults(0);
+
+        assertEquals(1, shown.size());
+        assertEquals("Cappuccino", shown.get(0).getName());
+
+        // Typo matches are not narrowed, the longer query is looked up again
+        searcher.search("capucino f");
+        awaitResults(1);
+        assertEquals(2, queries.get());
+        assertEquals("Cappuccino", shown.get(0).getName());
+    }
+
+    @Test
+    public void clearingTheQueryDropsTheRunningSearch() {
+        searcher.search("lat");
+        shadowOf(Looper.getMainLooper()).idleFor(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+        searcher.search("");
+        assertEquals(8, shown.size());
+
+        int before = deliveries.get();
+        executor.shutdown();
+        try {
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(before, deliveries.get());
+        assertEquals(8, shown.size());
+    }
+
+    // Advances past the debounce and runs main-looper callbacks until results arrive
+    private void awaitResults(int before) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(2000);
+        while (deliveries.get() == before && System.nanoTime() < deadline) {
+            shadowOf(Looper.getMainLooper()).idleFor(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+            Thread.yield();
+        }
+        assertTrue("Timed out waiting for results", deliveries.get() != before);
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.coffeeshop.database;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteCursor;
+import android.database.sqlite.SQLiteDatabase;
+import com.example.coffeeshop.models.Order;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * Runs EXPLAIN QUERY PLAN on the SQL each public DatabaseHelper query actually
+ * executes and fails when SQLite would scan a whole table.
+ *
+ * getAllProducts is not covered: it returns the whole catalog by design.
+ * revenue_daily may be scanned: it holds one small row per day of sales.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class QueryPlanTest {
+
+    private static final String DB_NAME = "query_plan_test.db";
+    private static final String SQL_PREFIX = "SQLiteQuery: ";
+    // "SCAN TABLE orders" on older SQLite, "SCAN orders" on newer releases
+    private static final Pattern FULL_SCAN = Pattern.compile("^SCAN (?:TABLE )?(\\w+)");
+    // A virtual table "scan" with index 0 reads every row; FTS uses other numbers for MATCH
+    private static final Pattern VIRTUAL_LOOKUP = Pattern.compile("VIRTUAL TABLE INDEX [1-9]");
+    private static final Set<String> SCANNABLE = new HashSet<>(Arrays.asList(
+            "SUBQUERY", "CONSTANT", RevenueRollup.TABLE, OrderVolumeRollup.TABLE));
+
+    private final List<String> executedSql = new ArrayList<>();
+    private DatabaseHelper dbHelper;
+
+    @Before
+    public void setup() {
+        RuntimeEnvironment.getApplication().deleteDatabase(DB_NAME);
+        dbHelper = new DatabaseHelper(RuntimeEnvironment.getApplication(), DB_NAME,
+                DatabaseConfig.DEFAULT, (db, driver, editTable, query) -> {
+                    String sql = query.toString();
+                    if (sql.startsWith(SQL_PREFIX)) {
+                        executedSql.add(sql.substring(SQL_PREFIX.length()));
+                    }
+                    return new SQLiteCursor(driver, editTable, query);
+                });
+        dbHelper.getWritableDatabase();
+        executedSql.clear();
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        RuntimeEnvironment.getApplication().deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void loginUser() {
+        dbHelper.loginUser("admin@coffeeshop.com", "123");
+        assertNoFullScan();
+    }
+
+    @Test
+    public void isEmailExists() {
+        dbHelper.isEmailExists("admin@coffeeshop.com");
+        assertNoFullScan();
+    }
+
+    @Test
+    public void getProductById() {
+        dbHelper.getProductById(1);
+        assertNoFullScan();
+    }
+
+    @Test
+    public void searchProducts() {
+        dbHelper.searchProducts("latte");
+        assertNoFullScan();
+    }
+
+    @Test
+    public void addToCart() {
+        // A compiled statement, so it never reaches the cursor factory
+        assertNoFullScan(DatabaseHelper.ADD_TO_CART_SQL);
+    }
+
+    @Test
+    public void getCartItems() {
+        dbHelper.getCartItems(1);
+        assertNoFullScan();
+    }
+
+    @Test
+    public void getCartUnitCount() {
+        dbHelper.getCartUnitCount(1);
+        assertNoFullScan();
+    }
+
+    @Test
+    public void getPendingOrders() {
+        dbHelper.getPendingOrders();
+        assertNoFullScan();
+    }
+
+    @Test
+    public void getTotalRevenue() {
+        dbHelper.getTotalRevenue();
+        assertNoFullScan();
+    }
+
+    @Test
+    public void updateOrderStatus() {
+        dbHelper.createOrder(1, 4.99, "pending");
+        executedSql.clear();
+        dbHelper.updateOrderStatus(1, "accepted");
+        assertNoFullScan();
+    }
+
+    @Test
+    public void getRevenueReport() {
+        dbHelper.getRevenueReport(OrderFilter.acceptedOn("2025-11-02"), 50);
+        assertNoFullScan();
+        dbHelper.getRevenueReport(OrderFilter.acceptedInMonth(2025, 11), 50);
+        assertNoFullScan();
+        dbHelper.getRevenueReport(OrderFilter.acceptedInYear(2025), 50);
+        assertNoFullScan();
+    }
+
+    @Test
+    public void getRevenueSeries() {
+        dbHelper.getRevenueSeries(OrderFilter.acceptedInMonth(2025, 11), RevenueBucket.DAY);
+        assertNoFullScan();
+        dbHelper.getRevenueSeries(OrderFilter.acceptedInYear(2025), RevenueBucket.MONTH);
+        assertNoFullScan();
+    }
+
+    @Test
+    public void getOrderHeatmap() {
+        dbHelper.getOrderHeatmap();
+        assertNoFullScan();
+    }
+
+    @Test
+    public void getOrdersPage() {
+        dbHelper.createOrder(1, 4.99, "accepted");
+        Order anchor = dbHelper.getRevenueReport(OrderFilter.acceptedInYear(
+                Calendar.getInstance().get(Calendar.YEAR)), 1).getFirstPage().get(0);
+        executedSql.clear();
+
+        dbHelper.getOrdersPage(OrderFilter.acceptedInYear(2025), null, false, 50);
+        assertNoFullScan();
+        dbHelper.getOrdersPage(OrderFilter.pending(), anchor, false, 50);
+        assertNoFullScan();
+        dbHelper.getOrdersPage(OrderFilter.pending(), anchor, true, 50);
+        assertNoFullScan();
+    }
+
+    private void assertNoFullScan() {
+        List<String> statements = new ArrayList<>(executedSql);
+        executedSql.clear();
+        assertFalse("No query was captured", statements.isEmpty());
+        for (String sql : statements) {
+            if (sql.trim().toUpperCase().startsWith("SELECT")) {
+                assertNoFullScan(sql);
+            }
+        }
+    }
+
+    private void assertNoFullScan(String sql) {
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        Cursor plan = db.rawQuery("EXPLAIN QUERY PLAN " + sql, null);
+        int detailIndex = plan.getColumnIndexOrThrow("detail");
+        StringBuilder fullPlan = new StringBuilder();
+        String scannedTable = null;
+        while (plan.moveToNext()) {
+            String detail = plan.getString(detailIndex);
+            fullPlan.append("\n  ").append(detail);
+            Matcher matcher = FULL_SCAN.matcher(detail);
+            if (matcher.find() && !SCANNABLE.contains(matcher.group(1))
+                    && !VIRTUAL_LOOKUP.matcher(detail).find()) {
+                scannedTable = matcher.group(1);
+            }
+        }
+        plan.close();
+        executedSql.clear();
+        if (scannedTable != null) {
+            fail("Full scan of " + scannedTable + " in:\n" + sql + "\nplan:" + fullPlan);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.coffeeshop.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteCursor;
+import android.database.sqlite.SQLiteDatabase;
+import com.example.coffeeshop.models.RevenuePoint;
+import com.example.coffeeshop.models.RevenueReport;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class RevenueRollupTest {
+
+    private static final String DB_NAME = "revenue_rollup_test.db";
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+
+    @Before
+    public void setup() {
+        context = RuntimeEnvironment.getApplication();
+        context.deleteDatabase(DB_NAME);
+        dbHelper = DatabaseTestSupport.openHelper(context, DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void createOrderCountsOnlyAcceptedOrders() {
+        dbHelper.createOrder(1, 4.99, "pending");
+        dbHelper.createOrder(1, 3.50, "accepted");
+
+        assertEquals(3.50, dbHelper.getTotalRevenue(), 0.001);
+        assertEquals(3.50, sumAcceptedOrders(), 0.001);
+        assertTrue(dbHelper.verifyRevenueRollup());
+    }
+
+    @Test
+    public void statusChangesMoveOrdersInAndOutOfTheRollup() {
+        dbHelper.createOrder(1, 4.99, "pending");
+        dbHelper.createOrder(1, 2.00, "pending");
+
+        dbHelper.updateOrderStatus(1, "accepted");
+        assertEquals(4.99, dbHelper.getTotalRevenue(), 0.001);
+
+        // accepted -> accepted must not count the order twice
+        dbHelper.updateOrderStatus(1, "accepted");
+        assertEquals(4.99, dbHelper.getTotalRevenue(), 0.001);
+
+        dbHelper.updateOrderStatus(2, "rejected");
+        dbHelper.updateOrderStatus(1, "rejected");
+        assertEquals(0.0, dbHelper.getTotalRevenue(), 0.001);
+        assertEquals(0, rollupRows());
+
+        dbHelper.updateOrderStatus(2, "accepted");
+        assertEquals(2.00, dbHelper.getTotalRevenue(), 0.001);
+        assertTrue(dbHelper.verifyRevenueRollup());
+    }
+
+    @Test
+    public void unknownOrderLeavesTheRollupAlone() {
+        assertFalse(dbHelper.updateOrderStatus(42, "accepted"));
+        assertEquals(0, rollupRows());
+    }
+
+    @Test
+    public void rebuildRepairsADriftedRollup() {
+        dbHelper.createOrder(1, 4.99, "accepted");
+        dbHelper.createOrder(1, 3.50, "accepted");
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.execSQL("UPDATE revenue_daily SET revenue = revenue + 10");
+        db.execSQL("INSERT INTO revenue_daily (day, order_count, revenue) VALUES ('2001-01-01', 1, 1)");
+        assertFalse(dbHelper.verifyRevenueRollup());
+
+        assertTrue(dbHelper.rebuildRevenueRollup());
+        assertEquals(8.49, dbHelper.getTotalRevenue(), 0.001);
+        assertEquals(1, rollupRows());
+    }
+
+    @Test
+    public void reportCombinesTheFiguresWithTheNewestOrders() {
+        dbHelper.createOrder(1, 4.00, "accepted");
+        dbHelper.createOrder(1, 2.00, "pending");
+        dbHelper.createOrder(1, 3.00, "accepted");
+        dbHelper.createOrder(1, 5.00, "accepted");
+
+        Calendar today = Calendar.getInstance();
+        RevenueReport report = dbHelper.getRevenueReport(
+                OrderFilter.acceptedInYear(today.get(Calendar.YEAR)), 2);
+
+        assertEquals(3, report.getOrderCount());
+        assertEquals(12.00, report.getRevenue(), 0.001);
+        assertEquals(4.00, report.getAverageTicket(), 0.001);
+        assertEquals(2, report.getFirstPage().size());
+        assertEquals(4, report.getFirstPage().get(0).getId());
+        assertEquals(3, report.getFirstPage().get(1).getId());
+    }
+
+    @Test
+    public void reportForAnEmptyPeriodIsZero() {
+        dbHelper.createOrder(1, 4.00, "accepted");
+
+        RevenueReport report = dbHelper.getRevenueReport(OrderFilter.acceptedInYear(2001), 50);
+
+        assertEquals(0, report.getOrderCount());
+        assertEquals(0.0, report.getRevenue(), 0.001);
+        assertEquals(0.0, report.getAverageTicket(), 0.001);
+        assertTrue(report.getFirstPage().isEmpty());
+    }
+
+    @Test
+    public void reportReadsOutsideAnyTransaction() {
+        dbHelper.createOrder(1, 4.00, "accepted");
+        List<Boolean> inTransaction = new ArrayList<>();
+        DatabaseHelper recording = recordingTransactions(inTransaction);
+        try {
+            recording.getWritableDatabase();
+            inTransaction.clear();
+
+            Calendar today = Calendar.getInstance();
+            RevenueReport report = recording.getRevenueReport(
+                    OrderFilter.acceptedInYear(today.get(Calendar.YEAR)), 50);
+
+            assertEquals(1, report.getOrderCount());
+            // One statement, with no transaction holding the write connection around it
+            assertEquals(Collections.singletonList(false), inTransaction);
+        } finally {
+            recording.close();
+        }
+    }
+
+    @Test
+    public void verifyReadsOutsideAnyTransaction() {
+        dbHelper.createOrder(1, 4.00, "accepted");
+        List<Boolean> inTransaction = new ArrayList<>();
+        DatabaseHelper recording = recordingTransactions(inTransaction);
+        try {
+            recording.getWritableDatabase();
+            inTransaction.clear();
+
+            assertTrue(recording.verifyRevenueRollup());
+            assertEquals(Collections.singletonList(false), inTransaction);
+        } finally {
+            recording.close();
+        }
+    }
+
+    @Test
+    public void yearSeriesHasEveryMonthWithGapsFilled() {
+        addRollupDay("2025-01-15", 2, 7.00);
+        addRollupDay("2025-01-31", 1, 3.00);
+        addRollupDay("2025-03-01", 1, 4.50);
+        addRollupDay("2026-01-01", 1, 9.00);
+
+        List<RevenuePoint> series = dbHelper.getRevenueSeries(
+                OrderFilter.acceptedInYear(2025), RevenueBucket.MONTH);
+
+        assertEquals(12, series.size());
+        assertEquals(3, series.get(0).getOrderCount());
+        assertEquals(10.00, series.get(0).getRevenue(), 0.001);
+        assertEquals(0, series.get(1).getOrderCount());
+        assertEquals(0.0, series.get(1).getRevenue(), 0.001);
+        assertEquals(4.50, series.get(2).getRevenue(), 0.001);
+        assertEquals(localTime(2025, Calendar.MARCH, 1), series.get(2).getStart());
+        assertEquals(localTime(2025, Calendar.DECEMBER, 1), series.get(11).getStart());
+    }
+
+    @Test
+    public void monthSeriesHasEveryDay() {
+        addRollupDay("2025-02-01", 1, 2.00);
+        addRollupDay("2025-02-28", 2, 6.00);
+        addRollupDay("2025-03-01", 1, 9.00);
+
+        List<RevenuePoint> series = dbHelper.getRevenueSeries(
+                OrderFilter.acceptedInMonth(2025, 2), RevenueBucket.DAY);
+
+        assertEquals(28, series.size());
+        assertEquals(2.00, series.get(0).getRevenue(), 0.001);
+        assertEquals(0.0, series.get(1).getRevenue(), 0.001);
+        assertEquals(2, series.get(27).getOrderCount());
+        assertEquals(localTime(2025, Calendar.FEBRUARY, 28), series.get(27).getStart());
+    }
+
+    @Test
+    public void weeksStartOnMonday() {
+        // 2025-03-02 is a Sunday and 2025-03-03 a Monday
+        addRollupDay("2025-03-01", 1, 1.00);
+        addRollupDay("2025-03-02", 1, 2.00);
+        addRollupDay("2025-03-03", 1, 4.00);
+
+        List<RevenuePoint> series = dbHelper.getRevenueSeries(
+                OrderFilter.acceptedInMonth(2025, 3), RevenueBucket.WEEK);
+
+        assertEquals(localTime(2025, Calendar.FEBRUARY, 24), series.get(0).getStart());
+        assertEquals(3.00, series.get(0).getRevenue(), 0.001);
+        assertEquals(localTime(2025, Calendar.MARCH, 3), series.get(1).getStart());
+        assertEquals(4.00, series.get(1).getRevenue(), 0.001);
+        // The week of March 31 is the last one to start inside the month
+        assertEquals(6, series.size());
+    }
+
+    // Opens the test database again, noting for each query whether a transaction was open
+    private DatabaseHelper recordingTransactions(List<Boolean> inTransaction) {
+        return new DatabaseHelper(context, DB_NAME, DatabaseConfig.DEFAULT,
+                (db, driver, editTable, query) -> {
+                    inTransaction.add(db.inTransaction());
+                    return new SQLiteCursor(driver, editTable, query);
+                });
+    }
+
+    private void addRollupDay(String day, int orderCount, double revenue) {
+        dbHelper.getWritableDatabase().execSQL(
+                "INSERT INTO revenue_daily (day, order_count, revenue) VALUES (?, ?, ?)",
+                new Object[]{day, orderCount, revenue});
+    }
+
+    private long localTime(int year, int month, int day) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(year, month, day);
+        return calendar.getTimeInMillis();
+    }
+
+    private double sumAcceptedOrders() {
+        Cursor cursor = dbHelper.getReadableDatabase().rawQuery(
+                "SELECT SUM(total_amount) FROM orders WHERE status = 'accepted'", null);
+        double total = cursor.moveToFirst() ? cursor.getDouble(0) : 0.0;
+        cursor.close();
+        return total;
+    }
+
+    private long rollupRows() {
+        Cursor cursor = dbHelper.getReadableDatabase().rawQuery("SELECT COUNT(*) FROM revenue_daily", null);
+        long rows = cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        cursor.close();
+        return rows;
+    }
+}
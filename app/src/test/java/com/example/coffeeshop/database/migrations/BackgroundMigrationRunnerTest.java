@@ -0,0 +1,101 @@
+package com.example.coffeeshop.database.migrations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.database.sqlite.SQLiteDatabase;
+import java.util.Collections;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class BackgroundMigrationRunnerTest {
+
+    private static final int ROWS = 25;
+    private static final int BATCH_SIZE = 10;
+
+    private SQLiteDatabase db;
+
+    @Before
+    public void setup() {
+        db = SQLiteDatabase.create(null);
+        db.execSQL("CREATE TABLE items (id INTEGER PRIMARY KEY, value INTEGER)");
+        for (int i = 1; i <= ROWS; i++) {
+            db.execSQL("INSERT INTO items (id) VALUES (" + i + ")");
+        }
+        BackgroundMigrationRunner.createTable(db);
+        BackgroundMigrationRunner.schedule(db, "fill_values");
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void interruptedRunResumesFromLastBatch() {
+        FillValues failing = new FillValues(2);
+        BackgroundMigrationRunner runner = new BackgroundMigrationRunner(
+                Collections.singletonList(failing), BATCH_SIZE);
+        try {
+            runner.runPending(db);
+            fail("Expected the second batch to fail");
+        } catch (IllegalStateException expected) {
+            // simulated process death
+        }
+        assertEquals(BATCH_SIZE, MigrationTestSupport.count(db,
+                "SELECT COUNT(*) FROM items WHERE value IS NOT NULL"));
+        assertFalse(runner.isComplete(db, "fill_values"));
+
+        FillValues resumed = new FillValues(-1);
+        new BackgroundMigrationRunner(Collections.singletonList(resumed), BATCH_SIZE).runPending(db);
+
+        assertEquals(ROWS, MigrationTestSupport.count(db,
+                "SELECT COUNT(*) FROM items WHERE value IS NOT NULL"));
+        assertEquals(3, resumed.batches);
+    }
+
+    @Test
+    public void ensureCompleteRunsRemainingBatches() {
+        FillValues migration = new FillValues(-1);
+        BackgroundMigrationRunner runner = new BackgroundMigrationRunner(
+                Collections.singletonList(migration), BATCH_SIZE);
+
+        runner.ensureComplete(db, "fill_values");
+        runner.ensureComplete(db, "fill_values");
+
+        assertTrue(runner.isComplete(db, "fill_values"));
+        assertEquals(4, migration.batches);
+    }
+
+    /** Sets value = id in batches of rows, optionally failing on one batch. */
+    private static class FillValues extends BackgroundMigration {
+        private final int failOnBatch;
+        int batches;
+
+        FillValues(int failOnBatch) {
+            super("fill_values");
+            this.failOnBatch = failOnBatch;
+        }
+
+        @Override
+        public long runBatch(SQLiteDatabase db, long progress, int batchSize) {
+            batches++;
+            if (batches == failOnBatch) {
+                throw new IllegalStateException("killed");
+            }
+            long last = MigrationTestSupport.count(db, "SELECT MAX(id) FROM (SELECT id FROM items " +
+                    "WHERE id > " + progress + " ORDER BY id LIMIT " + batchSize + ")");
+            if (last == 0) {
+                return DONE;
+            }
+            db.execSQL("UPDATE items SET value = id WHERE id > " + progress + " AND id <= " + last);
+            return last;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.coffeeshop.database.migrations;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * Builds databases in the shape older app versions left on devices.
+ */
+final class MigrationTestSupport {
+
+    private MigrationTestSupport() {}
+
+    /** The schema shipped as version 1, with a customer, a product, a cart row and two orders. */
+    static void createVersion1Database(Context context, String name) {
+        context.deleteDatabase(name);
+        SQLiteDatabase db = SQLiteDatabase.openOrCreateDatabase(context.getDatabasePath(name), null);
+        db.execSQL("CREATE TABLE users (id INTEGER PRIMARY KEY AUTOINCREMENT, full_name TEXT NOT NULL, " +
+                "email TEXT UNIQUE NOT NULL, password TEXT NOT NULL, role TEXT NOT NULL DEFAULT 'customer')");
+        db.execSQL("CREATE TABLE products (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT NOT NULL, " +
+                "description TEXT, price REAL NOT NULL, image_url TEXT)");
+        db.execSQL("CREATE TABLE cart (id INTEGER PRIMARY KEY AUTOINCREMENT, user_id INTEGER NOT NULL, " +
+                "product_id INTEGER NOT NULL, quantity INTEGER NOT NULL)");
+        db.execSQL("CREATE TABLE orders (id INTEGER PRIMARY KEY AUTOINCREMENT, user_id INTEGER NOT NULL, " +
+                "total_amount REAL NOT NULL, order_date TEXT NOT NULL, status TEXT NOT NULL DEFAULT 'pending')");
+
+        db.execSQL("INSERT INTO users (full_name, email, password) VALUES ('Lan', 'lan@example.com', 'secret')");
+        db.execSQL("INSERT INTO products (name, description, price, image_url) " +
+                "VALUES ('Latte', 'Smooth espresso with steamed milk', 4.99, 'latte')");
+        db.execSQL("INSERT INTO cart (user_id, product_id, quantity) VALUES (1, 1, 2)");
+        db.execSQL("INSERT INTO orders (user_id, total_amount, order_date, status) " +
+                "VALUES (1, 9.98, '2025-11-02 09:15:00', 'accepted')");
+        db.execSQL("INSERT INTO orders (user_id, total_amount, order_date, status) " +
+                "VALUES (1, 4.99, '2025-11-03 17:40:00', 'pending')");
+        db.setVersion(1);
+        db.close();
+    }
+
+    static long count(SQLiteDatabase db, String sql) {
+        Cursor cursor = db.rawQuery(sql, null);
+        long value = cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        cursor.close();
+        return value;
+    }
+
+    static boolean indexExists(SQLiteDatabase db, String name) {
+        Cursor cursor = db.rawQuery("SELECT 1 FROM sqlite_master WHERE type = 'index' AND name = ?",
+                new String[]{name});
+        boolean exists = cursor.moveToFirst();
+        cursor.close();
+        return exists;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.coffeeshop.database.migrations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import com.example.coffeeshop.database.DatabaseHelper;
+import com.example.coffeeshop.database.DatabaseTestSupport;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class V2AccessPathIndexesTest {
+
+    private static final String DB_NAME = "migration_v2_test.db";
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+
+    @Before
+    public void setup() {
+        context = RuntimeEnvironment.getApplication();
+        MigrationTestSupport.createVersion1Database(context, DB_NAME);
+        dbHelper = DatabaseTestSupport.openHelper(context, DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void upgradeKeepsExistingRows() {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+
+        assertEquals(1, MigrationTestSupport.count(db, "SELECT COUNT(*) FROM users"));
+        assertEquals(1, MigrationTestSupport.count(db, "SELECT COUNT(*) FROM products"));
+        assertEquals(1, MigrationTestSupport.count(db, "SELECT COUNT(*) FROM cart"));
+        assertEquals(2, MigrationTestSupport.count(db, "SELECT COUNT(*) FROM orders"));
+    }
+
+    @Test
+    public void indexesAreBuiltAfterStartup() {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        assertFalse(MigrationTestSupport.indexExists(db, "idx_orders_status_date"));
+
+        dbHelper.runBackgroundMigrations();
+
+        // Version 5's unique cart index replaces idx_cart_user
+        assertTrue(MigrationTestSupport.indexExists(db, "idx_cart_user_product"));
+        assertFalse(MigrationTestSupport.indexExists(db, "idx_cart_user"));
+        // Version 3 replaces the order_date indexes once its backfill has run
+        assertTrue(MigrationTestSupport.indexExists(db, "idx_orders_status_time"));
+        assertTrue(MigrationTestSupport.indexExists(db, "idx_orders_user_time"));
+        assertFalse(MigrationTestSupport.indexExists(db, "idx_orders_status_date"));
+        assertFalse(MigrationTestSupport.indexExists(db, "idx_orders_user_date"));
+        // and they are never built on the way
+        assertEquals(0, MigrationTestSupport.count(db,
+                "SELECT COUNT(*) FROM schema_tasks WHERE name LIKE 'v2_index_orders%'"));
+        assertEquals(0, MigrationTestSupport.count(db, "SELECT COUNT(*) FROM schema_tasks WHERE done = 0"));
+    }
+}
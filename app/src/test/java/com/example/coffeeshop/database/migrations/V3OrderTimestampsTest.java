@@ -0,0 +1,90 @@
+package com.example.coffeeshop.database.migrations;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import com.example.coffeeshop.database.DatabaseHelper;
+import com.example.coffeeshop.database.DatabaseTestSupport;
+import com.example.coffeeshop.database.OrderFilter;
+import com.example.coffeeshop.models.Order;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class V3OrderTimestampsTest {
+
+    private static final String DB_NAME = "migration_v3_test.db";
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+
+    @Before
+    public void setup() {
+        context = RuntimeEnvironment.getApplication();
+        MigrationTestSupport.createVersion1Database(context, DB_NAME);
+        dbHelper = DatabaseTestSupport.openHelper(context, DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void backfillReadsOrderDateAsLocalTime() {
+        dbHelper.runBackgroundMigrations();
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+
+        assertEquals(localTime(2025, Calendar.NOVEMBER, 2, 9, 15),
+                MigrationTestSupport.count(db, "SELECT order_time FROM orders WHERE id = 1"));
+        assertEquals(localTime(2025, Calendar.NOVEMBER, 3, 17, 40),
+                MigrationTestSupport.count(db, "SELECT order_time FROM orders WHERE id = 2"));
+    }
+
+    @Test
+    public void rangeQueriesFinishTheBackfillFirst() {
+        // Background steps have not run yet, so order_time is still NULL on disk
+        assertEquals(9.98, revenue(OrderFilter.acceptedOn("2025-11-02")), 0.001);
+        assertEquals(0.0, revenue(OrderFilter.acceptedOn("2025-11-03")), 0.001);
+        assertEquals(9.98, revenue(OrderFilter.acceptedInMonth(2025, 11)), 0.001);
+        assertEquals(0.0, revenue(OrderFilter.acceptedInMonth(2025, 10)), 0.001);
+        assertEquals(9.98, revenue(OrderFilter.acceptedInYear(2025)), 0.001);
+
+        List<Order> orders = dbHelper.getRevenueReport(OrderFilter.acceptedInMonth(2025, 11), 10)
+                .getFirstPage();
+        assertEquals(1, orders.size());
+        assertEquals(localTime(2025, Calendar.NOVEMBER, 2, 9, 15), orders.get(0).getOrderTime());
+    }
+
+    @Test
+    public void newOrdersLandInTodaysRange() {
+        dbHelper.runBackgroundMigrations();
+        dbHelper.createOrder(1, 3.50, "accepted");
+
+        Calendar today = Calendar.getInstance();
+        String date = String.format(Locale.US, "%04d-%02d-%02d",
+                today.get(Calendar.YEAR), today.get(Calendar.MONTH) + 1,
+                today.get(Calendar.DAY_OF_MONTH));
+        assertEquals(3.50, revenue(OrderFilter.acceptedOn(date)), 0.001);
+    }
+
+    private double revenue(OrderFilter filter) {
+        return dbHelper.getRevenueReport(filter, 1).getRevenue();
+    }
+
+    private static long localTime(int year, int month, int day, int hour, int minute) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(year, month, day, hour, minute);
+        return calendar.getTimeInMillis();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.coffeeshop.database.migrations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import com.example.coffeeshop.database.DatabaseHelper;
+import com.example.coffeeshop.database.DatabaseTestSupport;
+import com.example.coffeeshop.database.OrderFilter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class V4RevenueRollupTest {
+
+    private static final String DB_NAME = "migration_v4_test.db";
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+
+    @Before
+    public void setup() {
+        context = RuntimeEnvironment.getApplication();
+        MigrationTestSupport.createVersion1Database(context, DB_NAME);
+        dbHelper = DatabaseTestSupport.openHelper(context, DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void rollupIsBuiltFromExistingOrders() {
+        dbHelper.runBackgroundMigrations();
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+
+        assertEquals(1, MigrationTestSupport.count(db,
+                "SELECT order_count FROM revenue_daily WHERE day = '2025-11-02'"));
+        assertTrue(dbHelper.verifyRevenueRollup());
+    }
+
+    @Test
+    public void buildStopsAtTheOrdersThatExistedAtTheUpgrade() {
+        // Placed after the upgrade, so counted when it is written
+        dbHelper.createOrder(1, 3.00, "accepted");
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+
+        BackgroundMigration build = new V4RevenueRollup.RollupBuild();
+        long progress = 0;
+        int batches = 0;
+        while (progress != BackgroundMigration.DONE) {
+            progress = build.runBatch(db, progress, 1);
+            batches++;
+        }
+
+        assertEquals(2, batches);
+        assertEquals(2, MigrationTestSupport.count(db, "SELECT SUM(order_count) FROM revenue_daily"));
+        assertEquals(1, MigrationTestSupport.count(db,
+                "SELECT order_count FROM revenue_daily WHERE day = '2025-11-02'"));
+    }
+
+    @Test
+    public void rebuildBeforeTheBackgroundBuildCountsOrdersOnce() {
+        assertTrue(dbHelper.rebuildRevenueRollup());
+        dbHelper.runBackgroundMigrations();
+
+        assertEquals(9.98, dbHelper.getTotalRevenue(), 0.001);
+        assertTrue(dbHelper.verifyRevenueRollup());
+    }
+
+    @Test
+    public void revenueIsCompleteBeforeTheBackgroundBuild() {
+        // The pending order is accepted before the rollup has been filled
+        dbHelper.updateOrderStatus(2, "accepted");
+
+        assertEquals(14.97, dbHelper.getTotalRevenue(), 0.001);
+        assertEquals(4.99, dbHelper.getRevenueReport(OrderFilter.acceptedOn("2025-11-03"), 1).getRevenue(), 0.001);
+        assertTrue(dbHelper.verifyRevenueRollup());
+    }
+}
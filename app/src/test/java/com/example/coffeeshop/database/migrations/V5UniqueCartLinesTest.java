@@ -0,0 +1,63 @@
+package com.example.coffeeshop.database.migrations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import com.example.coffeeshop.database.DatabaseHelper;
+import com.example.coffeeshop.database.DatabaseTestSupport;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class V5UniqueCartLinesTest {
+
+    private static final String DB_NAME = "migration_v5_test.db";
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+
+    @Before
+    public void setup() {
+        context = RuntimeEnvironment.getApplication();
+        MigrationTestSupport.createVersion1Database(context, DB_NAME);
+        // Duplicates the old read-then-write addToCart could leave behind
+        SQLiteDatabase v1 = SQLiteDatabase.openDatabase(context.getDatabasePath(DB_NAME).getPath(),
+                null, SQLiteDatabase.OPEN_READWRITE);
+        v1.execSQL("INSERT INTO cart (user_id, product_id, quantity) VALUES (1, 1, 3)");
+        v1.execSQL("INSERT INTO cart (user_id, product_id, quantity) VALUES (1, 1, 1)");
+        v1.close();
+        dbHelper = DatabaseTestSupport.openHelper(context, DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void duplicatesAreMergedIntoTheOldestRow() {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+
+        assertEquals(1, MigrationTestSupport.count(db, "SELECT COUNT(*) FROM cart"));
+        assertEquals(1, MigrationTestSupport.count(db, "SELECT id FROM cart"));
+        assertEquals(6, MigrationTestSupport.count(db, "SELECT quantity FROM cart"));
+        assertTrue(MigrationTestSupport.indexExists(db, "idx_cart_user_product"));
+    }
+
+    @Test
+    public void addToCartIncrementsTheMergedRow() {
+        assertTrue(dbHelper.addToCart(1, 1, 2));
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+
+        assertEquals(1, MigrationTestSupport.count(db, "SELECT COUNT(*) FROM cart"));
+        assertEquals(1, MigrationTestSupport.count(db, "SELECT id FROM cart"));
+        assertEquals(8, MigrationTestSupport.count(db, "SELECT quantity FROM cart"));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.coffeeshop.database.migrations;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import com.example.coffeeshop.database.DatabaseHelper;
+import com.example.coffeeshop.database.DatabaseTestSupport;
+import com.example.coffeeshop.models.Product;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class V7ProductSearchTest {
+
+    private static final String DB_NAME = "migration_v7_test.db";
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+
+    @Before
+    public void setup() {
+        context = RuntimeEnvironment.getApplication();
+        MigrationTestSupport.createVersion1Database(context, DB_NAME);
+        dbHelper = DatabaseTestSupport.openHelper(context, DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void existingProductsAreIndexed() {
+        dbHelper.runBackgroundMigrations();
+
+        List<Product> results = dbHelper.searchProducts("steam");
+        assertEquals(1, results.size());
+        assertEquals("Latte", results.get(0).getName());
+    }
+
+    @Test
+    public void searchIsCompleteBeforeTheBackgroundBuild() {
+        List<Product> results = dbHelper.searchProducts("lat");
+
+        assertEquals(1, results.size());
+        assertEquals("Latte", results.get(0).getName());
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.coffeeshop.database.migrations;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import com.example.coffeeshop.database.DatabaseHelper;
+import com.example.coffeeshop.database.DatabaseTestSupport;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class V8ProductSearchKeysTest {
+
+    private static final String DB_NAME = "migration_v8_test.db";
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+
+    @Before
+    public void setup() {
+        context = RuntimeEnvironment.getApplication();
+        MigrationTestSupport.createVersion1Database(context, DB_NAME);
+        SQLiteDatabase v1 = SQLiteDatabase.openDatabase(context.getDatabasePath(DB_NAME).getPath(),
+                null, SQLiteDatabase.OPEN_READWRITE);
+        v1.execSQL("INSERT INTO products (name, description, price, image_url) " +
+                "VALUES ('B\\u1ea1c x\\u1ec9u', '\\u0110\\u00e1 xay', 2.99, 'latte')"); // Bạc xỉu, Đá xay
+        v1.close();
+        dbHelper = DatabaseTestSupport.openHelper(context, DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void existingProductsGetFoldedKeys() {
+        dbHelper.runBackgroundMigrations();
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+
+        Cursor cursor = db.rawQuery("SELECT search_key FROM products ORDER BY id", null);
+        cursor.moveToFirst();
+        assertEquals("latte smooth espresso with steamed milk", cursor.getString(0));
+        cursor.moveToNext();
+        assertEquals("bac xiu da xay", cursor.getString(0));
+        cursor.close();
+        assertEquals(1, dbHelper.searchProducts("bac xiu").size());
+    }
+
+    @Test
+    public void searchFillsTheKeysFirst() {
+        assertEquals(1, dbHelper.searchProducts("da xay").size());
+        assertEquals(1, dbHelper.searchProducts("latte").size());
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.coffeeshop.database.migrations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import com.example.coffeeshop.database.DatabaseHelper;
+import com.example.coffeeshop.database.DatabaseTestSupport;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class V9OrderVolumeTest {
+
+    private static final String DB_NAME = "migration_v9_test.db";
+    // The accepted version 1 order was placed on Sunday 2025-11-02 at 09:15
+    private static final int SUNDAY = 6;
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+
+    @Before
+    public void setup() {
+        context = RuntimeEnvironment.getApplication();
+        MigrationTestSupport.createVersion1Database(context, DB_NAME);
+        dbHelper = DatabaseTestSupport.openHelper(context, DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void countersAreBuiltFromExistingOrders() {
+        dbHelper.runBackgroundMigrations();
+
+        assertEquals(1, dbHelper.getOrderHeatmap().getCount(SUNDAY, 9));
+        assertEquals(1, dbHelper.getOrderHeatmap().getMax());
+        assertTrue(dbHelper.verifyOrderVolume());
+    }
+
+    @Test
+    public void buildStopsAtTheOrdersThatExistedAtTheUpgrade() {
+        // Placed after the upgrade, so counted when it is written
+        dbHelper.createOrder(1, 3.00, "accepted");
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+
+        BackgroundMigration build = new V9OrderVolume.VolumeBuild();
+        long progress = 0;
+        int batches = 0;
+        while (progress != BackgroundMigration.DONE) {
+            progress = build.runBatch(db, progress, 1);
+            batches++;
+        }
+
+        assertEquals(2, batches);
+        assertEquals(2, MigrationTestSupport.count(db, "SELECT SUM(order_count) FROM order_volume"));
+        assertEquals(1, MigrationTestSupport.count(db,
+                "SELECT order_count FROM order_volume WHERE weekday = " + SUNDAY + " AND hour = 9"));
+    }
+
+    @Test
+    public void heatmapIsCompleteBeforeTheBackgroundBuild() {
+        // The pending Monday 17:40 order is accepted before the counters have been filled
+        dbHelper.updateOrderStatus(2, "accepted");
+
+        assertEquals(1, dbHelper.getOrderHeatmap().getCount(SUNDAY, 9));
+        assertEquals(1, dbHelper.getOrderHeatmap().getCount(0, 17));
+        assertTrue(dbHelper.verifyOrderVolume());
+    }
+}
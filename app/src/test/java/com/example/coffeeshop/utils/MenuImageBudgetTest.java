@@ -0,0 +1,65 @@
+package com.example.coffeeshop.utils;
+
+import static org.junit.Assert.assertTrue;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import com.example.coffeeshop.R;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+/**
+ * Decodes every bundled catalog image the way Android would on an xxhdpi
+ * screen, density scaling included. A photo left in the mdpi bucket is scaled
+ * up three times in each direction and blows through these budgets.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(qualifiers = "xxhdpi")
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class MenuImageBudgetTest {
+
+    // The detail image's longest edge in menu-images.gradle
+    private static final int MAX_DP = 480;
+
+    @Test
+    public void listThumbnailsFitTheRowBudget() {
+        Resources resources = RuntimeEnvironment.getApplication().getResources();
+        int size = resources.getDimensionPixelSize(R.dimen.product_thumbnail_size);
+        // A square row, with room for photos up to twice as long as they are wide
+        long budget = 2L * size * size * 4;
+
+        for (ProductImageLoader.BundledImage image : ProductImageLoader.BundledImage.values()) {
+            assertWithin(image + " thumbnail", decodedBytes(resources, image.thumbnail), budget);
+        }
+    }
+
+    @Test
+    public void detailImagesFitTheScreenBudget() {
+        Resources resources = RuntimeEnvironment.getApplication().getResources();
+        int longest = Math.round(MAX_DP * resources.getDisplayMetrics().density);
+        long budget = (long) longest * longest * 4;
+
+        for (ProductImageLoader.BundledImage image : ProductImageLoader.BundledImage.values()) {
+            assertWithin(image.toString(), decodedBytes(resources, image.full), budget);
+        }
+    }
+
+    private static long decodedBytes(Resources resources, int id) {
+        Bitmap bitmap = BitmapFactory.decodeResource(resources, id);
+        try {
+            return bitmap.getAllocationByteCount();
+        } finally {
+            bitmap.recycle();
+        }
+    }
+
+    private static void assertWithin(String image, long bytes, long budget) {
+        assertTrue(image + " decodes to " + bytes + " bytes, over the " + budget + " budget",
+                bytes <= budget);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.coffeeshop.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.coffeeshop.R;
+import org.junit.Test;
+
+public class ProductImageLoaderTest {
+
+    private static final String THUMBNAIL = "c_fill,w_240,h_240,q_auto";
+
+    @Test
+    public void cloudinaryUrlsAskForTheSizeShown() {
+        assertEquals("https://res.cloudinary.com/demo/image/upload/c_fill,w_240,h_240,q_auto/v17/coffee_shop/latte.jpg",
+                ProductImageLoader.sizedUrl(
+                        "https://res.cloudinary.com/demo/image/upload/v17/coffee_shop/latte.jpg", THUMBNAIL));
+    }
+
+    @Test
+    public void otherUrlsAreLoadedAsTheyAre() {
+        String url = "https://example.com/images/latte.jpg";
+
+        assertEquals(url, ProductImageLoader.sizedUrl(url, THUMBNAIL));
+    }
+
+    @Test
+    public void bundledNamesMapToTheirDrawables() {
+        assertEquals(R.drawable.latte, ProductImageLoader.drawableFor("Latte"));
+        assertEquals(R.drawable.coffee_default, ProductImageLoader.drawableFor("unknown"));
+        assertEquals(R.drawable.coffee_default, ProductImageLoader.drawableFor(null));
+    }
+
+    @Test
+    public void onlyHttpImagesAreRemote() {
+        assertTrue(ProductImageLoader.isRemote("https://res.cloudinary.com/demo/image/upload/latte.jpg"));
+        assertFalse(ProductImageLoader.isRemote("latte"));
+        assertFalse(ProductImageLoader.isRemote(null));
+    }
+}